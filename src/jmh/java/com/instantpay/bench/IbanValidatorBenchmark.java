@@ -0,0 +1,22 @@
+package com.instantpay.bench;
+
+import com.instantpay.validation.IbanValidator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class IbanValidatorBenchmark {
+
+    @Param({"CH9300762011623852957", "CH9300762011623852958", "not-an-iban"})
+    public String iban;
+
+    private final IbanValidator validator = new IbanValidator();
+
+    @Benchmark
+    public boolean isValid() {
+        return validator.isValid(iban, null);
+    }
+}
@@ -0,0 +1,125 @@
+package com.instantpay.bench;
+
+import com.instantpay.adapter.out.memory.InMemoryBalanceStripesAdapter;
+import com.instantpay.adapter.out.memory.InMemoryCreditJournalAdapter;
+import com.instantpay.domain.model.Account;
+import com.instantpay.domain.model.Payment;
+import com.instantpay.domain.model.Transaction;
+import com.instantpay.domain.port.out.*;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Minimal ports for benchmarking the domain layer alone. Payments and ledger rows are dropped on
+ * the floor so the heap stays flat over long runs; only account balances are kept.
+ */
+final class InMemoryPorts {
+
+    final ConcurrentHashMap<String, Account> accounts = new ConcurrentHashMap<>();
+
+    final AccountRepositoryPort accountRepo = new AccountRepositoryPort() {
+        @Override
+        public Optional<Account> findByIbanForUpdate(String iban) {
+            return Optional.ofNullable(accounts.get(iban));
+        }
+
+        @Override
+        public Optional<Account> findByIban(String iban) {
+            return Optional.ofNullable(accounts.get(iban));
+        }
+
+        @Override
+        public Account save(Account account) {
+            accounts.put(account.iban(), account);
+            return account;
+        }
+
+        @Override
+        public boolean saveIfUnchanged(Account account) {
+            save(new Account(account.id(), account.iban(), account.balance(), account.version() + 1));
+            return true;
+        }
+
+        @Override
+        public Optional<ConditionalDebit> debitIfCovered(String iban, BigDecimal amount) {
+            var a = accounts.get(iban);
+            if (a == null) return Optional.empty();
+            if (a.balance().compareTo(amount) < 0) return Optional.of(new ConditionalDebit(a, false));
+            return Optional.of(new ConditionalDebit(save(a.debit(amount)), true));
+        }
+
+        @Override
+        public Optional<Account> credit(String iban, BigDecimal amount) {
+            return Optional.ofNullable(accounts.get(iban)).map(a -> save(a.credit(amount)));
+        }
+    };
+
+    final BalanceStripesPort stripes = new InMemoryBalanceStripesAdapter();
+
+    final CreditJournalPort journal = new InMemoryCreditJournalAdapter();
+
+    final PaymentRepositoryPort paymentRepo = new PaymentRepositoryPort() {
+        @Override
+        public Payment save(Payment payment) {
+            return payment;
+        }
+
+        @Override
+        public Optional<Payment> findById(UUID id) {
+            return Optional.empty();
+        }
+
+        @Override
+        public List<Payment> findAllByIds(Collection<UUID> ids) {
+            return List.of();
+        }
+
+        @Override
+        public Optional<Payment> findByIdempotencyKey(String idempotencyKey) {
+            return Optional.empty();
+        }
+
+        @Override
+        public List<Payment> findAllByIdempotencyKeys(Collection<String> idempotencyKeys) {
+            return List.of();
+        }
+    };
+
+    final TransactionRepositoryPort txRepo = new TransactionRepositoryPort() {
+        @Override
+        public Transaction append(Transaction tx) {
+            return tx;
+        }
+
+        @Override
+        public List<Transaction> appendAll(List<Transaction> txs) {
+            return txs;
+        }
+
+        @Override
+        public List<Transaction> appendUnsequenced(List<Transaction> txs) {
+            return txs;
+        }
+
+        @Override
+        public int sequencePending(String iban) {
+            return 0;
+        }
+    };
+
+    final PaymentEventPublisherPort publisher = new PaymentEventPublisherPort() {
+        @Override
+        public void publishPaymentCreated(Payment payment) {}
+
+        @Override
+        public void publishPaymentCompleted(Payment payment) {}
+
+        @Override
+        public void publishPaymentFailed(Payment payment, String reason) {}
+    };
+}
@@ -0,0 +1,23 @@
+package com.instantpay.bench;
+
+import com.instantpay.adapter.in.web.dto.SendPaymentRequest;
+import com.instantpay.adapter.in.web.mapper.PaymentCommandMapper;
+import com.instantpay.domain.port.in.SendPaymentUseCase.SendPaymentCommand;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class PaymentCommandMapperBenchmark {
+
+    private final SendPaymentRequest request = new SendPaymentRequest(
+            "CH9300762011623852957", "CH5604835012345678009", "CHF", new BigDecimal("42.50"), "Invoice 4711");
+
+    @Benchmark
+    public SendPaymentCommand toCommand() {
+        return PaymentCommandMapper.toCommand("idem-1", "req-1", request);
+    }
+}
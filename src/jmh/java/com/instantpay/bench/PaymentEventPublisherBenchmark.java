@@ -0,0 +1,44 @@
+package com.instantpay.bench;
+
+import com.instantpay.adapter.out.kafka.PaymentEventPublisherAdapter;
+import com.instantpay.domain.model.Payment;
+import com.instantpay.domain.port.in.SendPaymentUseCase.SendPaymentCommand;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.util.concurrent.TimeUnit;
+
+/** Event construction only: the application event publisher hands every event to a blackhole. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class PaymentEventPublisherBenchmark {
+
+    private PaymentEventPublisherAdapter adapter;
+    private Payment payment;
+
+    @Setup
+    public void setUp(Blackhole bh) {
+        adapter = new PaymentEventPublisherAdapter(bh::consume);
+        payment = Payment.newCreated(new SendPaymentCommand(
+                "idem-1", "CH9300762011623852957", "CH5604835012345678009", "CHF",
+                new BigDecimal("42.50"), "Invoice 4711", null), Clock.systemUTC());
+    }
+
+    @Benchmark
+    public void created() {
+        adapter.publishPaymentCreated(payment);
+    }
+
+    @Benchmark
+    public void completed() {
+        adapter.publishPaymentCompleted(payment);
+    }
+
+    @Benchmark
+    public void failed() {
+        adapter.publishPaymentFailed(payment, "Insufficient balance on source account.");
+    }
+}
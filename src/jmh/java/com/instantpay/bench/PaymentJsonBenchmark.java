@@ -0,0 +1,66 @@
+package com.instantpay.bench;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.instantpay.adapter.in.web.dto.PaymentResponse;
+import com.instantpay.adapter.in.web.dto.SendPaymentRequest;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/** Request/response (de)serialization as the web layer does it, with reader/writer reuse. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class PaymentJsonBenchmark {
+
+    private ObjectReader requestReader;
+    private ObjectWriter requestWriter;
+    private ObjectReader responseReader;
+    private ObjectWriter responseWriter;
+
+    private SendPaymentRequest request;
+    private PaymentResponse response;
+    private byte[] requestJson;
+    private byte[] responseJson;
+
+    @Setup
+    public void setUp() throws IOException {
+        var mapper = new ObjectMapper();
+        requestReader = mapper.readerFor(SendPaymentRequest.class);
+        requestWriter = mapper.writerFor(SendPaymentRequest.class);
+        responseReader = mapper.readerFor(PaymentResponse.class);
+        responseWriter = mapper.writerFor(PaymentResponse.class);
+
+        request = new SendPaymentRequest(
+                "CH9300762011623852957", "CH5604835012345678009", "CHF", new BigDecimal("42.50"), "Invoice 4711");
+        response = new PaymentResponse(UUID.randomUUID(), "COMPLETED", "Payment completed");
+        requestJson = requestWriter.writeValueAsString(request).getBytes(StandardCharsets.UTF_8);
+        responseJson = responseWriter.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public SendPaymentRequest readRequest() throws IOException {
+        return requestReader.readValue(requestJson);
+    }
+
+    @Benchmark
+    public byte[] writeRequest() throws IOException {
+        return requestWriter.writeValueAsBytes(request);
+    }
+
+    @Benchmark
+    public PaymentResponse readResponse() throws IOException {
+        return responseReader.readValue(responseJson);
+    }
+
+    @Benchmark
+    public byte[] writeResponse() throws IOException {
+        return responseWriter.writeValueAsBytes(response);
+    }
+}
@@ -0,0 +1,79 @@
+package com.instantpay.bench;
+
+import com.instantpay.domain.model.Account;
+import com.instantpay.domain.port.in.SendPaymentUseCase;
+import com.instantpay.domain.port.in.SendPaymentUseCase.SendPaymentCommand;
+import com.instantpay.domain.usecase.AccountDirectory;
+import com.instantpay.domain.usecase.AccountLocks;
+import com.instantpay.domain.usecase.DebtorLimits;
+import com.instantpay.domain.usecase.IdempotencyCache;
+import com.instantpay.domain.usecase.PaymentService;
+import com.instantpay.domain.usecase.TransferMode;
+import com.instantpay.domain.usecase.TransferPolicy;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/** {@code PaymentService.send} without a database: validation, locking order, domain math, ledger legs. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class PaymentServiceBenchmark {
+
+    private static final String DEBTOR = "CH9300762011623852957";
+    private static final String CREDITOR = "CH5604835012345678009";
+
+    @Param({"PESSIMISTIC", "CONDITIONAL", "OPTIMISTIC"})
+    public TransferMode mode;
+
+    private PaymentService service;
+    private long seq;
+
+    @Setup
+    public void setUp() {
+        var ports = new InMemoryPorts();
+        // Large enough that the debtor never runs dry during a run
+        ports.accounts.put(DEBTOR, new Account(UUID.randomUUID(), DEBTOR, new BigDecimal("1000000000000.00"), 0));
+        ports.accounts.put(CREDITOR, new Account(UUID.randomUUID(), CREDITOR, BigDecimal.ZERO, 0));
+        var meters = new SimpleMeterRegistry();
+        service = new PaymentService(ports.paymentRepo, ports.accountRepo, ports.stripes, ports.journal, ports.txRepo, ports.publisher, Clock.systemUTC(),
+                meters, TransferPolicy.of(mode), IdempotencyCache.disabled(meters),
+                AccountLocks.disabled(meters), DebtorLimits.disabled(meters), AccountDirectory.disabled(meters),
+                TransactionOperations.withoutTransaction());
+    }
+
+    @Benchmark
+    public SendPaymentUseCase.Result send() {
+        return service.send(next());
+    }
+
+    // N single calls vs. one batch of N; @OperationsPerInvocation reports both per payment
+    @Benchmark
+    @OperationsPerInvocation(100)
+    public void send100Singles() {
+        for (int i = 0; i < 100; i++) {
+            service.send(next());
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(100)
+    public List<SendPaymentUseCase.ItemResult> sendBatch100() {
+        var cmds = new ArrayList<SendPaymentCommand>(100);
+        for (int i = 0; i < 100; i++) {
+            cmds.add(next());
+        }
+        return service.sendBatch(cmds);
+    }
+
+    private SendPaymentCommand next() {
+        return new SendPaymentCommand("bench-" + seq++, DEBTOR, CREDITOR, "CHF", new BigDecimal("1.00"), "bench", null);
+    }
+}
@@ -0,0 +1,123 @@
+package com.instantpay.adapter.in.pg;
+
+import com.instantpay.domain.port.in.InvalidateCacheUseCase;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.JdbcConnectionDetails;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * {@code LISTEN}s on the invalidation channel over its own connection (outside the Hikari pool, which
+ * would otherwise lose a connection for good) and hands every notification to the caches. Notifications
+ * sent while the connection is down are lost, so every (re)connect starts with a resync. The resync
+ * reads in a read-only transaction, like {@code AccountDirectoryRefresher}, so the table is streamed.
+ */
+@Component
+@Profile("!memory")
+public class PgInvalidationListener implements AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(PgInvalidationListener.class);
+
+    private static final int POLL_MILLIS = 500;
+    private static final Duration VALIDATE_EVERY = Duration.ofSeconds(30);
+
+    private final InvalidateCacheUseCase caches;
+    private final JdbcConnectionDetails db;
+    private final String channel;
+    private final Duration reconnectDelay;
+    private final TransactionTemplate tx;
+    private volatile boolean running = true;
+    private Thread thread;
+
+    public PgInvalidationListener(InvalidateCacheUseCase caches,
+                                  JdbcConnectionDetails db,
+                                  @Value("${app.payments.cache-invalidation.channel:cache_invalidation}") String channel,
+                                  @Value("${app.payments.cache-invalidation.reconnect-delay:PT2S}") Duration reconnectDelay,
+                                  PlatformTransactionManager txManager) {
+        if (!channel.matches("[a-z_][a-z0-9_]*")) {
+            throw new IllegalArgumentException("Invalid invalidation channel name: " + channel);
+        }
+        this.caches = caches;
+        this.db = db;
+        this.channel = channel;
+        this.reconnectDelay = reconnectDelay;
+        this.tx = new TransactionTemplate(txManager);
+        this.tx.setReadOnly(true);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (thread == null) {
+            thread = Thread.ofPlatform().name("cache-invalidation-listener").daemon().start(this::run);
+        }
+    }
+
+    private void run() {
+        while (running) {
+            try (var conn = DriverManager.getConnection(db.getJdbcUrl(), db.getUsername(), db.getPassword())) {
+                listen(conn);
+            } catch (SQLException | RuntimeException e) {
+                if (running) log.warn("Cache invalidation listener lost its connection; reconnecting", e);
+            }
+            try {
+                Thread.sleep(reconnectDelay.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void listen(Connection conn) throws SQLException {
+        try (var st = conn.createStatement()) {
+            st.execute("LISTEN " + channel);
+        }
+        tx.executeWithoutResult(status -> caches.resync()); // whatever was sent before LISTEN took effect
+        var pg = conn.unwrap(PGConnection.class);
+        var validated = System.nanoTime();
+        while (running) {
+            var notifications = pg.getNotifications(POLL_MILLIS);
+            if (notifications != null) {
+                for (var n : notifications) dispatch(n);
+            }
+            // A silently dropped connection does not fail getNotifications; a round trip does
+            if (System.nanoTime() - validated > VALIDATE_EVERY.toNanos()) {
+                if (!conn.isValid(5)) throw new SQLException("Listener connection is no longer valid");
+                validated = System.nanoTime();
+            }
+        }
+    }
+
+    // "<cache> [<sent epoch millis>]", then one key per line
+    private void dispatch(PGNotification n) {
+        try {
+            var lines = n.getParameter().split("\n");
+            var header = lines[0].trim().split(" ");
+            var sentAt = header.length > 1 ? Instant.ofEpochMilli(Long.parseLong(header[1])) : null;
+            List<String> keys = Arrays.asList(lines).subList(1, lines.length);
+            caches.invalidate(header[0], keys, sentAt);
+        } catch (RuntimeException e) {
+            log.warn("Ignoring malformed cache invalidation: {}", n.getParameter(), e);
+        }
+    }
+
+    @Override
+    public void close() {
+        running = false;
+    }
+}
@@ -0,0 +1,86 @@
+package com.instantpay.adapter.in.web;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Vegas-style concurrency limit: compares each request's latency with the lowest latency seen
+ * (no queueing) to estimate how many requests are queued behind the connection pool and row
+ * locks. A small estimated queue grows the limit by one, a large one shrinks it by one, a failed
+ * request (5xx) cuts it by 10%. The no-load latency is re-probed periodically so it can drift.
+ * One instance per endpoint: a batch takes far longer than a single payment, and mixing the two
+ * would read every batch as queueing. Meters are tagged with the endpoint.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private static final int PROBE_EVERY = 1_000;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Counter rejected;
+    private volatile int limit;
+    private long noLoadRttNanos;
+    private long samples;
+
+    public AdaptiveConcurrencyLimiter(String endpoint, int initialLimit, int minLimit, int maxLimit, MeterRegistry registry) {
+        this.minLimit = Math.max(1, minLimit);
+        this.maxLimit = Math.max(this.minLimit, maxLimit);
+        this.limit = Math.clamp(initialLimit, this.minLimit, this.maxLimit);
+        this.rejected = Counter.builder("payment.admission.rejected")
+                .description("Requests turned away because the concurrency limit was reached")
+                .tag("endpoint", endpoint)
+                .register(registry);
+        Gauge.builder("payment.admission.limit", this, AdaptiveConcurrencyLimiter::limit).tag("endpoint", endpoint).register(registry);
+        Gauge.builder("payment.admission.inflight", inFlight, AtomicInteger::get).tag("endpoint", endpoint).register(registry);
+    }
+
+    /** Takes a slot, or returns false (and counts a rejection) when the limit is reached. */
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                rejected.increment();
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) return true;
+        }
+    }
+
+    /** Gives the slot back and feeds the request's latency (or failure) into the limit. */
+    public void release(long rttNanos, boolean failed) {
+        int inFlightBefore = inFlight.getAndDecrement();
+        update(rttNanos, failed, inFlightBefore);
+    }
+
+    /** Gives the slot back without a sample, for requests whose latency says nothing about the load. */
+    public void releaseUnmeasured() {
+        inFlight.decrementAndGet();
+    }
+
+    public int limit() {
+        return limit;
+    }
+
+    private synchronized void update(long rtt, boolean failed, int inFlightBefore) {
+        if (failed) {
+            limit = Math.max(minLimit, (int) (limit * 0.9));
+            return;
+        }
+        if (rtt <= 0) return;
+        if (noLoadRttNanos == 0 || rtt < noLoadRttNanos || ++samples % PROBE_EVERY == 0) {
+            noLoadRttNanos = rtt;
+        }
+        int queued = (int) Math.ceil(limit * (1 - (double) noLoadRttNanos / rtt));
+        double log = Math.max(1, Math.log10(limit));
+        if (queued <= 3 * log) {
+            // Only grow when the limit is actually being used, not while traffic is light
+            if (inFlightBefore * 2 >= limit) limit = Math.min(maxLimit, limit + 1);
+        } else if (queued >= 6 * log) {
+            limit = Math.max(minLimit, limit - 1);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.instantpay.adapter.in.web;
+
+import com.instantpay.domain.error.AccountBusyException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.servlet.DispatcherServlet;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.time.Duration;
+
+/**
+ * Admission control for the payment write endpoints: a request only reaches {@code SendPaymentUseCase}
+ * if the {@link AdaptiveConcurrencyLimiter} has a slot, otherwise it fails fast with 503 instead of
+ * waiting on the connection pool. Thrown from preHandle, so {@link GlobalExceptionHandler} renders it.
+ * Only requests that reached settlement are fed back as latency samples. 4xx answers (validation,
+ * unknown accounts, debtor limits), idempotent replays and the 503 this node produced itself for a
+ * busy account come back without settling anything; their microsecond latencies would pass for the
+ * no-load latency and make every real settlement look queued.
+ */
+public class AdmissionInterceptor implements HandlerInterceptor {
+
+    private static final String STARTED = AdmissionInterceptor.class.getName() + ".started";
+    private static final String UNMEASURED = AdmissionInterceptor.class.getName() + ".unmeasured";
+
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final Duration retryAfter;
+
+    public AdmissionInterceptor(AdaptiveConcurrencyLimiter limiter, Duration retryAfter) {
+        this.limiter = limiter;
+        this.retryAfter = retryAfter;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!"POST".equals(request.getMethod())) return true;
+        if (!limiter.tryAcquire()) {
+            throw new ServiceOverloadedException("Too many payments in flight, retry later", retryAfter);
+        }
+        request.setAttribute(STARTED, System.nanoTime());
+        return true;
+    }
+
+    /** Marks a request as answered without settling anything, e.g. an idempotent replay. */
+    public static void unmeasured(HttpServletRequest request) {
+        request.setAttribute(UNMEASURED, Boolean.TRUE);
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (!(request.getAttribute(STARTED) instanceof Long started)) return;
+        request.removeAttribute(STARTED);
+        // Exceptions resolved by GlobalExceptionHandler arrive here as null; the dispatcher keeps them in an attribute
+        var failure = ex != null ? ex : request.getAttribute(DispatcherServlet.EXCEPTION_ATTRIBUTE);
+        int status = response.getStatus();
+        if (failure instanceof AccountBusyException || (status >= 400 && status < 500)
+                || request.getAttribute(UNMEASURED) != null) {
+            limiter.releaseUnmeasured();
+            return;
+        }
+        limiter.release(System.nanoTime() - started, ex != null || status >= 500);
+    }
+}
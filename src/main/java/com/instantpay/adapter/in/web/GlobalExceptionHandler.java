@@ -18,6 +18,7 @@ import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
@@ -32,6 +33,8 @@ public class GlobalExceptionHandler {
     private static final String TYPE_BUSINESS   = "about:blank/business-rule";
     private static final String TYPE_INTERNAL   = "about:blank/internal-error";
     private static final String TYPE_BAD_REQ    = "about:blank/bad-request";
+    private static final String TYPE_BUSY       = "about:blank/service-unavailable";
+    private static final String TYPE_LIMITED    = "about:blank/rate-limited";
 
     // ---- Validation: @Valid body (Bean Validation) ----
     @ExceptionHandler(MethodArgumentNotValidException.class)
@@ -85,6 +88,11 @@ public class GlobalExceptionHandler {
         return problem(HttpStatus.NOT_FOUND, TYPE_NOT_FOUND, "Account not found", ex.getMessage(), req, null);
     }
 
+    @ExceptionHandler(PaymentNotFoundException.class)
+    public ResponseEntity<ApiError> handlePaymentNotFound(PaymentNotFoundException ex, HttpServletRequest req) {
+        return problem(HttpStatus.NOT_FOUND, TYPE_NOT_FOUND, "Payment not found", ex.getMessage(), req, null);
+    }
+
     @ExceptionHandler({DuplicatePaymentException.class, IdempotencyConflictException.class})
     public ResponseEntity<ApiError> handleConflict(RuntimeException ex, HttpServletRequest req) {
         return problem(HttpStatus.CONFLICT, TYPE_CONFLICT, "Conflict", ex.getMessage(), req, null);
@@ -95,6 +103,30 @@ public class GlobalExceptionHandler {
         return problem(HttpStatus.UNPROCESSABLE_ENTITY, TYPE_BUSINESS, "Business rule violation", ex.getMessage(), req, null);
     }
 
+    @ExceptionHandler(DebtorLimitExceededException.class)
+    public ResponseEntity<ApiError> handleDebtorLimit(DebtorLimitExceededException ex, HttpServletRequest req) {
+        return withRetryAfter(problem(HttpStatus.TOO_MANY_REQUESTS, TYPE_LIMITED, "Debtor limit exceeded", ex.getMessage(), req, null),
+                ex.retryAfter());
+    }
+
+    @ExceptionHandler(AccountBusyException.class)
+    public ResponseEntity<ApiError> handleBusy(AccountBusyException ex, HttpServletRequest req) {
+        return withRetryAfter(problem(HttpStatus.SERVICE_UNAVAILABLE, TYPE_BUSY, "Account busy", ex.getMessage(), req, null),
+                ex.retryAfter());
+    }
+
+    @ExceptionHandler(SettlementPendingException.class)
+    public ResponseEntity<ApiError> handlePending(SettlementPendingException ex, HttpServletRequest req) {
+        return withRetryAfter(problem(HttpStatus.SERVICE_UNAVAILABLE, TYPE_BUSY, "Settlement pending", ex.getMessage(), req, null),
+                ex.retryAfter());
+    }
+
+    @ExceptionHandler(ServiceOverloadedException.class)
+    public ResponseEntity<ApiError> handleOverloaded(ServiceOverloadedException ex, HttpServletRequest req) {
+        return withRetryAfter(problem(HttpStatus.SERVICE_UNAVAILABLE, TYPE_BUSY, "Service overloaded", ex.getMessage(), req, null),
+                ex.retryAfter());
+    }
+
     // ---- Spring's ErrorResponseException (e.g., thrown by WebFlux/Spring 6 APIs) ----
     @ExceptionHandler(ErrorResponseException.class)
     public ResponseEntity<ApiError> handleErrorResponse(ErrorResponseException ex, HttpServletRequest req) {
@@ -133,6 +165,13 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(body, headers, status);
     }
 
+    private static ResponseEntity<ApiError> withRetryAfter(ResponseEntity<ApiError> res, Duration after) {
+        var headers = new HttpHeaders();
+        headers.putAll(res.getHeaders());
+        headers.set(HttpHeaders.RETRY_AFTER, Long.toString(Math.max(1, (after.toMillis() + 999) / 1000)));
+        return new ResponseEntity<>(res.getBody(), headers, res.getStatusCode());
+    }
+
     private static String firstNonBlank(String... vals) {
         if (vals == null) return null;
         for (String v : vals) {
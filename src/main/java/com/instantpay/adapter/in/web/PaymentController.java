@@ -1,32 +1,40 @@
 package com.instantpay.adapter.in.web;
 
+import com.instantpay.adapter.in.web.dto.BatchPaymentResponse;
 import com.instantpay.adapter.in.web.dto.PaymentResponse;
+import com.instantpay.adapter.in.web.dto.SendPaymentBatchRequest;
 import com.instantpay.adapter.in.web.dto.SendPaymentRequest;
 import com.instantpay.adapter.in.web.mapper.PaymentCommandMapper;
+import com.instantpay.domain.port.in.GetPaymentUseCase;
 import com.instantpay.domain.port.in.SendPaymentUseCase;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.UUID;
+
 @RestController
 @RequestMapping("/api/payments")
 public class PaymentController {
 
     private final SendPaymentUseCase sendPayment;
+    private final GetPaymentUseCase getPayment;
 
-    public PaymentController(SendPaymentUseCase sendPayment) {
+    public PaymentController(SendPaymentUseCase sendPayment, GetPaymentUseCase getPayment) {
         this.sendPayment = sendPayment;
+        this.getPayment = getPayment;
     }
 
     @PostMapping
     public ResponseEntity<PaymentResponse> send(
             @RequestHeader("Idempotency-Key") String idemKey,
             @RequestHeader(value = "X-Request-Id", required = false) String requestId,
-            @RequestBody @Valid SendPaymentRequest request) {
-
-
+            @RequestBody @Valid SendPaymentRequest request,
+            HttpServletRequest servletRequest) {
 
         var result = sendPayment.send(PaymentCommandMapper.toCommand(idemKey, requestId,request));
+        if (result.replayed()) AdmissionInterceptor.unmeasured(servletRequest);
         var body = new PaymentResponse(result.paymentId(), result.status().name(), result.message());
         // Pick one depending on your flow:
         return switch (result.status()) {
@@ -36,6 +44,25 @@ public class PaymentController {
         };
     }
 
+    @PostMapping("/batch")
+    public ResponseEntity<BatchPaymentResponse> sendBatch(
+            @RequestHeader(value = "X-Request-Id", required = false) String requestId,
+            @RequestBody @Valid SendPaymentBatchRequest request) {
+
+        var results = sendPayment.sendBatch(PaymentCommandMapper.toCommands(requestId, request));
+        var items = results.stream()
+                .map(r -> new BatchPaymentResponse.Item(r.idempotencyKey(), r.paymentId(), r.status().name(), r.message()))
+                .toList();
+        // Per-item outcomes are in the body; the batch itself was processed
+        return ResponseEntity.ok(new BatchPaymentResponse(items));
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<PaymentResponse> get(@PathVariable UUID id) {
+        var view = getPayment.get(id);
+        return ResponseEntity.ok(new PaymentResponse(view.paymentId(), view.status().name(), view.message()));
+    }
+
     @GetMapping("/health")
     public String health() { return "OK"; }
 }
@@ -0,0 +1,15 @@
+package com.instantpay.adapter.in.web;
+
+import java.time.Duration;
+
+/** Turned away by the admission limiter before reaching the use case. */
+public class ServiceOverloadedException extends RuntimeException {
+    private final Duration retryAfter;
+
+    public ServiceOverloadedException(String msg, Duration retryAfter) {
+        super(msg);
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration retryAfter() { return retryAfter; }
+}
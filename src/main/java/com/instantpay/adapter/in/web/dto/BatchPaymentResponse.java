@@ -0,0 +1,12 @@
+package com.instantpay.adapter.in.web.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+import java.util.UUID;
+
+public record BatchPaymentResponse(List<Item> items) {
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public record Item(String idempotencyKey, UUID id, String status, String message) {}
+}
@@ -0,0 +1,25 @@
+package com.instantpay.adapter.in.web.dto;
+
+import com.instantpay.validation.ValidIban;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+public record SendPaymentBatchRequest(
+        @NotEmpty @Size(max = 1000) List<@Valid @NotNull Item> items
+) {
+    public record Item(
+            @NotBlank @Size(max = 255) String idempotencyKey,
+            @NotBlank @ValidIban String debtorIban,
+            @NotBlank @ValidIban String creditorIban,
+            @NotBlank @Size(min=3, max=3) String currency,
+            @NotNull @DecimalMin(value = "0.01") BigDecimal amount,
+            @Size(max = 140) String remittanceInfo
+    ) {}
+}
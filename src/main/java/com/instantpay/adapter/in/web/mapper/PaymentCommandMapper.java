@@ -1,8 +1,11 @@
 package com.instantpay.adapter.in.web.mapper;
 
+import com.instantpay.adapter.in.web.dto.SendPaymentBatchRequest;
 import com.instantpay.adapter.in.web.dto.SendPaymentRequest;
 import com.instantpay.domain.port.in.SendPaymentUseCase.SendPaymentCommand;
 
+import java.util.List;
+
 public final class PaymentCommandMapper {
     private PaymentCommandMapper() {}
     public static SendPaymentCommand toCommand(String idemKey, String requestId, SendPaymentRequest request) {
@@ -16,4 +19,18 @@ public final class PaymentCommandMapper {
                 requestId
         );
     }
+
+    public static List<SendPaymentCommand> toCommands(String requestId, SendPaymentBatchRequest request) {
+        return request.items().stream()
+                .map(item -> new SendPaymentCommand(
+                        item.idempotencyKey(),
+                        item.debtorIban(),
+                        item.creditorIban(),
+                        item.currency(),
+                        item.amount(),
+                        item.remittanceInfo(),
+                        requestId
+                ))
+                .toList();
+    }
 }
@@ -0,0 +1,64 @@
+package com.instantpay.adapter.out.jdbc;
+
+import com.instantpay.domain.model.Account;
+import com.instantpay.domain.port.out.AccountRepositoryPort.ConditionalDebit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+import java.util.UUID;
+
+/** Conditional balance reads and updates shared by the JPA and JDBC account adapters. */
+public final class BalanceStatements {
+
+    // Debits when covered; otherwise returns the unchanged row, so "insufficient" and "unknown"
+    // are told apart in the same round trip
+    private static final String DEBIT_IF_COVERED = """
+            WITH debited AS (
+                UPDATE accounts SET balance = balance - ?, version = version + 1
+                 WHERE iban = ? AND balance >= ?
+             RETURNING id, iban, balance, version
+            )
+            SELECT id, iban, balance, version, TRUE AS applied FROM debited
+            UNION ALL
+            SELECT id, iban, balance, version, FALSE FROM accounts
+             WHERE iban = ? AND NOT EXISTS (SELECT 1 FROM debited)
+            """;
+
+    private static final String CREDIT = """
+            UPDATE accounts SET balance = balance + ?, version = version + 1
+             WHERE iban = ?
+         RETURNING id, iban, balance, version
+            """;
+
+    private static final String SAVE_IF_UNCHANGED =
+            "UPDATE accounts SET balance = ?, version = version + 1 WHERE id = ? AND version = ?";
+
+    private static final RowMapper<Account> ACCOUNT = (rs, i) -> new Account(
+            rs.getObject("id", UUID.class),
+            rs.getString("iban"),
+            rs.getBigDecimal("balance"),
+            rs.getLong("version"));
+
+    private BalanceStatements() {}
+
+    public static Optional<Account> find(JdbcTemplate jdbc, String iban) {
+        return jdbc.query("SELECT id, iban, balance, version FROM accounts WHERE iban = ?", ACCOUNT, iban)
+                .stream().findFirst();
+    }
+
+    public static boolean saveIfUnchanged(JdbcTemplate jdbc, Account account) {
+        return jdbc.update(SAVE_IF_UNCHANGED, account.balance(), account.id(), account.version()) == 1;
+    }
+
+    public static Optional<ConditionalDebit> debitIfCovered(JdbcTemplate jdbc, String iban, BigDecimal amount) {
+        return jdbc.query(DEBIT_IF_COVERED,
+                (rs, i) -> new ConditionalDebit(ACCOUNT.mapRow(rs, i), rs.getBoolean("applied")),
+                amount, iban, amount, iban).stream().findFirst();
+    }
+
+    public static Optional<Account> credit(JdbcTemplate jdbc, String iban, BigDecimal amount) {
+        return jdbc.query(CREDIT, ACCOUNT, amount, iban).stream().findFirst();
+    }
+}
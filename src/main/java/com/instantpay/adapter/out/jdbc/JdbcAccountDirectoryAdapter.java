@@ -0,0 +1,35 @@
+package com.instantpay.adapter.out.jdbc;
+
+import com.instantpay.domain.port.out.AccountDirectoryPort;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.BiConsumer;
+
+@Component
+@Profile("!memory")
+public class JdbcAccountDirectoryAdapter implements AccountDirectoryPort {
+
+    private static final int FETCH_SIZE = 10_000;
+
+    private final JdbcTemplate jdbc;
+
+    public JdbcAccountDirectoryAdapter(JdbcTemplate jdbc) {
+        this.jdbc = new JdbcTemplate(jdbc.getDataSource());
+        this.jdbc.setFetchSize(FETCH_SIZE); // pgjdbc streams in batches inside a transaction instead of loading the table
+    }
+
+    @Override
+    public void forEachAccount(BiConsumer<String, UUID> ibanAndId) {
+        jdbc.query("SELECT iban, id FROM accounts",
+                rs -> { ibanAndId.accept(rs.getString("iban"), rs.getObject("id", UUID.class)); });
+    }
+
+    @Override
+    public Optional<UUID> findId(String iban) {
+        return jdbc.queryForList("SELECT id FROM accounts WHERE iban = ?", UUID.class, iban).stream().findFirst();
+    }
+}
@@ -0,0 +1,68 @@
+package com.instantpay.adapter.out.jdbc;
+
+import com.instantpay.domain.model.Account;
+import com.instantpay.domain.port.out.AccountRepositoryPort;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+import java.util.UUID;
+
+@Component
+@Profile("!memory")
+@ConditionalOnProperty(name = "app.persistence.adapter", havingValue = "jdbc")
+public class JdbcAccountRepositoryAdapter implements AccountRepositoryPort {
+
+    private static final String SELECT = "SELECT id, iban, balance, version FROM accounts WHERE iban = ?";
+
+    private static final RowMapper<Account> ROW = (rs, i) -> new Account(
+            rs.getObject("id", UUID.class),
+            rs.getString("iban"),
+            rs.getBigDecimal("balance"),
+            rs.getLong("version"));
+
+    private final JdbcTemplate jdbc;
+
+    public JdbcAccountRepositoryAdapter(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    @Override
+    public Optional<Account> findByIbanForUpdate(String iban) {
+        return jdbc.query(SELECT + " FOR UPDATE", ROW, iban).stream().findFirst();
+    }
+
+    @Override
+    public Optional<Account> findByIban(String iban) {
+        return jdbc.query(SELECT, ROW, iban).stream().findFirst();
+    }
+
+    @Override
+    public Account save(Account account) {
+        // Same version contract as the @Version column on AccountEntity, in one statement
+        if (!saveIfUnchanged(account)) {
+            throw new OptimisticLockingFailureException("Account was updated concurrently: " + account.iban());
+        }
+        return new Account(account.id(), account.iban(), account.balance(), account.version() + 1);
+    }
+
+    @Override
+    public boolean saveIfUnchanged(Account account) {
+        return BalanceStatements.saveIfUnchanged(jdbc, account);
+    }
+
+    @Override
+    public Optional<ConditionalDebit> debitIfCovered(String iban, BigDecimal amount) {
+        return BalanceStatements.debitIfCovered(jdbc, iban, amount);
+    }
+
+    @Override
+    public Optional<Account> credit(String iban, BigDecimal amount) {
+        return BalanceStatements.credit(jdbc, iban, amount);
+    }
+}
@@ -0,0 +1,137 @@
+package com.instantpay.adapter.out.jdbc;
+
+import com.instantpay.domain.model.Account;
+import com.instantpay.domain.port.out.AccountRepositoryPort.ConditionalDebit;
+import com.instantpay.domain.port.out.BalanceStripesPort;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Stripes live in {@code account_stripes}; the {@code accounts} row keeps whatever is not spread.
+ * Credits and covered debits pick a random stripe nobody holds ({@code SKIP LOCKED}), so they only
+ * wait when every stripe is busy. A debit no single stripe covers locks the account row and all
+ * stripes, debits the total and spreads the rest evenly again (the same sweep as {@link #rebalance}).
+ */
+@Component
+@Profile("!memory")
+public class JdbcBalanceStripesAdapter implements BalanceStripesPort {
+
+    private static final String PICK = """
+            SELECT s.account_id, s.stripe FROM account_stripes s JOIN accounts a ON a.id = s.account_id
+             WHERE a.iban = ? %s
+             ORDER BY random() LIMIT 1 FOR UPDATE OF s SKIP LOCKED
+            """;
+
+    private static final String CREDIT_FREE_STRIPE =
+            "UPDATE account_stripes SET balance = balance + ? WHERE (account_id, stripe) = (" + PICK.formatted("") + ")";
+
+    private static final String DEBIT_FREE_STRIPE =
+            "UPDATE account_stripes SET balance = balance - ? WHERE (account_id, stripe) = (" + PICK.formatted("AND s.balance >= ?") + ")";
+
+    private static final String CREDIT_STRIPE = """
+            UPDATE account_stripes SET balance = balance + ?
+             WHERE account_id = (SELECT id FROM accounts WHERE iban = ?) AND stripe = ?
+            """;
+
+    private static final String CREATE_STRIPES = """
+            INSERT INTO account_stripes (account_id, stripe, balance)
+            SELECT a.id, s, 0 FROM accounts a CROSS JOIN generate_series(0, ? - 1) AS s
+             WHERE a.iban = ?
+            ON CONFLICT DO NOTHING
+            """;
+
+    private static final String LOGICAL = """
+            SELECT a.id, a.iban, a.version,
+                   a.balance + COALESCE((SELECT SUM(s.balance) FROM account_stripes s WHERE s.account_id = a.id), 0) AS balance
+              FROM accounts a WHERE a.iban = ?
+            """;
+
+    private static final RowMapper<Account> ACCOUNT = (rs, i) -> new Account(
+            rs.getObject("id", UUID.class),
+            rs.getString("iban"),
+            rs.getBigDecimal("balance"),
+            rs.getLong("version"));
+
+    private final JdbcTemplate jdbc;
+    private final Set<String> striped;
+    private final int stripes;
+
+    public JdbcBalanceStripesAdapter(JdbcTemplate jdbc,
+                                     @Value("${app.payments.striping.accounts:}") List<String> striped,
+                                     @Value("${app.payments.striping.stripes:8}") int stripes) {
+        this.jdbc = jdbc;
+        this.striped = Set.copyOf(striped);
+        this.stripes = Math.max(1, stripes);
+    }
+
+    @Override
+    public Set<String> stripedIbans() {
+        return striped;
+    }
+
+    @Override
+    public Optional<Account> credit(String iban, BigDecimal amount) {
+        if (jdbc.update(CREDIT_FREE_STRIPE, amount, iban) == 0) {
+            // Every stripe is busy (or not created yet): wait for one
+            jdbc.update(CREATE_STRIPES, stripes, iban);
+            if (jdbc.update(CREDIT_STRIPE, amount, iban, ThreadLocalRandom.current().nextInt(stripes)) == 0) {
+                return Optional.empty();
+            }
+        }
+        return logical(iban);
+    }
+
+    @Override
+    public Optional<ConditionalDebit> debit(String iban, BigDecimal amount) {
+        if (jdbc.update(DEBIT_FREE_STRIPE, amount, iban, amount) == 1) {
+            return logical(iban).map(a -> new ConditionalDebit(a, true));
+        }
+        jdbc.update(CREATE_STRIPES, stripes, iban);
+        return sweep(iban, amount);
+    }
+
+    @Override
+    public void rebalance(String iban) {
+        jdbc.update(CREATE_STRIPES, stripes, iban);
+        sweep(iban, BigDecimal.ZERO);
+    }
+
+    // Locks the account row and every stripe, takes the amount from the total and spreads the rest evenly;
+    // cents that do not divide stay on the account row
+    private Optional<ConditionalDebit> sweep(String iban, BigDecimal amount) {
+        var main = jdbc.query("SELECT id, iban, balance, version FROM accounts WHERE iban = ? FOR UPDATE", ACCOUNT, iban)
+                .stream().findFirst();
+        if (main.isEmpty()) return Optional.empty();
+        var account = main.get();
+        var parts = jdbc.queryForList(
+                "SELECT balance FROM account_stripes WHERE account_id = ? ORDER BY stripe FOR UPDATE",
+                BigDecimal.class, account.id());
+
+        var total = parts.stream().reduce(account.balance(), BigDecimal::add);
+        if (total.compareTo(amount) < 0) {
+            return Optional.of(new ConditionalDebit(new Account(account.id(), iban, total, account.version()), false));
+        }
+        var rest = total.subtract(amount);
+        var perStripe = parts.isEmpty() ? BigDecimal.ZERO : rest.divide(BigDecimal.valueOf(parts.size()), 2, RoundingMode.FLOOR);
+        var onAccount = rest.subtract(perStripe.multiply(BigDecimal.valueOf(parts.size())));
+
+        jdbc.update("UPDATE account_stripes SET balance = ? WHERE account_id = ?", perStripe, account.id());
+        jdbc.update("UPDATE accounts SET balance = ?, version = version + 1 WHERE id = ?", onAccount, account.id());
+        return Optional.of(new ConditionalDebit(new Account(account.id(), iban, rest, account.version() + 1), true));
+    }
+
+    private Optional<Account> logical(String iban) {
+        return jdbc.query(LOGICAL, ACCOUNT, iban).stream().findFirst();
+    }
+}
@@ -0,0 +1,73 @@
+package com.instantpay.adapter.out.jdbc;
+
+import com.instantpay.domain.model.Account;
+import com.instantpay.domain.port.out.CreditJournalPort;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+@Component
+@Profile("!memory")
+public class JdbcCreditJournalAdapter implements CreditJournalPort {
+
+    // The new row is not visible to the subquery of the same statement, hence "+ ap.amount"
+    private static final String APPEND = """
+            WITH ap AS (
+                INSERT INTO pending_credits (account_id, payment_id, amount)
+                SELECT id, ?, ? FROM accounts WHERE iban = ?
+             RETURNING account_id, amount
+            )
+            SELECT a.id, a.iban, a.version,
+                   a.balance + ap.amount
+                 + COALESCE((SELECT SUM(p.amount) FROM pending_credits p WHERE p.account_id = a.id), 0) AS balance
+              FROM ap JOIN accounts a ON a.id = ap.account_id
+            """;
+
+    // Only committed credits are moved; ones still in flight are left for the next fold. The version is
+    // left alone: the logical balance does not change
+    private static final String FOLD = """
+            WITH acct AS (SELECT id FROM accounts WHERE iban = ? FOR UPDATE),
+                 moved AS (DELETE FROM pending_credits WHERE account_id = (SELECT id FROM acct) RETURNING amount)
+            UPDATE accounts SET balance = balance + (SELECT COALESCE(SUM(amount), 0) FROM moved)
+             WHERE id = (SELECT id FROM acct)
+         RETURNING id, iban, balance, version
+            """;
+
+    private static final RowMapper<Account> ACCOUNT = (rs, i) -> new Account(
+            rs.getObject("id", UUID.class),
+            rs.getString("iban"),
+            rs.getBigDecimal("balance"),
+            rs.getLong("version"));
+
+    private final JdbcTemplate jdbc;
+    private final Set<String> journaled;
+
+    public JdbcCreditJournalAdapter(JdbcTemplate jdbc,
+                                    @Value("${app.payments.credit-journal.accounts:}") List<String> journaled) {
+        this.jdbc = jdbc;
+        this.journaled = Set.copyOf(journaled);
+    }
+
+    @Override
+    public Set<String> journaledIbans() {
+        return journaled;
+    }
+
+    @Override
+    public Optional<Account> append(String iban, UUID paymentId, BigDecimal amount) {
+        return jdbc.query(APPEND, ACCOUNT, paymentId, amount, iban).stream().findFirst();
+    }
+
+    @Override
+    public Optional<Account> foldForUpdate(String iban) {
+        return jdbc.query(FOLD, ACCOUNT, iban).stream().findFirst();
+    }
+}
@@ -0,0 +1,107 @@
+package com.instantpay.adapter.out.jdbc;
+
+import com.instantpay.domain.model.Payment;
+import com.instantpay.domain.model.PaymentStatus;
+import com.instantpay.domain.port.out.PaymentRepositoryPort;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Component
+@Profile("!memory")
+@ConditionalOnProperty(name = "app.persistence.adapter", havingValue = "jdbc")
+public class JdbcPaymentRepositoryAdapter implements PaymentRepositoryPort {
+
+    private static final String COLUMNS = """
+            id, idempotency_key, debtor_iban, creditor_iban, currency, amount, remittance_info,
+            status, created_at, completed_at, failure_reason""";
+
+    // Insert on first save, status transition afterwards. The arbiter is the idempotency key, so a
+    // second payment with a taken key updates nothing instead of raising a unique violation, which
+    // would abort the whole Postgres transaction and leave the caller unable to read the winner
+    private static final String UPSERT = "INSERT INTO payments (" + COLUMNS + """
+            ) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+            ON CONFLICT (idempotency_key) DO UPDATE
+               SET status = EXCLUDED.status,
+                   completed_at = EXCLUDED.completed_at,
+                   failure_reason = EXCLUDED.failure_reason
+             WHERE payments.id = EXCLUDED.id
+            """;
+
+    private static final RowMapper<Payment> ROW = (rs, i) -> new Payment(
+            rs.getObject("id", UUID.class),
+            rs.getString("idempotency_key"),
+            rs.getString("debtor_iban"),
+            rs.getString("creditor_iban"),
+            rs.getString("currency"),
+            rs.getBigDecimal("amount"),
+            rs.getString("remittance_info"),
+            PaymentStatus.valueOf(rs.getString("status")),
+            toInstant(rs.getTimestamp("created_at")),
+            toInstant(rs.getTimestamp("completed_at")),
+            rs.getString("failure_reason"));
+
+    private final JdbcTemplate jdbc;
+
+    public JdbcPaymentRepositoryAdapter(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    @Override
+    public Payment save(Payment p) {
+        var rows = jdbc.update(UPSERT,
+                p.id(), p.idempotencyKey(), p.debtorIban(), p.creditorIban(), p.currency(), p.amount(),
+                p.remittanceInfo(), p.status().name(), Timestamp.from(p.createdAt()),
+                toTimestamp(p.completedAt()), p.failureReason());
+        if (rows == 0) {
+            // Same exception as the JPA adapter; the transaction is still usable
+            throw new DuplicateKeyException("Idempotency key already used by another payment: " + p.idempotencyKey());
+        }
+        return p;
+    }
+
+    @Override
+    public Optional<Payment> findById(UUID id) {
+        return jdbc.query("SELECT " + COLUMNS + " FROM payments WHERE id = ?", ROW, id).stream().findFirst();
+    }
+
+    @Override
+    public List<Payment> findAllByIds(Collection<UUID> ids) {
+        if (ids.isEmpty()) return List.of();
+        return jdbc.query("SELECT " + COLUMNS + " FROM payments WHERE id = ANY (?)",
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("uuid", ids.toArray())),
+                ROW);
+    }
+
+    @Override
+    public Optional<Payment> findByIdempotencyKey(String idempotencyKey) {
+        return jdbc.query("SELECT " + COLUMNS + " FROM payments WHERE idempotency_key = ?", ROW, idempotencyKey)
+                .stream().findFirst();
+    }
+
+    @Override
+    public List<Payment> findAllByIdempotencyKeys(Collection<String> idempotencyKeys) {
+        if (idempotencyKeys.isEmpty()) return List.of();
+        return jdbc.query("SELECT " + COLUMNS + " FROM payments WHERE idempotency_key = ANY (?)",
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("varchar", idempotencyKeys.toArray())),
+                ROW);
+    }
+
+    private static Instant toInstant(Timestamp ts) {
+        return ts == null ? null : ts.toInstant();
+    }
+
+    private static Timestamp toTimestamp(Instant instant) {
+        return instant == null ? null : Timestamp.from(instant);
+    }
+}
@@ -0,0 +1,70 @@
+package com.instantpay.adapter.out.jdbc;
+
+import com.instantpay.domain.port.out.SettlementQueuePort;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.IntFunction;
+
+@Component
+@Profile("!memory")
+public class JdbcSettlementQueueAdapter implements SettlementQueuePort {
+
+    // Oldest first; rows claimed by another worker are skipped instead of waited for
+    private static final String CLAIM = """
+            DELETE FROM settlement_queue
+             WHERE payment_id IN (SELECT payment_id FROM settlement_queue
+                                   WHERE not_before <= now()
+                                   ORDER BY enqueued_at
+                                   LIMIT ? FOR UPDATE SKIP LOCKED)
+         RETURNING payment_id
+            """;
+
+    private static final String CLAIM_ONE = """
+            DELETE FROM settlement_queue
+             WHERE payment_id = (SELECT payment_id FROM settlement_queue
+                                  WHERE payment_id = ? FOR UPDATE SKIP LOCKED)
+            """;
+
+    private static final String FAILED_ATTEMPT = """
+            UPDATE settlement_queue SET attempts = attempts + 1
+             WHERE payment_id = (SELECT payment_id FROM settlement_queue
+                                  WHERE payment_id = ? FOR UPDATE SKIP LOCKED)
+         RETURNING attempts
+            """;
+
+    private final JdbcTemplate jdbc;
+
+    public JdbcSettlementQueueAdapter(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    @Override
+    public void enqueue(UUID paymentId) {
+        jdbc.update("INSERT INTO settlement_queue (payment_id, enqueued_at) VALUES (?, now())", paymentId);
+    }
+
+    @Override
+    public List<UUID> claim(int max) {
+        return jdbc.query(CLAIM, (rs, i) -> rs.getObject(1, UUID.class), max);
+    }
+
+    @Override
+    public boolean claim(UUID paymentId) {
+        return jdbc.update(CLAIM_ONE, paymentId) == 1;
+    }
+
+    @Override
+    public int retryLater(UUID paymentId, IntFunction<Duration> delay) {
+        var attempts = jdbc.query(FAILED_ATTEMPT, (rs, i) -> rs.getInt(1), paymentId);
+        if (attempts.isEmpty()) return 0;
+        int attempt = attempts.get(0);
+        jdbc.update("UPDATE settlement_queue SET not_before = now() + ? * interval '1 millisecond' WHERE payment_id = ?",
+                delay.apply(attempt).toMillis(), paymentId);
+        return attempt;
+    }
+}
@@ -0,0 +1,71 @@
+package com.instantpay.adapter.out.jdbc;
+
+import com.instantpay.domain.port.out.CacheInvalidationPublisherPort;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * {@code NOTIFY} on the invalidation channel, in the caller's transaction: Postgres delivers it to the
+ * listeners on commit and drops it on rollback. Payload: {@code <cache> <sent epoch millis>}, then one
+ * key per line. Keys are packed into as few notifications as the 8000-byte payload limit allows,
+ * because every notifying commit serializes on a cluster-wide lock.
+ */
+@Component
+@Profile("!memory")
+public class PgNotifyCacheInvalidationAdapter implements CacheInvalidationPublisherPort {
+
+    static final int MAX_PAYLOAD = 7_900; // Postgres rejects payloads of 8000 bytes and more
+
+    private static final String NOTIFY =
+            "SELECT pg_notify(?, ? || ' ' || (extract(epoch FROM clock_timestamp()) * 1000)::bigint || chr(10) || ?)";
+
+    private final JdbcTemplate jdbc;
+    private final String channel;
+
+    public PgNotifyCacheInvalidationAdapter(JdbcTemplate jdbc,
+                                            @Value("${app.payments.cache-invalidation.channel:cache_invalidation}") String channel) {
+        this.jdbc = jdbc;
+        this.channel = channel;
+    }
+
+    @Override
+    public void invalidate(String cache, Collection<String> keys) {
+        for (var chunk : chunks(cache, keys)) {
+            jdbc.query(NOTIFY, rs -> { }, channel, cache, chunk);
+        }
+    }
+
+    static List<String> chunks(String cache, Collection<String> keys) {
+        var budget = MAX_PAYLOAD - utf8Length(cache) - 16; // header: cache, space, millis, newline
+        var chunks = new ArrayList<String>();
+        var current = new StringBuilder();
+        var bytes = 0;
+        for (var key : keys) {
+            var keyBytes = utf8Length(key);
+            if (!current.isEmpty() && bytes + 1 + keyBytes > budget) {
+                chunks.add(current.toString());
+                current.setLength(0);
+                bytes = 0;
+            }
+            if (!current.isEmpty()) {
+                current.append('\n');
+                bytes++;
+            }
+            current.append(key);
+            bytes += keyBytes;
+        }
+        if (!current.isEmpty()) chunks.add(current.toString());
+        return chunks;
+    }
+
+    private static int utf8Length(String s) {
+        return s.getBytes(StandardCharsets.UTF_8).length;
+    }
+}
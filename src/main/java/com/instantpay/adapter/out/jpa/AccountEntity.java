@@ -22,6 +22,10 @@ public class AccountEntity {
     @Version
     private long version;
 
+    // Last ledger sequence number handed out; only ever moved by SQL, never written through JPA
+    @Column(name = "ledger_seq", insertable = false, updatable = false, columnDefinition = "bigint not null default 0")
+    private long ledgerSeq;
+
     public UUID getId() {
         return id;
     }
@@ -46,6 +50,10 @@ public class AccountEntity {
         this.balance = balance;
     }
 
+    public long getLedgerSeq() {
+        return ledgerSeq;
+    }
+
     public long getVersion() {
         return version;
     }
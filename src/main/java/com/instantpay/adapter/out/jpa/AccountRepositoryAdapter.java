@@ -1,21 +1,30 @@
 package com.instantpay.adapter.out.jpa;
 
+import com.instantpay.adapter.out.jdbc.BalanceStatements;
 import com.instantpay.adapter.out.jpa.mapper.AccountJpaMapper;
 import com.instantpay.domain.model.Account;
 import com.instantpay.domain.port.out.AccountRepositoryPort;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Component;
 
+import java.math.BigDecimal;
 import java.util.Optional;
 
 @Component
+@Profile("!memory")
+@ConditionalOnProperty(name = "app.persistence.adapter", havingValue = "jpa", matchIfMissing = true)
 public class AccountRepositoryAdapter implements AccountRepositoryPort {
 
     private final SpringDataAccountRepository repo;
     private final AccountJpaMapper mapper;
+    private final JdbcTemplate jdbc;
 
-    public AccountRepositoryAdapter(SpringDataAccountRepository repo, AccountJpaMapper mapper) {
+    public AccountRepositoryAdapter(SpringDataAccountRepository repo, AccountJpaMapper mapper, JdbcTemplate jdbc) {
         this.repo = repo;
         this.mapper = mapper;
+        this.jdbc = jdbc;
     }
 
     @Override
@@ -23,9 +32,31 @@ public class AccountRepositoryAdapter implements AccountRepositoryPort {
         return repo.findByIbanForUpdate(iban).map(mapper::toDomain);
     }
 
+    // Plain JDBC: an entity loaded here would shadow later re-reads in the same persistence context
+    @Override
+    public Optional<Account> findByIban(String iban) {
+        return BalanceStatements.find(jdbc, iban);
+    }
+
     @Override
     public Account save(Account account) {
         var saved = repo.save(mapper.toEntity(account));
         return mapper.toDomain(saved);
     }
+
+    // Versioned UPDATE and RETURNING run on the transaction's connection and load no entity
+    @Override
+    public boolean saveIfUnchanged(Account account) {
+        return BalanceStatements.saveIfUnchanged(jdbc, account);
+    }
+
+    @Override
+    public Optional<ConditionalDebit> debitIfCovered(String iban, BigDecimal amount) {
+        return BalanceStatements.debitIfCovered(jdbc, iban, amount);
+    }
+
+    @Override
+    public Optional<Account> credit(String iban, BigDecimal amount) {
+        return BalanceStatements.credit(jdbc, iban, amount);
+    }
 }
@@ -8,6 +8,9 @@ import java.util.UUID;
 @Entity
 @Table(name = "payments", uniqueConstraints = {
         @UniqueConstraint(name = "uk_payments_idempotency_key", columnNames = "idempotencyKey")
+}, indexes = {
+        @Index(name = "ix_payments_completed_at", columnList = "completedAt"), // incremental reconciliation
+        @Index(name = "ix_payments_status_created_at", columnList = "status, createdAt") // same, for CREATED payments
 })
 public class PaymentEntity {
 
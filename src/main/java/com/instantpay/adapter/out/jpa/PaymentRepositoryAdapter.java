@@ -4,12 +4,18 @@ package com.instantpay.adapter.out.jpa;
 import com.instantpay.adapter.out.jpa.mapper.PaymentJpaMapper;
 import com.instantpay.domain.model.Payment;
 import com.instantpay.domain.port.out.PaymentRepositoryPort;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 @Component
+@Profile("!memory")
+@ConditionalOnProperty(name = "app.persistence.adapter", havingValue = "jpa", matchIfMissing = true)
 public class PaymentRepositoryAdapter implements PaymentRepositoryPort {
 
     private final SpringDataPaymentRepository repo;
@@ -31,8 +37,20 @@ public class PaymentRepositoryAdapter implements PaymentRepositoryPort {
         return repo.findById(id).map(mapper::toDomain);
     }
 
+    @Override
+    public List<Payment> findAllByIds(Collection<UUID> ids) {
+        if (ids.isEmpty()) return List.of();
+        return repo.findAllById(ids).stream().map(mapper::toDomain).toList();
+    }
+
     @Override
     public Optional<Payment> findByIdempotencyKey(String idempotencyKey) {
         return repo.findByIdempotencyKey(idempotencyKey).map(mapper::toDomain);
     }
+
+    @Override
+    public List<Payment> findAllByIdempotencyKeys(Collection<String> idempotencyKeys) {
+        if (idempotencyKeys.isEmpty()) return List.of();
+        return repo.findByIdempotencyKeyIn(idempotencyKeys).stream().map(mapper::toDomain).toList();
+    }
 }
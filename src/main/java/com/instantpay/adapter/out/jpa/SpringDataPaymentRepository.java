@@ -2,6 +2,8 @@ package com.instantpay.adapter.out.jpa;
 
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -9,4 +11,6 @@ public interface SpringDataPaymentRepository extends JpaRepository<PaymentEntity
 
     Optional<PaymentEntity> findByIdempotencyKey(String idempotencyKey);
 
+    List<PaymentEntity> findByIdempotencyKeyIn(Collection<String> idempotencyKeys);
+
 }
@@ -1,13 +1,19 @@
 package com.instantpay.adapter.out.jpa;
 
 import jakarta.persistence.*;
+import org.springframework.data.domain.Persistable;
+
 import java.math.BigDecimal;
 import java.time.Instant;
 import java.util.UUID;
 
 @Entity
-@Table(name = "transactions")
-public class TransactionEntity {
+@Table(name = "transactions", indexes = {
+        @Index(name = "ix_transactions_payment_id", columnList = "paymentId"),
+        @Index(name = "ix_transactions_account_created", columnList = "account_id, createdAt, id"), // ledger in account order
+        @Index(name = "ux_transactions_account_seq", columnList = "account_id, seq", unique = true) // per-account ranges
+})
+public class TransactionEntity implements Persistable<UUID> {
 
     @Id
     private UUID id;
@@ -28,6 +34,8 @@ public class TransactionEntity {
     @Column(nullable = false, updatable = false)
     private Instant createdAt;
 
+    private Long seq; // per-account, gap-free; null until numbered (see TransactionRepositoryPort)
+
     public UUID getId() {
         return id;
     }
@@ -36,6 +44,12 @@ public class TransactionEntity {
         this.id = id;
     }
 
+    // Ledger rows are append-only: always persist, never merge (avoids a SELECT per row)
+    @Override
+    public boolean isNew() {
+        return true;
+    }
+
     public UUID getPaymentId() {
         return paymentId;
     }
@@ -75,4 +89,12 @@ public class TransactionEntity {
     public void setCreatedAt(Instant createdAt) {
         this.createdAt = createdAt;
     }
+
+    public Long getSeq() {
+        return seq;
+    }
+
+    public void setSeq(Long seq) {
+        this.seq = seq;
+    }
 }
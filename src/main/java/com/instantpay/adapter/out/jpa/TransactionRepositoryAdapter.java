@@ -1,30 +1,121 @@
 package com.instantpay.adapter.out.jpa;
 
-import com.instantpay.adapter.out.jpa.mapper.TransactionJpaMapper;
 import com.instantpay.domain.model.Transaction;
 import com.instantpay.domain.port.out.TransactionRepositoryPort;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Component;
 
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Ledger writes go straight to JDBC: the rows only need account ids, so no {@link AccountEntity}
+ * is loaded or attached. Runs on the connection of the surrounding JPA transaction.
+ */
 @Component
+@Profile("!memory")
 public class TransactionRepositoryAdapter implements TransactionRepositoryPort {
 
-    private final SpringDataTransactionRepository repo;
-    private final SpringDataAccountRepository accountRepo;
-    private final TransactionJpaMapper mapper;
+    private static final String INSERT = """
+            INSERT INTO transactions (id, payment_id, account_id, amount, balance_after, created_at, seq)
+            VALUES (?, ?, ?, ?, ?, ?, ?)
+            """;
+
+    // Reserves n numbers per account in one statement; the rows are already locked by the caller
+    private static final String RESERVE = """
+            UPDATE accounts a SET ledger_seq = a.ledger_seq + v.n
+              FROM (SELECT unnest(?::uuid[]) AS id, unnest(?::bigint[]) AS n) v
+             WHERE a.id = v.id
+         RETURNING a.id, a.ledger_seq
+            """;
+
+    // Only committed legs are numbered; ones still in flight are left for the next run
+    private static final String SEQUENCE_PENDING = """
+            WITH acct AS (SELECT id, ledger_seq FROM accounts WHERE iban = ? FOR UPDATE),
+                 pending AS (SELECT t.id, row_number() OVER (ORDER BY t.created_at, t.id) AS n
+                               FROM transactions t
+                              WHERE t.account_id = (SELECT id FROM acct) AND t.seq IS NULL),
+                 numbered AS (UPDATE transactions t SET seq = (SELECT ledger_seq FROM acct) + p.n
+                                FROM pending p WHERE t.id = p.id
+                           RETURNING t.id)
+            UPDATE accounts SET ledger_seq = ledger_seq + (SELECT count(*) FROM numbered)
+             WHERE id = (SELECT id FROM acct)
+         RETURNING (SELECT count(*) FROM numbered)
+            """;
+
+    private record Leg(Transaction tx, Long seq) {}
+
+    private final JdbcTemplate jdbc;
 
-    public TransactionRepositoryAdapter(SpringDataTransactionRepository repo,
-                                        SpringDataAccountRepository accountRepo,
-                                        TransactionJpaMapper mapper) {
-        this.repo = repo;
-        this.accountRepo = accountRepo;
-        this.mapper = mapper;
+    public TransactionRepositoryAdapter(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
     }
 
     @Override
     public Transaction append(Transaction tx) {
-        var accountEntity = accountRepo.findById(tx.accountId())
-                .orElseThrow(() -> new IllegalStateException("Account not found: " + tx.accountId()));
-        repo.save(mapper.toEntity(tx, accountEntity));
+        appendAll(List.of(tx));
         return tx;
     }
+
+    @Override
+    public List<Transaction> appendAll(List<Transaction> txs) {
+        if (txs.isEmpty()) return txs;
+        // Legs of one account are numbered in list order, i.e. the order their balances were applied
+        var counts = new LinkedHashMap<UUID, Long>();
+        for (var tx : txs) {
+            counts.merge(tx.accountId(), 1L, Long::sum);
+        }
+        var last = new HashMap<UUID, Long>();
+        jdbc.query(con -> {
+            var ps = con.prepareStatement(RESERVE);
+            ps.setArray(1, con.createArrayOf("uuid", counts.keySet().toArray()));
+            ps.setArray(2, con.createArrayOf("bigint", counts.values().toArray()));
+            return ps;
+        }, rs -> {
+            last.put(rs.getObject("id", UUID.class), rs.getLong("ledger_seq"));
+        });
+
+        var next = new HashMap<UUID, Long>();
+        counts.forEach((account, n) -> next.put(account, last.get(account) - n + 1));
+        var legs = new ArrayList<Leg>(txs.size());
+        for (var tx : txs) {
+            legs.add(new Leg(tx, next.merge(tx.accountId(), 1L, Long::sum) - 1));
+        }
+        insert(legs);
+        return txs;
+    }
+
+    @Override
+    public List<Transaction> appendUnsequenced(List<Transaction> txs) {
+        if (!txs.isEmpty()) {
+            insert(txs.stream().map(tx -> new Leg(tx, null)).toList());
+        }
+        return txs;
+    }
+
+    @Override
+    public int sequencePending(String iban) {
+        return jdbc.query(SEQUENCE_PENDING, (rs, i) -> rs.getInt(1), iban).stream().findFirst().orElse(0);
+    }
+
+    private void insert(List<Leg> legs) {
+        // One JDBC batch; reWriteBatchedInserts turns it into multi-row INSERTs on Postgres
+        jdbc.batchUpdate(INSERT, legs, legs.size(), (ps, leg) -> {
+            var tx = leg.tx();
+            ps.setObject(1, tx.id());
+            ps.setObject(2, tx.paymentId());
+            ps.setObject(3, tx.accountId());
+            ps.setBigDecimal(4, tx.amount());
+            ps.setBigDecimal(5, tx.balanceAfter());
+            ps.setTimestamp(6, Timestamp.from(tx.createdAt()));
+            if (leg.seq() != null) ps.setLong(7, leg.seq());
+            else ps.setNull(7, Types.BIGINT);
+        });
+    }
 }
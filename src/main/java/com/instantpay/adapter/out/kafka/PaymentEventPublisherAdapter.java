@@ -6,11 +6,13 @@ import com.instantpay.domain.event.PaymentFailedEvent;
 import com.instantpay.domain.model.Payment;
 import com.instantpay.domain.port.out.PaymentEventPublisherPort;
 import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
 
 import java.time.Instant;
 
 @Component
+@Profile("!memory")
 public class PaymentEventPublisherAdapter implements PaymentEventPublisherPort {
 
     private final ApplicationEventPublisher publisher;
@@ -0,0 +1,31 @@
+package com.instantpay.adapter.out.memory;
+
+import com.instantpay.domain.model.Account;
+import com.instantpay.domain.port.out.AccountDirectoryPort;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.BiConsumer;
+
+@Component
+@Profile("memory")
+public class InMemoryAccountDirectoryAdapter implements AccountDirectoryPort {
+
+    private final InMemoryAccountRepositoryAdapter accounts;
+
+    public InMemoryAccountDirectoryAdapter(InMemoryAccountRepositoryAdapter accounts) {
+        this.accounts = accounts;
+    }
+
+    @Override
+    public void forEachAccount(BiConsumer<String, UUID> ibanAndId) {
+        accounts.forEachAccount(a -> ibanAndId.accept(a.iban(), a.id()));
+    }
+
+    @Override
+    public Optional<UUID> findId(String iban) {
+        return accounts.findByIban(iban).map(Account::id);
+    }
+}
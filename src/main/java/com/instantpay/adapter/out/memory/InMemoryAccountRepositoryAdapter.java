@@ -0,0 +1,123 @@
+package com.instantpay.adapter.out.memory;
+
+import com.instantpay.domain.model.Account;
+import com.instantpay.domain.port.out.AccountRepositoryPort;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+@Component
+@Profile("memory")
+public class InMemoryAccountRepositoryAdapter implements AccountRepositoryPort {
+
+    private final ConcurrentHashMap<String, Account> accounts = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, ReentrantLock> locks = new ConcurrentHashMap<>();
+
+    // Seed entries as IBAN=balance, e.g. app.memory.accounts=CH93...=100000.00,CH28...=0.00
+    public InMemoryAccountRepositoryAdapter(@Value("${app.memory.accounts:}") List<String> seed) {
+        for (var entry : seed) {
+            if (entry.isBlank()) continue;
+            var parts = entry.split("=", 2);
+            var iban = parts[0].trim();
+            var balance = parts.length > 1 ? new BigDecimal(parts[1].trim()) : BigDecimal.ZERO;
+            accounts.put(iban, new Account(UUID.randomUUID(), iban, balance, 0));
+        }
+    }
+
+    @Override
+    public Optional<Account> findByIbanForUpdate(String iban) {
+        var account = accounts.get(iban);
+        if (account == null) return Optional.empty();
+        lockUntilCompletion(iban);
+        // Re-read under the lock: the holder we waited for may have changed the balance
+        return Optional.ofNullable(accounts.get(iban));
+    }
+
+    @Override
+    public Optional<Account> findByIban(String iban) {
+        return Optional.ofNullable(accounts.get(iban));
+    }
+
+    @Override
+    public Account save(Account account) {
+        lockUntilCompletion(account.iban()); // an UPDATE locks the row as well
+        var saved = new Account(account.id(), account.iban(), account.balance(), account.version() + 1);
+        undoOnRollback(accounts.put(saved.iban(), saved));
+        return saved;
+    }
+
+    @Override
+    public boolean saveIfUnchanged(Account account) {
+        lockUntilCompletion(account.iban()); // waits for a FOR UPDATE holder, like the UPDATE would
+        var saved = new boolean[1];
+        var before = new Account[1];
+        accounts.computeIfPresent(account.iban(), (k, current) -> {
+            if (current.version() != account.version()) return current;
+            saved[0] = true;
+            before[0] = current;
+            return new Account(account.id(), account.iban(), account.balance(), account.version() + 1);
+        });
+        undoOnRollback(before[0]);
+        return saved[0];
+    }
+
+    @Override
+    public Optional<ConditionalDebit> debitIfCovered(String iban, BigDecimal amount) {
+        if (!accounts.containsKey(iban)) return Optional.empty();
+        lockUntilCompletion(iban);
+        var applied = new boolean[1];
+        var before = new Account[1];
+        var after = accounts.computeIfPresent(iban, (k, a) -> {
+            if (a.balance().compareTo(amount) < 0) return a;
+            applied[0] = true;
+            before[0] = a;
+            return new Account(a.id(), a.iban(), a.balance().subtract(amount), a.version() + 1);
+        });
+        undoOnRollback(before[0]);
+        return Optional.ofNullable(after).map(a -> new ConditionalDebit(a, applied[0]));
+    }
+
+    @Override
+    public Optional<Account> credit(String iban, BigDecimal amount) {
+        if (!accounts.containsKey(iban)) return Optional.empty();
+        lockUntilCompletion(iban);
+        var before = accounts.get(iban); // stable: the row is locked
+        var after = accounts.computeIfPresent(iban,
+                (k, a) -> new Account(a.id(), a.iban(), a.balance().add(amount), a.version() + 1));
+        undoOnRollback(before);
+        return Optional.ofNullable(after);
+    }
+
+    // Rows are locked until completion, so putting back the previous state cannot lose another write
+    private void undoOnRollback(Account before) {
+        if (before != null) InMemoryRollback.onRollback(() -> accounts.put(before.iban(), before));
+    }
+
+    // Held until the surrounding transaction completes; outside a transaction there is nothing to hold it for
+    private void lockUntilCompletion(String iban) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) return;
+        var lock = locks.computeIfAbsent(iban, k -> new ReentrantLock());
+        if (lock.isHeldByCurrentThread()) return; // same row locked twice in one transaction
+        lock.lock();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                lock.unlock();
+            }
+        });
+    }
+
+    void forEachAccount(Consumer<Account> action) {
+        accounts.values().forEach(action);
+    }
+}
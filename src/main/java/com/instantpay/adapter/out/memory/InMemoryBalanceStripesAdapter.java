@@ -0,0 +1,37 @@
+package com.instantpay.adapter.out.memory;
+
+import com.instantpay.domain.model.Account;
+import com.instantpay.domain.port.out.AccountRepositoryPort.ConditionalDebit;
+import com.instantpay.domain.port.out.BalanceStripesPort;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+import java.util.Set;
+
+/** No striping in memory: there is no row contention to spread, so every account stays whole. */
+@Component
+@Profile("memory")
+public class InMemoryBalanceStripesAdapter implements BalanceStripesPort {
+
+    @Override
+    public Set<String> stripedIbans() {
+        return Set.of();
+    }
+
+    @Override
+    public Optional<Account> credit(String iban, BigDecimal amount) {
+        throw new IllegalStateException("Account is not striped: " + iban);
+    }
+
+    @Override
+    public Optional<ConditionalDebit> debit(String iban, BigDecimal amount) {
+        throw new IllegalStateException("Account is not striped: " + iban);
+    }
+
+    @Override
+    public void rebalance(String iban) {
+        throw new IllegalStateException("Account is not striped: " + iban);
+    }
+}
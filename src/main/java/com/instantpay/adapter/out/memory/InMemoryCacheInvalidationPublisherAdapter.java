@@ -0,0 +1,16 @@
+package com.instantpay.adapter.out.memory;
+
+import com.instantpay.domain.port.out.CacheInvalidationPublisherPort;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+
+/** The memory profile is a single node: there is nobody to tell. */
+@Component
+@Profile("memory")
+public class InMemoryCacheInvalidationPublisherAdapter implements CacheInvalidationPublisherPort {
+
+    @Override
+    public void invalidate(String cache, Collection<String> keys) { }
+}
@@ -0,0 +1,32 @@
+package com.instantpay.adapter.out.memory;
+
+import com.instantpay.domain.model.Account;
+import com.instantpay.domain.port.out.CreditJournalPort;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+/** No credit journal in memory: credits update the account directly. */
+@Component
+@Profile("memory")
+public class InMemoryCreditJournalAdapter implements CreditJournalPort {
+
+    @Override
+    public Set<String> journaledIbans() {
+        return Set.of();
+    }
+
+    @Override
+    public Optional<Account> append(String iban, UUID paymentId, BigDecimal amount) {
+        throw new IllegalStateException("Account has no credit journal: " + iban);
+    }
+
+    @Override
+    public Optional<Account> foldForUpdate(String iban) {
+        throw new IllegalStateException("Account has no credit journal: " + iban);
+    }
+}
@@ -0,0 +1,44 @@
+package com.instantpay.adapter.out.memory;
+
+import com.instantpay.domain.model.Payment;
+import com.instantpay.domain.port.out.PaymentEventPublisherPort;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/** Counts events instead of publishing them; there is no outbox or broker in the "memory" profile. */
+@Component
+@Profile("memory")
+public class InMemoryPaymentEventPublisherAdapter implements PaymentEventPublisherPort {
+
+    private static final Logger log = LoggerFactory.getLogger(InMemoryPaymentEventPublisherAdapter.class);
+
+    private final LongAdder created = new LongAdder();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    @Override
+    public void publishPaymentCreated(Payment p) {
+        created.increment();
+        log.debug("PaymentCreated {}", p.id());
+    }
+
+    @Override
+    public void publishPaymentCompleted(Payment p) {
+        completed.increment();
+        log.debug("PaymentCompleted {}", p.id());
+    }
+
+    @Override
+    public void publishPaymentFailed(Payment p, String reason) {
+        failed.increment();
+        log.debug("PaymentFailed {}: {}", p.id(), reason);
+    }
+
+    public long createdCount() { return created.sum(); }
+    public long completedCount() { return completed.sum(); }
+    public long failedCount() { return failed.sum(); }
+}
@@ -0,0 +1,65 @@
+package com.instantpay.adapter.out.memory;
+
+import com.instantpay.domain.model.Payment;
+import com.instantpay.domain.port.out.PaymentRepositoryPort;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Component
+@Profile("memory")
+public class InMemoryPaymentRepositoryAdapter implements PaymentRepositoryPort {
+
+    private final ConcurrentHashMap<UUID, Payment> byId = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, UUID> idByKey = new ConcurrentHashMap<>(); // uk_payments_idempotency_key
+
+    @Override
+    public Payment save(Payment p) {
+        var owner = idByKey.putIfAbsent(p.idempotencyKey(), p.id());
+        if (owner != null && !owner.equals(p.id())) {
+            throw new DataIntegrityViolationException("Duplicate idempotency key: " + p.idempotencyKey());
+        }
+        var previous = byId.put(p.id(), p);
+        InMemoryRollback.onRollback(() -> {
+            if (previous != null) {
+                byId.put(p.id(), previous);
+            } else {
+                byId.remove(p.id());
+                idByKey.remove(p.idempotencyKey(), p.id());
+            }
+        });
+        return p;
+    }
+
+    @Override
+    public Optional<Payment> findById(UUID id) {
+        return Optional.ofNullable(byId.get(id));
+    }
+
+    @Override
+    public List<Payment> findAllByIds(Collection<UUID> ids) {
+        var found = new ArrayList<Payment>();
+        for (var id : ids) {
+            findById(id).ifPresent(found::add);
+        }
+        return found;
+    }
+
+    @Override
+    public Optional<Payment> findByIdempotencyKey(String idempotencyKey) {
+        var id = idByKey.get(idempotencyKey);
+        return id == null ? Optional.empty() : Optional.ofNullable(byId.get(id));
+    }
+
+    @Override
+    public List<Payment> findAllByIdempotencyKeys(Collection<String> idempotencyKeys) {
+        var found = new ArrayList<Payment>();
+        for (var key : idempotencyKeys) {
+            findByIdempotencyKey(key).ifPresent(found::add);
+        }
+        return found;
+    }
+}
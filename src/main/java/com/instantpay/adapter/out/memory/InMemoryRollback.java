@@ -0,0 +1,47 @@
+package com.instantpay.adapter.out.memory;
+
+import org.springframework.core.Ordered;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Undo log of the current transaction for the "memory" adapters, whose writes are applied at once.
+ * On rollback the undo actions run newest first, before the adapters release their row locks, so
+ * nobody sees a write of a transaction that did not commit once it has completed.
+ */
+final class InMemoryRollback {
+
+    private static final Object KEY = InMemoryRollback.class;
+
+    private InMemoryRollback() {}
+
+    // Outside a transaction there is nothing to roll back to
+    static void onRollback(Runnable undo) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) return;
+        @SuppressWarnings("unchecked")
+        var undos = (Deque<Runnable>) TransactionSynchronizationManager.getResource(KEY);
+        if (undos == null) {
+            var log = new ArrayDeque<Runnable>();
+            TransactionSynchronizationManager.bindResource(KEY, log);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public int getOrder() {
+                    return Ordered.HIGHEST_PRECEDENCE;
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(KEY);
+                    if (status == STATUS_ROLLED_BACK) {
+                        log.forEach(Runnable::run); // pushed, so newest first
+                    }
+                }
+            });
+            undos = log;
+        }
+        undos.push(undo);
+    }
+}
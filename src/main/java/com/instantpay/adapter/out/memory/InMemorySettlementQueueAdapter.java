@@ -0,0 +1,69 @@
+package com.instantpay.adapter.out.memory;
+
+import com.instantpay.domain.port.out.SettlementQueuePort;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.IntFunction;
+
+/** Not durable; enqueues and claims are undone on rollback, like the table rows would be. */
+@Component
+@Profile("memory")
+public class InMemorySettlementQueueAdapter implements SettlementQueuePort {
+
+    private record Retry(int attempts, long notBeforeNanos) {}
+
+    private final ConcurrentLinkedQueue<UUID> queue = new ConcurrentLinkedQueue<>();
+    private final ConcurrentHashMap<UUID, Retry> retries = new ConcurrentHashMap<>();
+
+    @Override
+    public void enqueue(UUID paymentId) {
+        queue.add(paymentId);
+        InMemoryRollback.onRollback(() -> queue.remove(paymentId));
+    }
+
+    @Override
+    public List<UUID> claim(int max) {
+        var claimed = new ArrayList<UUID>(Math.min(max, 64));
+        var now = System.nanoTime();
+        for (var it = queue.iterator(); it.hasNext() && claimed.size() < max; ) {
+            var id = it.next();
+            var retry = retries.get(id);
+            if (retry != null && retry.notBeforeNanos() - now > 0) continue;
+            if (queue.remove(id)) claimed.add(id);
+        }
+        for (var id : claimed) forgetRetries(id);
+        if (!claimed.isEmpty()) InMemoryRollback.onRollback(() -> queue.addAll(claimed));
+        return claimed;
+    }
+
+    @Override
+    public boolean claim(UUID paymentId) {
+        if (!queue.remove(paymentId)) return false;
+        forgetRetries(paymentId);
+        InMemoryRollback.onRollback(() -> queue.add(paymentId));
+        return true;
+    }
+
+    // A claimed entry leaves the queue for good unless the claim rolls back, and then its attempts come back too
+    private void forgetRetries(UUID paymentId) {
+        var retry = retries.remove(paymentId);
+        if (retry != null) InMemoryRollback.onRollback(() -> retries.put(paymentId, retry));
+    }
+
+    @Override
+    public int retryLater(UUID paymentId, IntFunction<Duration> delay) {
+        if (!queue.contains(paymentId)) return 0;
+        var retry = retries.compute(paymentId, (id, r) -> {
+            int attempt = r == null ? 1 : r.attempts() + 1;
+            return new Retry(attempt, System.nanoTime() + delay.apply(attempt).toNanos());
+        });
+        return retry.attempts();
+    }
+}
@@ -0,0 +1,32 @@
+package com.instantpay.adapter.out.memory;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+
+/**
+ * Transaction manager for the "memory" profile. It has no resource of its own; it only gives
+ * {@code @Transactional} methods a transaction boundary so the in-memory adapters can hold
+ * account locks until commit or rollback, like {@code SELECT ... FOR UPDATE} does.
+ * Writes are applied immediately; a rollback undoes them (see {@link InMemoryRollback}).
+ */
+@Component
+@Profile("memory")
+public class InMemoryTransactionManager extends AbstractPlatformTransactionManager {
+
+    @Override
+    protected Object doGetTransaction() {
+        return new Object();
+    }
+
+    @Override
+    protected void doBegin(Object transaction, TransactionDefinition definition) { }
+
+    @Override
+    protected void doCommit(DefaultTransactionStatus status) { }
+
+    @Override
+    protected void doRollback(DefaultTransactionStatus status) { }
+}
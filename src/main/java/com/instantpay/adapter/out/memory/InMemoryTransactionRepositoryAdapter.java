@@ -0,0 +1,44 @@
+package com.instantpay.adapter.out.memory;
+
+import com.instantpay.domain.model.Transaction;
+import com.instantpay.domain.port.out.TransactionRepositoryPort;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+@Component
+@Profile("memory")
+public class InMemoryTransactionRepositoryAdapter implements TransactionRepositoryPort {
+
+    private final ConcurrentLinkedQueue<Transaction> ledger = new ConcurrentLinkedQueue<>();
+
+    @Override
+    public Transaction append(Transaction tx) {
+        appendAll(List.of(tx));
+        return tx;
+    }
+
+    @Override
+    public List<Transaction> appendAll(List<Transaction> txs) {
+        ledger.addAll(txs);
+        InMemoryRollback.onRollback(() -> txs.forEach(ledger::remove));
+        return txs;
+    }
+
+    // The in-memory ledger is already in append order; there are no sequence numbers to hand out
+    @Override
+    public List<Transaction> appendUnsequenced(List<Transaction> txs) {
+        return appendAll(txs);
+    }
+
+    @Override
+    public int sequencePending(String iban) {
+        return 0;
+    }
+
+    public List<Transaction> entries() {
+        return List.copyOf(ledger);
+    }
+}
@@ -0,0 +1,18 @@
+package com.instantpay.config;
+
+import com.instantpay.domain.port.out.AccountDirectoryPort;
+import com.instantpay.domain.usecase.AccountDirectory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class AccountDirectoryConfig {
+
+    @Bean
+    public AccountDirectory accountDirectory(AccountDirectoryPort source, MeterRegistry meterRegistry,
+                                             @Value("${app.payments.account-directory.enabled:true}") boolean enabled) {
+        return new AccountDirectory(source, enabled, meterRegistry);
+    }
+}
@@ -0,0 +1,20 @@
+package com.instantpay.config;
+
+import com.instantpay.domain.usecase.AccountLocks;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+public class AccountLocksConfig {
+
+    @Bean
+    public AccountLocks accountLocks(MeterRegistry meterRegistry,
+                                     @Value("${app.payments.account-locks.stripes:64}") int stripes,
+                                     @Value("${app.payments.account-locks.timeout:PT2S}") Duration timeout) {
+        return new AccountLocks(stripes, timeout, meterRegistry);
+    }
+}
@@ -0,0 +1,50 @@
+package com.instantpay.config;
+
+import com.instantpay.adapter.in.web.AdaptiveConcurrencyLimiter;
+import com.instantpay.adapter.in.web.AdmissionInterceptor;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.time.Duration;
+
+/** Adaptive admission limit in front of the payment endpoints ({@code app.payments.admission}). */
+@Configuration
+@ConditionalOnProperty(name = "app.payments.admission.enabled", havingValue = "true", matchIfMissing = true)
+public class AdmissionConfig {
+
+    @Bean
+    public AdaptiveConcurrencyLimiter paymentAdmissionLimiter(MeterRegistry meterRegistry,
+                                                              @Value("${app.payments.admission.initial-limit:20}") int initialLimit,
+                                                              @Value("${app.payments.admission.min-limit:2}") int minLimit,
+                                                              @Value("${app.payments.admission.max-limit:200}") int maxLimit) {
+        return new AdaptiveConcurrencyLimiter("payments", initialLimit, minLimit, maxLimit, meterRegistry);
+    }
+
+    @Bean
+    public AdaptiveConcurrencyLimiter batchAdmissionLimiter(MeterRegistry meterRegistry,
+                                                            @Value("${app.payments.admission.batch.initial-limit:4}") int initialLimit,
+                                                            @Value("${app.payments.admission.batch.min-limit:1}") int minLimit,
+                                                            @Value("${app.payments.admission.batch.max-limit:20}") int maxLimit) {
+        return new AdaptiveConcurrencyLimiter("batch", initialLimit, minLimit, maxLimit, meterRegistry);
+    }
+
+    @Bean
+    public WebMvcConfigurer admissionInterceptorConfigurer(AdaptiveConcurrencyLimiter paymentAdmissionLimiter,
+                                                           AdaptiveConcurrencyLimiter batchAdmissionLimiter,
+                                                           @Value("${app.payments.admission.retry-after:PT1S}") Duration retryAfter) {
+        return new WebMvcConfigurer() {
+            @Override
+            public void addInterceptors(InterceptorRegistry registry) {
+                registry.addInterceptor(new AdmissionInterceptor(paymentAdmissionLimiter, retryAfter))
+                        .addPathPatterns("/api/payments");
+                registry.addInterceptor(new AdmissionInterceptor(batchAdmissionLimiter, retryAfter))
+                        .addPathPatterns("/api/payments/batch");
+            }
+        };
+    }
+}
@@ -0,0 +1,50 @@
+package com.instantpay.config;
+
+import com.instantpay.domain.port.out.PaymentEventPublisherPort;
+import com.instantpay.domain.port.out.PaymentRepositoryPort;
+import com.instantpay.domain.port.out.SettlementQueuePort;
+import com.instantpay.domain.usecase.AsyncPaymentAcceptor;
+import com.instantpay.domain.usecase.IdempotencyCache;
+import com.instantpay.domain.usecase.PaymentService;
+import com.instantpay.domain.usecase.SettlementWorkers;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+
+/** Async accept mode ({@code app.payments.accept-mode=async}): 202 on accept, settlement by background workers. */
+@Configuration
+@ConditionalOnProperty(name = "app.payments.accept-mode", havingValue = "async")
+public class AsyncAcceptConfig {
+
+    @Bean
+    @Primary
+    public AsyncPaymentAcceptor asyncPaymentAcceptor(PaymentService paymentService,
+                                                     PaymentRepositoryPort paymentRepo,
+                                                     SettlementQueuePort queue,
+                                                     PaymentEventPublisherPort publisherPort,
+                                                     Clock clock,
+                                                     IdempotencyCache idempotencyCache,
+                                                     PlatformTransactionManager txManager) {
+        return new AsyncPaymentAcceptor(paymentService, paymentRepo, queue, publisherPort, clock,
+                idempotencyCache, new TransactionTemplate(txManager));
+    }
+
+    @Bean(destroyMethod = "close")
+    public SettlementWorkers settlementWorkers(SettlementQueuePort queue,
+                                              PaymentRepositoryPort paymentRepo,
+                                              PaymentService paymentService,
+                                              PlatformTransactionManager txManager,
+                                              @Value("${app.payments.async.workers:2}") int workers,
+                                              @Value("${app.payments.async.batch-size:100}") int batchSize,
+                                              @Value("${app.payments.async.idle:PT0.05S}") Duration idle) {
+        return new SettlementWorkers(queue, paymentRepo, paymentService, new TransactionTemplate(txManager),
+                workers, batchSize, idle);
+    }
+}
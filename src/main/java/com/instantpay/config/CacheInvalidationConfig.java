@@ -0,0 +1,24 @@
+package com.instantpay.config;
+
+import com.instantpay.domain.usecase.AccountDirectory;
+import com.instantpay.domain.usecase.CacheInvalidations;
+import com.instantpay.domain.usecase.IdempotencyCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Clock;
+
+@Configuration
+public class CacheInvalidationConfig {
+
+    @Bean
+    public CacheInvalidations cacheInvalidations(Clock clock, MeterRegistry meterRegistry,
+                                                 IdempotencyCache idempotencyCache,
+                                                 AccountDirectory accountDirectory) {
+        var invalidations = new CacheInvalidations(clock, meterRegistry);
+        invalidations.register(CacheInvalidations.IDEMPOTENCY, idempotencyCache::evict, idempotencyCache::evictAll);
+        invalidations.register(CacheInvalidations.ACCOUNTS, accountDirectory::evict, accountDirectory::reload);
+        return invalidations;
+    }
+}
@@ -0,0 +1,29 @@
+package com.instantpay.config;
+
+import com.instantpay.domain.usecase.DebtorLimits;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.HashMap;
+import java.util.List;
+
+@Configuration
+public class DebtorLimitsConfig {
+
+    // Tiers as name=tps:burst:amount:window, accounts as IBAN=tier; no tiers disables the limits
+    @Bean
+    public DebtorLimits debtorLimits(MeterRegistry meterRegistry,
+                                     @Value("${app.payments.debtor-limits.tiers:}") List<String> tiers,
+                                     @Value("${app.payments.debtor-limits.default-tier:standard}") String defaultTier,
+                                     @Value("${app.payments.debtor-limits.accounts:}") List<String> accounts) {
+        var tierByIban = new HashMap<String, String>();
+        for (var entry : accounts) {
+            if (entry.isBlank()) continue;
+            var parts = entry.split("=", 2);
+            tierByIban.put(parts[0].trim(), parts[1].trim());
+        }
+        return new DebtorLimits(DebtorLimits.parseTiers(tiers), defaultTier, tierByIban, meterRegistry);
+    }
+}
@@ -0,0 +1,41 @@
+package com.instantpay.config;
+
+import com.instantpay.domain.usecase.GroupCommitter;
+import com.instantpay.domain.usecase.PaymentService;
+import com.instantpay.domain.usecase.TransferMode;
+import com.instantpay.domain.usecase.TransferPolicy;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import java.time.Duration;
+
+/**
+ * Opt-in group commit ({@code app.payments.group-commit.enabled=true}) in front of {@link PaymentService}.
+ * Not combinable with {@code app.settlement.engine=sharded}, which replaces the service altogether.
+ * Groups always lock their accounts up front, so only {@code app.payments.transfer-mode=pessimistic}
+ * is accepted: with another mode single payments and grouped ones would settle differently.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.payments.group-commit.enabled", havingValue = "true")
+public class GroupCommitConfig {
+
+    @Bean(destroyMethod = "close")
+    @Primary
+    public GroupCommitter groupCommitter(PaymentService paymentService,
+                                         TransferPolicy transferPolicy,
+                                         MeterRegistry meterRegistry,
+                                         @Value("${app.payments.group-commit.window:PT0.002S}") Duration window,
+                                         @Value("${app.payments.group-commit.max-batch:100}") int maxBatch,
+                                         @Value("${app.payments.group-commit.workers:4}") int workers,
+                                         @Value("${app.payments.group-commit.timeout:PT10S}") Duration timeout) {
+        if (transferPolicy.mode() != TransferMode.PESSIMISTIC) {
+            throw new IllegalStateException("app.payments.group-commit.enabled requires app.payments.transfer-mode=pessimistic, not "
+                    + transferPolicy.mode().name().toLowerCase());
+        }
+        return new GroupCommitter(paymentService, window, maxBatch, workers, timeout, meterRegistry);
+    }
+}
@@ -0,0 +1,22 @@
+package com.instantpay.config;
+
+import com.instantpay.domain.port.out.CacheInvalidationPublisherPort;
+import com.instantpay.domain.usecase.IdempotencyCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+public class IdempotencyCacheConfig {
+
+    @Bean
+    public IdempotencyCache idempotencyCache(MeterRegistry meterRegistry,
+                                             CacheInvalidationPublisherPort peers,
+                                             @Value("${app.payments.idempotency-cache.max-entries:100000}") int maxEntries,
+                                             @Value("${app.payments.idempotency-cache.ttl:PT10M}") Duration ttl) {
+        return new IdempotencyCache(maxEntries, ttl, peers, meterRegistry);
+    }
+}
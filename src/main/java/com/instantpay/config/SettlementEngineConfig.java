@@ -0,0 +1,55 @@
+package com.instantpay.config;
+
+import com.instantpay.domain.port.out.AccountRepositoryPort;
+import com.instantpay.domain.port.out.BalanceStripesPort;
+import com.instantpay.domain.port.out.CreditJournalPort;
+import com.instantpay.domain.port.out.PaymentEventPublisherPort;
+import com.instantpay.domain.port.out.PaymentRepositoryPort;
+import com.instantpay.domain.port.out.TransactionRepositoryPort;
+import com.instantpay.domain.usecase.ShardedSettlementEngine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+
+/**
+ * Opt-in single-writer settlement ({@code app.settlement.engine=sharded}). The engine takes over
+ * {@code SendPaymentUseCase}; {@code PaymentService} stays in the context but is no longer injected.
+ * Its shards hold the {@code accounts} row as the whole balance, so the application refuses to start
+ * when balance striping or the credit journal is configured: the engine would ignore the stripes and
+ * pending credits and write wrong balances. The idempotency cache, the account directory and debtor
+ * limits are not applied either.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.settlement.engine", havingValue = "sharded")
+public class SettlementEngineConfig {
+
+    @Bean(destroyMethod = "close")
+    @Primary
+    public ShardedSettlementEngine shardedSettlementEngine(PaymentRepositoryPort paymentRepo,
+                                                           AccountRepositoryPort accountRepo,
+                                                           TransactionRepositoryPort txRepo,
+                                                           PaymentEventPublisherPort publisherPort,
+                                                           BalanceStripesPort stripes,
+                                                           CreditJournalPort journal,
+                                                           PlatformTransactionManager txManager,
+                                                           Clock clock,
+                                                           @Value("${app.settlement.sharded.shards:8}") int shards,
+                                                           @Value("${app.settlement.sharded.persist-batch-size:200}") int batchSize,
+                                                           @Value("${app.settlement.sharded.timeout:PT5S}") Duration timeout) {
+        if (!stripes.stripedIbans().isEmpty()) {
+            throw new IllegalStateException("app.settlement.engine=sharded cannot be combined with app.payments.striping.accounts");
+        }
+        if (!journal.journaledIbans().isEmpty()) {
+            throw new IllegalStateException("app.settlement.engine=sharded cannot be combined with app.payments.credit-journal.accounts");
+        }
+        return new ShardedSettlementEngine(paymentRepo, accountRepo, txRepo, publisherPort,
+                new TransactionTemplate(txManager), clock, shards, batchSize, timeout);
+    }
+}
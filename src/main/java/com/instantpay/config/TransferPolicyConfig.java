@@ -0,0 +1,21 @@
+package com.instantpay.config;
+
+import com.instantpay.domain.usecase.TransferMode;
+import com.instantpay.domain.usecase.TransferPolicy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+public class TransferPolicyConfig {
+
+    @Bean
+    public TransferPolicy transferPolicy(@Value("${app.payments.transfer-mode:pessimistic}") TransferMode mode,
+                                         @Value("${app.payments.optimistic.max-retries:3}") int maxRetries,
+                                         @Value("${app.payments.optimistic.backoff:PT0.002S}") Duration backoff,
+                                         @Value("${app.payments.optimistic.hot-account-ttl:PT30S}") Duration hotAccountTtl) {
+        return new TransferPolicy(mode, maxRetries, backoff, hotAccountTtl);
+    }
+}
@@ -0,0 +1,19 @@
+package com.instantpay.domain.error;
+
+import java.time.Duration;
+
+/**
+ * The account could not be locked on this node in time; the request was not attempted. Not a
+ * {@link DomainException}: nothing is wrong with the payment, so it is neither shared with
+ * single-flight waiters nor counted as a failed payment.
+ */
+public class AccountBusyException extends RuntimeException {
+    private final Duration retryAfter;
+
+    public AccountBusyException(String msg, Duration retryAfter) {
+        super(msg);
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration retryAfter() { return retryAfter; }
+}
@@ -0,0 +1,15 @@
+package com.instantpay.domain.error;
+
+import java.time.Duration;
+
+/** A per-debtor rate or amount limit was hit; the payment was not attempted. */
+public class DebtorLimitExceededException extends PaymentRejectedException {
+    private final Duration retryAfter;
+
+    public DebtorLimitExceededException(String msg, Duration retryAfter) {
+        super(msg);
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration retryAfter() { return retryAfter; }
+}
@@ -0,0 +1,5 @@
+package com.instantpay.domain.error;
+
+public class PaymentNotFoundException extends DomainException {
+    public PaymentNotFoundException(String msg) { super(msg); }
+}
@@ -0,0 +1,19 @@
+package com.instantpay.domain.error;
+
+import java.time.Duration;
+
+/**
+ * The payment was handed on for settlement but its outcome was not known in time; it may still
+ * commit. Clients retry with the same idempotency key, which replays the outcome once there is one,
+ * never with a new key. Not a {@link DomainException}: the payment has not failed.
+ */
+public class SettlementPendingException extends RuntimeException {
+    private final Duration retryAfter;
+
+    public SettlementPendingException(String msg, Duration retryAfter) {
+        super(msg);
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration retryAfter() { return retryAfter; }
+}
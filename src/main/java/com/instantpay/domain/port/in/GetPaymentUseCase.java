@@ -0,0 +1,11 @@
+package com.instantpay.domain.port.in;
+
+import com.instantpay.domain.model.PaymentStatus;
+
+import java.util.UUID;
+
+public interface GetPaymentUseCase {
+    PaymentView get(UUID paymentId); // throws PaymentNotFoundException
+
+    record PaymentView(UUID paymentId, PaymentStatus status, String message) {}
+}
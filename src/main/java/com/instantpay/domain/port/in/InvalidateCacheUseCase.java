@@ -0,0 +1,11 @@
+package com.instantpay.domain.port.in;
+
+import java.time.Instant;
+import java.util.Collection;
+
+/** Invalidations received from other nodes (or from whoever changed the data behind a cache). */
+public interface InvalidateCacheUseCase {
+    void invalidate(String cache, Collection<String> keys, Instant sentAt);   // sentAt may be null
+
+    void resync();   // invalidations may have been missed: rebuild or drop every cache
+}
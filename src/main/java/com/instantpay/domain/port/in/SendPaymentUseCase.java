@@ -2,12 +2,19 @@ package com.instantpay.domain.port.in;
 
 import com.instantpay.domain.model.PaymentStatus;
 
+import java.util.List;
 import java.util.UUID;
 import java.math.BigDecimal;
 
 public interface SendPaymentUseCase {
     Result send(SendPaymentCommand command);
 
+    /**
+     * Settles many transfers in one database transaction. Each command keeps its own
+     * idempotency key; the returned list is aligned with the input order.
+     */
+    List<ItemResult> sendBatch(List<SendPaymentCommand> commands);
+
     record SendPaymentCommand(
             String idempotencyKey,
             String debtorIban,
@@ -18,5 +25,17 @@ public interface SendPaymentUseCase {
             String requestId // optional, for tracing
     ) {}
 
-    record Result(UUID paymentId, PaymentStatus status, String message) {}
+    /** {@code replayed}: answered from an earlier request with the same key, nothing was settled. */
+    record Result(UUID paymentId, PaymentStatus status, String message, boolean replayed) {
+        public Result(UUID paymentId, PaymentStatus status, String message) {
+            this(paymentId, status, message, false);
+        }
+
+        public static Result replay(UUID paymentId, PaymentStatus status) {
+            return new Result(paymentId, status, "Idempotent replay", true);
+        }
+    }
+
+    // paymentId is null when the item was rejected before a payment was created
+    record ItemResult(String idempotencyKey, UUID paymentId, PaymentStatus status, String message) {}
 }
@@ -0,0 +1,11 @@
+package com.instantpay.domain.port.out;
+
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.BiConsumer;
+
+/** Source of the IBAN -> account id pairs that back the in-memory account directory. */
+public interface AccountDirectoryPort {
+    void forEachAccount(BiConsumer<String, UUID> ibanAndId);   // streams every account, no locks
+    Optional<UUID> findId(String iban);                         // empty when there is no such account
+}
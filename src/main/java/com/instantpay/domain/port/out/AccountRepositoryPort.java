@@ -1,9 +1,20 @@
 package com.instantpay.domain.port.out;
 
 import com.instantpay.domain.model.Account;
+
+import java.math.BigDecimal;
 import java.util.Optional;
 
 public interface AccountRepositoryPort {
     Optional<Account> findByIbanForUpdate(String iban); // SELECT ... FOR UPDATE
+    Optional<Account> findByIban(String iban);          // plain read, no lock
     Account save(Account account);
+    boolean saveIfUnchanged(Account account);           // UPDATE ... WHERE version = account.version(); false on conflict
+
+    // Single-statement balance changes (UPDATE ... RETURNING); empty when the IBAN is unknown
+    Optional<ConditionalDebit> debitIfCovered(String iban, BigDecimal amount);
+    Optional<Account> credit(String iban, BigDecimal amount);
+
+    /** {@code applied == false}: the balance did not cover the amount and {@code account} is the unchanged row. */
+    record ConditionalDebit(Account account, boolean applied) {}
 }
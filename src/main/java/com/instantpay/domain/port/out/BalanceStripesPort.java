@@ -0,0 +1,27 @@
+package com.instantpay.domain.port.out;
+
+import com.instantpay.domain.model.Account;
+import com.instantpay.domain.port.out.AccountRepositoryPort.ConditionalDebit;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Designated hot accounts whose balance is split over N sub-balance rows (stripes), so concurrent
+ * transfers do not all queue on one account row. The logical balance is the account row plus all
+ * of its stripes; every {@link Account} returned here carries that logical balance.
+ */
+public interface BalanceStripesPort {
+    Set<String> stripedIbans();
+
+    default boolean isStriped(String iban) {
+        return stripedIbans().contains(iban);
+    }
+
+    // Both empty when the IBAN is unknown
+    Optional<Account> credit(String iban, BigDecimal amount);            // into one (unlocked) stripe
+    Optional<ConditionalDebit> debit(String iban, BigDecimal amount);    // from one covering stripe, else from the whole account
+
+    void rebalance(String iban);                                         // spread the logical balance evenly over the stripes
+}
@@ -0,0 +1,13 @@
+package com.instantpay.domain.port.out;
+
+import java.util.Collection;
+
+/**
+ * Tells every node to drop the given keys from one of its in-memory caches. Published as part of the
+ * current transaction: the other nodes only hear about it once (and if) it commits.
+ */
+public interface CacheInvalidationPublisherPort {
+    CacheInvalidationPublisherPort NONE = (cache, keys) -> {};
+
+    void invalidate(String cache, Collection<String> keys);
+}
@@ -0,0 +1,25 @@
+package com.instantpay.domain.port.out;
+
+import com.instantpay.domain.model.Account;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Receive-mostly accounts whose credits are appended to a journal of pending credits instead of
+ * updating (and locking) the account row. Pending credits are folded into the balance in bulk, and
+ * always before the account is debited.
+ */
+public interface CreditJournalPort {
+    Set<String> journaledIbans();
+
+    default boolean isJournaled(String iban) {
+        return journaledIbans().contains(iban);
+    }
+
+    // Both empty when the IBAN is unknown; the account carries the balance including pending credits
+    Optional<Account> append(String iban, UUID paymentId, BigDecimal amount);   // insert only, no row lock
+    Optional<Account> foldForUpdate(String iban);                              // locks the row, folds pending credits into it
+}
@@ -1,11 +1,15 @@
 package com.instantpay.domain.port.out;
 
 import com.instantpay.domain.model.Payment;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 public interface PaymentRepositoryPort {
     Payment save(Payment payment);
     Optional<Payment> findById(UUID id);
+    List<Payment> findAllByIds(Collection<UUID> ids);
     Optional<Payment> findByIdempotencyKey(String idempotencyKey);
+    List<Payment> findAllByIdempotencyKeys(Collection<String> idempotencyKeys);
 }
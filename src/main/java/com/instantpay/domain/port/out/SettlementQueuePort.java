@@ -0,0 +1,20 @@
+package com.instantpay.domain.port.out;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.IntFunction;
+
+/** Durable queue of accepted payments waiting for settlement (async accept mode). */
+public interface SettlementQueuePort {
+    void enqueue(UUID paymentId);           // in the accepting transaction
+    List<UUID> claim(int max);              // removes up to max entries; rolled back with the claiming transaction
+    boolean claim(UUID paymentId);          // removes this entry if it is queued and not claimed by someone else
+
+    /**
+     * Keeps the entry queued but not claimable for {@code delay.apply(attempt)}, where attempt counts
+     * the failed settlements of this payment from 1; returns the attempt, or 0 if the entry is not
+     * queued or claimed by someone else.
+     */
+    int retryLater(UUID paymentId, IntFunction<Duration> delay);
+}
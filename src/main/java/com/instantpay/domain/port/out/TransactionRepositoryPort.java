@@ -3,6 +3,17 @@ package com.instantpay.domain.port.out;
 
 import com.instantpay.domain.model.Transaction;
 
+import java.util.List;
+
+/**
+ * Write-only ledger. Every leg gets a per-account sequence number (1, 2, 3, ... without gaps), taken
+ * from the account row while it is locked, so a commit can never reveal a number below one already
+ * visible. Legs of accounts whose row the transaction does not lock (striped accounts, credits to
+ * journaled accounts) are written unnumbered and numbered by {@link #sequencePending} later.
+ */
 public interface TransactionRepositoryPort {
-    Transaction append(Transaction tx); // write-only ledger
+    Transaction append(Transaction tx);                          // numbered; the account row must be locked
+    List<Transaction> appendAll(List<Transaction> txs);          // bulk variant, written in one batch
+    List<Transaction> appendUnsequenced(List<Transaction> txs);  // no row lock needed, numbered later
+    int sequencePending(String iban);                            // locks the row, numbers its unnumbered legs in (created_at, id) order
 }
@@ -0,0 +1,78 @@
+package com.instantpay.domain.usecase;
+
+import com.instantpay.domain.error.AccountNotFoundException;
+import com.instantpay.domain.port.in.SendPaymentUseCase.SendPaymentCommand;
+import com.instantpay.domain.port.out.AccountDirectoryPort;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+
+/**
+ * IBAN -> account id of every account, reloaded from the {@code accounts} table in the background,
+ * so payments naming an unknown debtor or creditor are rejected before a transaction is opened.
+ * Until the first load completes (or when disabled) every IBAN passes and the database decides.
+ * A miss is rejected without a lookup: accounts opened since the last reload reach the map through
+ * an {@code accounts} invalidation ({@link #evict}), or with the next reload.
+ */
+public class AccountDirectory {
+
+    private final AccountDirectoryPort source;
+    private final boolean enabled;
+    private final Counter rejected;
+    private volatile ConcurrentHashMap<String, UUID> ids; // null until loaded
+
+    public AccountDirectory(AccountDirectoryPort source, boolean enabled, MeterRegistry registry) {
+        this.source = source;
+        this.enabled = enabled;
+        this.rejected = Counter.builder("payment.account.directory.rejected").register(registry);
+        Gauge.builder("payment.account.directory.size", this, d -> d.ids == null ? 0 : d.ids.size()).register(registry);
+    }
+
+    public static AccountDirectory disabled(MeterRegistry registry) {
+        return new AccountDirectory(new AccountDirectoryPort() {
+            @Override
+            public void forEachAccount(BiConsumer<String, UUID> ibanAndId) { }
+
+            @Override
+            public Optional<UUID> findId(String iban) {
+                return Optional.empty();
+            }
+        }, false, registry);
+    }
+
+    /** Replaces the directory with the current contents of the table; readers keep the old one meanwhile. */
+    public void reload() {
+        if (!enabled) return;
+        var loaded = new ConcurrentHashMap<String, UUID>(ids == null ? 1024 : ids.size() * 2);
+        source.forEachAccount(loaded::put);
+        ids = loaded;
+    }
+
+    /** Re-reads one IBAN: the account was opened or closed. */
+    public void evict(String iban) {
+        var current = ids;
+        if (current == null) return;
+        source.findId(iban).ifPresentOrElse(id -> current.put(iban, id), () -> current.remove(iban));
+    }
+
+    public boolean isLoaded() {
+        return ids != null;
+    }
+
+    /** Throws {@link AccountNotFoundException} when the directory is loaded and one of the IBANs has no account. */
+    void check(SendPaymentCommand cmd) {
+        var current = ids;
+        if (current == null) return;
+        for (var iban : new String[] {cmd.debtorIban(), cmd.creditorIban()}) {
+            if (!current.containsKey(iban)) {
+                rejected.increment();
+                throw new AccountNotFoundException("Account not found: " + iban);
+            }
+        }
+    }
+}
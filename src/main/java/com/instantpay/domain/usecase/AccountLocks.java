@@ -0,0 +1,97 @@
+package com.instantpay.domain.usecase;
+
+import com.instantpay.domain.error.AccountBusyException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-process lock table striped by IBAN hash. {@link PaymentService#send} takes the stripes of both
+ * accounts before it opens a transaction, so requests for the same hot account queue here (parked
+ * virtual threads) rather than inside Postgres while holding a pooled connection. Stripes are taken
+ * in ascending stripe order: IBAN order does not map onto stripe order, and two transfers locking
+ * the same two stripes in opposite orders would deadlock. Only serializes within one node; the row
+ * locks in the database stay the source of truth. A {@code null} IBAN is not locked, for the hot
+ * accounts whose writers are meant to run side by side.
+ */
+public class AccountLocks {
+
+    /** Releases what {@link #lock} acquired. */
+    public interface Held extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    private static final Held NOTHING = () -> {};
+
+    private final ReentrantLock[] stripes;
+    private final Duration timeout;
+    private final Timer wait;
+    private final Counter timeouts;
+
+    public AccountLocks(int stripes, Duration timeout, MeterRegistry registry) {
+        this.stripes = new ReentrantLock[Math.max(0, stripes)];
+        this.timeout = timeout;
+        for (int i = 0; i < this.stripes.length; i++) {
+            var lock = new ReentrantLock();
+            this.stripes[i] = lock;
+            Gauge.builder("payment.account.lock.queue", lock, ReentrantLock::getQueueLength)
+                    .description("Requests waiting for this stripe of the in-process account lock table")
+                    .tag("stripe", Integer.toString(i))
+                    .register(registry);
+        }
+        this.wait = Timer.builder("payment.account.lock.wait")
+                .publishPercentileHistogram()
+                .register(registry);
+        this.timeouts = Counter.builder("payment.account.lock.timeouts").register(registry);
+    }
+
+    /** No in-process locking (for tests and benchmarks, or {@code stripes: 0}). */
+    public static AccountLocks disabled(MeterRegistry registry) {
+        return new AccountLocks(0, Duration.ZERO, registry);
+    }
+
+    Held lock(String iban, String other) {
+        if (stripes.length == 0 || (iban == null && other == null)) return NOTHING;
+        int a = stripe(iban != null ? iban : other), b = stripe(other != null ? other : iban);
+        var first = stripes[Math.min(a, b)];
+        var second = a == b ? null : stripes[Math.max(a, b)];
+
+        var started = System.nanoTime();
+        var deadline = started + timeout.toNanos();
+        try {
+            if (!first.tryLock(timeout.toNanos(), TimeUnit.NANOSECONDS)) {
+                throw busy(iban, other);
+            }
+            if (second != null && !second.tryLock(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+                first.unlock();
+                throw busy(iban, other);
+            }
+        } catch (InterruptedException e) {
+            if (first.isHeldByCurrentThread()) first.unlock();
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for account lock", e);
+        } finally {
+            wait.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        }
+        return () -> {
+            if (second != null) second.unlock();
+            first.unlock();
+        };
+    }
+
+    private AccountBusyException busy(String iban, String other) {
+        timeouts.increment();
+        return new AccountBusyException("Account busy, retry later: " + iban + " / " + other, timeout);
+    }
+
+    private int stripe(String iban) {
+        int h = iban.hashCode();
+        return Math.floorMod(h ^ (h >>> 16), stripes.length);
+    }
+}
@@ -0,0 +1,80 @@
+package com.instantpay.domain.usecase;
+
+import com.instantpay.domain.model.Payment;
+import com.instantpay.domain.model.PaymentStatus;
+import com.instantpay.domain.port.in.SendPaymentUseCase;
+import com.instantpay.domain.port.out.PaymentEventPublisherPort;
+import com.instantpay.domain.port.out.PaymentRepositoryPort;
+import com.instantpay.domain.port.out.SettlementQueuePort;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.time.Clock;
+import java.util.List;
+
+/**
+ * Async accept mode: {@link #send} only records the payment as CREATED and queues it, so the
+ * caller gets 202 without waiting for locks or ledger writes. {@link SettlementWorkers} settle
+ * the queue later through {@link PaymentService#settleAccepted}. Batches stay synchronous.
+ */
+public class AsyncPaymentAcceptor implements SendPaymentUseCase {
+
+    private final PaymentService paymentService;
+    private final PaymentRepositoryPort paymentRepo;
+    private final SettlementQueuePort queue;
+    private final PaymentEventPublisherPort publisherPort;
+    private final Clock clock;
+    private final IdempotencyCache replays;
+    private final TransactionOperations tx;
+
+    public AsyncPaymentAcceptor(PaymentService paymentService,
+                                PaymentRepositoryPort paymentRepo,
+                                SettlementQueuePort queue,
+                                PaymentEventPublisherPort publisherPort,
+                                Clock clock,
+                                IdempotencyCache replays,
+                                TransactionOperations tx) {
+        this.paymentService = paymentService;
+        this.paymentRepo = paymentRepo;
+        this.queue = queue;
+        this.publisherPort = publisherPort;
+        this.clock = clock;
+        this.replays = replays;
+        this.tx = tx;
+    }
+
+    @Override
+    public Result send(SendPaymentCommand cmd) {
+        PaymentService.validate(cmd);
+        var cached = replays.lookup(cmd.idempotencyKey());
+        if (cached.isPresent()) return cached.get();
+        paymentService.admit(cmd);
+        return tx.execute(status -> accept(cmd));
+    }
+
+    private Result accept(SendPaymentCommand cmd) {
+        var existing = paymentRepo.findByIdempotencyKey(cmd.idempotencyKey());
+        if (existing.isPresent()) {
+            var p = existing.get();
+            replays.rememberOnCommit(p);
+            return Result.replay(p.id(), p.status());
+        }
+
+        var payment = Payment.newCreated(cmd, clock);
+        try {
+            paymentRepo.save(payment);
+        } catch (Exception uniqueMaybe) {
+            var again = paymentRepo.findByIdempotencyKey(cmd.idempotencyKey()).orElseThrow();
+            return Result.replay(again.id(), again.status());
+        }
+        queue.enqueue(payment.id());
+        publisherPort.publishPaymentCreated(payment);
+        replays.rememberOnCommit(payment);
+
+        return new Result(payment.id(), PaymentStatus.CREATED, "Payment accepted");
+    }
+
+    @Override
+    public List<ItemResult> sendBatch(List<SendPaymentCommand> commands) {
+        return paymentService.sendBatch(commands);
+    }
+}
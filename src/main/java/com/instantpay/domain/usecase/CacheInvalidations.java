@@ -0,0 +1,67 @@
+package com.instantpay.domain.usecase;
+
+import com.instantpay.domain.port.in.InvalidateCacheUseCase;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/** Routes invalidations to the in-memory caches registered under a name. Unknown cache names are ignored. */
+public class CacheInvalidations implements InvalidateCacheUseCase {
+    private static final Logger log = LoggerFactory.getLogger(CacheInvalidations.class);
+
+    public static final String IDEMPOTENCY = "idempotency";
+    public static final String ACCOUNTS = "accounts";
+
+    private record Subscriber(Consumer<String> evict, Runnable resync) {}
+
+    private final Map<String, Subscriber> subscribers = new ConcurrentHashMap<>();
+    private final Clock clock;
+    private final MeterRegistry registry;
+    private final Counter resyncs;
+
+    public CacheInvalidations(Clock clock, MeterRegistry registry) {
+        this.clock = clock;
+        this.registry = registry;
+        this.resyncs = Counter.builder("payment.cache.invalidation.resyncs").register(registry);
+    }
+
+    public void register(String cache, Consumer<String> evict, Runnable resync) {
+        subscribers.put(cache, new Subscriber(evict, resync));
+    }
+
+    @Override
+    public void invalidate(String cache, Collection<String> keys, Instant sentAt) {
+        var subscriber = subscribers.get(cache);
+        if (subscriber == null) return;
+        keys.forEach(subscriber.evict());
+        Counter.builder("payment.cache.invalidation.received").tag("cache", cache).register(registry).increment(keys.size());
+        if (sentAt != null) {
+            // Sender and receiver clocks differ, so negative lags are clamped to zero
+            var lag = Duration.between(sentAt, clock.instant());
+            Timer.builder("payment.cache.invalidation.lag").tag("cache", cache).register(registry)
+                    .record(lag.isNegative() ? Duration.ZERO : lag);
+        }
+    }
+
+    @Override
+    public void resync() {
+        resyncs.increment();
+        subscribers.forEach((cache, subscriber) -> {
+            try {
+                subscriber.resync().run();
+            } catch (RuntimeException e) {
+                log.warn("Resync of cache {} failed", cache, e);
+            }
+        });
+    }
+}
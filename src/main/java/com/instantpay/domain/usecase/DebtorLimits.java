@@ -0,0 +1,175 @@
+package com.instantpay.domain.usecase;
+
+import com.instantpay.domain.error.DebtorLimitExceededException;
+import com.instantpay.domain.port.in.SendPaymentUseCase.SendPaymentCommand;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Per-debtor limits checked in memory before any database work: a token bucket on payments per
+ * second and a sliding-window sum of amounts (10 buckets per window). All counters are CAS-based.
+ * Limits come from the debtor's tier. A payment that later fails still counts: these limit attempts.
+ * Per node; with N replicas behind a balancer a debtor gets up to N times the configured limits.
+ */
+public class DebtorLimits {
+
+    /** Limits of one account tier; {@code tps <= 0} or {@code amountPerWindow == null} turns that limit off. */
+    public record Tier(double tps, int burst, BigDecimal amountPerWindow, Duration window) {}
+
+    private static final int BUCKETS = 10;
+    private static final int SWEEP_EVERY = 4096;
+
+    private final Map<String, Tier> tiers;
+    private final String defaultTier;
+    private final Map<String, String> tierByIban;
+    private final ConcurrentHashMap<String, DebtorState> debtors = new ConcurrentHashMap<>();
+    private final AtomicLong calls = new AtomicLong();
+    private final MeterRegistry registry;
+    private final boolean enabled;
+
+    public DebtorLimits(Map<String, Tier> tiers, String defaultTier, Map<String, String> tierByIban, MeterRegistry registry) {
+        this.tiers = Map.copyOf(tiers);
+        this.defaultTier = defaultTier;
+        this.tierByIban = Map.copyOf(tierByIban);
+        this.registry = registry;
+        this.enabled = !tiers.isEmpty();
+        if (enabled && !tiers.containsKey(defaultTier)) {
+            throw new IllegalArgumentException("Unknown default tier: " + defaultTier);
+        }
+    }
+
+    public static DebtorLimits disabled(MeterRegistry registry) {
+        return new DebtorLimits(Map.of(), "", Map.of(), registry);
+    }
+
+    /**
+     * Parses {@code name=tps:burst:amount:window} entries, e.g. {@code standard=20:40:50000.00:PT1H};
+     * {@code -} turns a limit off.
+     */
+    public static Map<String, Tier> parseTiers(Iterable<String> entries) {
+        var parsed = new HashMap<String, Tier>();
+        for (var entry : entries) {
+            if (entry.isBlank()) continue;
+            var nameAndLimits = entry.split("=", 2);
+            var f = nameAndLimits[1].split(":");
+            parsed.put(nameAndLimits[0].trim(), new Tier(
+                    f[0].equals("-") ? 0 : Double.parseDouble(f[0]),
+                    f[1].equals("-") ? 0 : Integer.parseInt(f[1]),
+                    f[2].equals("-") ? null : new BigDecimal(f[2]),
+                    Duration.parse(f[3])));
+        }
+        return parsed;
+    }
+
+    /** Throws {@link DebtorLimitExceededException} when the debtor is over one of its limits; otherwise counts the payment. */
+    void check(SendPaymentCommand cmd) {
+        if (!enabled) return;
+        var tierName = tierByIban.getOrDefault(cmd.debtorIban(), defaultTier);
+        if (!tiers.containsKey(tierName)) tierName = defaultTier;
+        var tier = tiers.get(tierName);
+        var state = debtors.computeIfAbsent(cmd.debtorIban(), k -> new DebtorState(tier));
+        var now = System.nanoTime();
+        if (calls.incrementAndGet() % SWEEP_EVERY == 0) sweep(now);
+
+        if (!state.takeToken(now)) {
+            rejected("rate", tierName);
+            throw new DebtorLimitExceededException(
+                    "Payment rate limit exceeded for debtor " + cmd.debtorIban() + " (" + tier.tps() + "/s)",
+                    Duration.ofNanos((long) (1e9 / tier.tps())));
+        }
+        if (!state.addAmount(now, cmd.amount())) {
+            state.returnToken();
+            rejected("amount", tierName);
+            throw new DebtorLimitExceededException(
+                    "Amount limit exceeded for debtor " + cmd.debtorIban() + " (" + tier.amountPerWindow() + " per " + tier.window() + ")",
+                    tier.window().dividedBy(BUCKETS));
+        }
+    }
+
+    private void rejected(String limit, String tier) {
+        Counter.builder("payment.debtor.limit.rejected")
+                .tag("limit", limit)
+                .tag("tier", tier)
+                .register(registry)
+                .increment();
+    }
+
+    // Drops debtors that have been idle for longer than their window
+    private void sweep(long now) {
+        debtors.entrySet().removeIf(e -> now - e.getValue().lastSeen.get() > e.getValue().tier.window().toNanos());
+    }
+
+    private static final class DebtorState {
+        private record Bucket(double tokens, long at) {}
+        private record Slot(long epoch, long minor) {}   // sub-window and the amount in it, in cents
+
+        final Tier tier;
+        final AtomicLong lastSeen = new AtomicLong(System.nanoTime());
+        private final AtomicReference<Bucket> bucket;
+        private final long bucketNanos;
+        private final long limitMinor;
+        private final AtomicReferenceArray<Slot> slots = new AtomicReferenceArray<>(BUCKETS);
+
+        DebtorState(Tier tier) {
+            this.tier = tier;
+            this.bucket = new AtomicReference<>(new Bucket(Math.max(1, tier.burst()), System.nanoTime()));
+            this.bucketNanos = Math.max(1, tier.window().toNanos() / BUCKETS);
+            this.limitMinor = tier.amountPerWindow() == null ? Long.MAX_VALUE : toMinor(tier.amountPerWindow());
+            for (int i = 0; i < BUCKETS; i++) slots.set(i, new Slot(Long.MIN_VALUE, 0));
+        }
+
+        boolean takeToken(long now) {
+            lastSeen.set(now);
+            if (tier.tps() <= 0) return true;
+            while (true) {
+                var b = bucket.get();
+                var refilled = Math.min(Math.max(1, tier.burst()), b.tokens() + (now - b.at()) * tier.tps() / 1e9);
+                if (refilled < 1) return false;
+                if (bucket.compareAndSet(b, new Bucket(refilled - 1, Math.max(now, b.at())))) return true;
+            }
+        }
+
+        void returnToken() {
+            if (tier.tps() <= 0) return;
+            bucket.updateAndGet(b -> new Bucket(Math.min(Math.max(1, tier.burst()), b.tokens() + 1), b.at()));
+        }
+
+        // Adds first and takes it back when over the limit, so concurrent payments cannot both slip under it.
+        // A slot's sub-window and its sum change together: a reset can never drop an amount added for the new window
+        boolean addAmount(long now, BigDecimal amount) {
+            if (limitMinor == Long.MAX_VALUE) return true;
+            var epoch = now / bucketNanos;
+            var slot = (int) Math.floorMod(epoch, (long) BUCKETS);
+            var cents = toMinor(amount);
+            // A caller still on an older sub-window adds to the newer one: counted a little late, never lost
+            var added = slots.accumulateAndGet(slot, new Slot(epoch, cents),
+                    (s, add) -> s.epoch() >= add.epoch() ? new Slot(s.epoch(), s.minor() + add.minor()) : add);
+
+            long total = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                var s = slots.get(i);
+                if (epoch - s.epoch() < BUCKETS) total += s.minor();
+            }
+            if (total > limitMinor) {
+                // Once the slot has moved on to a later sub-window the amount has aged out already
+                slots.updateAndGet(slot, s -> s.epoch() == added.epoch() ? new Slot(s.epoch(), s.minor() - cents) : s);
+                return false;
+            }
+            return true;
+        }
+
+        private static long toMinor(BigDecimal amount) {
+            return amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+        }
+    }
+}
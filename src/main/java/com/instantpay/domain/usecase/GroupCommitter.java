@@ -0,0 +1,160 @@
+package com.instantpay.domain.usecase;
+
+import com.instantpay.domain.error.DomainException;
+import com.instantpay.domain.error.SettlementPendingException;
+import com.instantpay.domain.port.in.SendPaymentUseCase;
+import com.instantpay.domain.usecase.PaymentService.Settled;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+/**
+ * Group commit in front of {@link PaymentService}: concurrent {@link #send} calls are queued and
+ * collected for up to {@code window} or {@code maxBatch} requests, then settled together through
+ * {@link PaymentService#settleAll} in one transaction, so they share one commit (and WAL flush).
+ * Each caller is answered after that commit with its own result or domain exception.
+ * <p>
+ * If the shared transaction itself fails (deadlock, lost connection, ...), the group is replayed
+ * one payment per transaction, so a single bad payment cannot fail its neighbours.
+ */
+public class GroupCommitter implements SendPaymentUseCase, AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(GroupCommitter.class);
+    private static final Duration RETRY_AFTER = Duration.ofSeconds(1);
+
+    private final PaymentService delegate;
+    private final long windowNanos;
+    private final int maxBatch;
+    private final Duration timeout;
+    private final LinkedBlockingQueue<Pending> queue = new LinkedBlockingQueue<>();
+    private final List<Thread> workers = new ArrayList<>();
+    private final DistributionSummary groupSize;
+    private final Timer queueWait;
+    private volatile boolean running = true;
+
+    public GroupCommitter(PaymentService delegate, Duration window, int maxBatch, int workers,
+                          Duration timeout, MeterRegistry registry) {
+        this.delegate = delegate;
+        this.windowNanos = window.toNanos();
+        this.maxBatch = Math.max(1, maxBatch);
+        this.timeout = timeout;
+        this.groupSize = DistributionSummary.builder("payment.group.size")
+                .description("Payments settled per shared transaction")
+                .publishPercentileHistogram()
+                .register(registry);
+        this.queueWait = Timer.builder("payment.group.wait")
+                .description("Time a payment waited for its group to start")
+                .publishPercentileHistogram()
+                .register(registry);
+        // Groups lock their accounts in sorted IBAN order, so parallel workers cannot deadlock each other
+        for (int i = 0; i < Math.max(1, workers); i++) {
+            this.workers.add(Thread.ofPlatform().name("group-commit-" + i).daemon().start(this::run));
+        }
+    }
+
+    @Override
+    public Result send(SendPaymentCommand cmd) {
+        // Known replays do not wait for a group
+        var cached = delegate.cachedReplay(cmd);
+        if (cached.isPresent()) return cached.get();
+        delegate.admit(cmd);
+
+        var pending = new Pending(cmd, System.nanoTime(), new CompletableFuture<>());
+        queue.offer(pending);
+        try {
+            var settled = pending.done().get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+            if (settled.error() != null) throw settled.error();
+            return settled.result();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            throw new IllegalStateException("Group commit failed", e.getCause());
+        } catch (TimeoutException e) {
+            // The group may still commit: a retry with a new key could pay twice, one with the same key replays it
+            throw new SettlementPendingException("Payment not committed within " + timeout
+                    + "; retry with the same idempotency key for the outcome", RETRY_AFTER);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for group commit", e);
+        }
+    }
+
+    @Override
+    public List<ItemResult> sendBatch(List<SendPaymentCommand> commands) {
+        return delegate.sendBatch(commands); // already one transaction
+    }
+
+    private void run() {
+        var group = new ArrayList<Pending>(maxBatch);
+        while (running || !queue.isEmpty()) {
+            try {
+                var first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) continue;
+                group.add(first);
+                var deadline = System.nanoTime() + windowNanos;
+                while (group.size() < maxBatch) {
+                    var remaining = deadline - System.nanoTime();
+                    var next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (next == null) break;
+                    group.add(next);
+                    queue.drainTo(group, maxBatch - group.size());
+                }
+                settle(group);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                group.clear();
+            }
+        }
+    }
+
+    private void settle(List<Pending> group) {
+        var started = System.nanoTime();
+        for (var p : group) queueWait.record(started - p.enqueuedAt(), TimeUnit.NANOSECONDS);
+        groupSize.record(group.size());
+
+        var cmds = group.stream().map(Pending::cmd).toList();
+        List<Settled> settled;
+        try {
+            settled = delegate.settleAll(cmds);
+        } catch (RuntimeException e) {
+            log.warn("Group of {} payments failed; settling them one by one", group.size(), e);
+            for (var p : group) settleAlone(p);
+            return;
+        }
+        for (int i = 0; i < group.size(); i++) {
+            group.get(i).done().complete(settled.get(i));
+        }
+    }
+
+    private void settleAlone(Pending p) {
+        try {
+            p.done().complete(Settled.of(delegate.resend(p.cmd())));
+        } catch (DomainException e) {
+            p.done().complete(Settled.failed(e));
+        } catch (RuntimeException e) {
+            p.done().completeExceptionally(e);
+        }
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        for (var worker : workers) {
+            try {
+                worker.join(5_000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private record Pending(SendPaymentCommand cmd, long enqueuedAt, CompletableFuture<Settled> done) {}
+}
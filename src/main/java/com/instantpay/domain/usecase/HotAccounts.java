@@ -0,0 +1,31 @@
+package com.instantpay.domain.usecase;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+
+/** Accounts that exhausted their optimistic retries; they are locked pessimistically until the TTL runs out. */
+final class HotAccounts {
+
+    private final ConcurrentHashMap<String, Long> hotUntil = new ConcurrentHashMap<>();
+    private final long ttlNanos;
+
+    HotAccounts(Duration ttl) {
+        this.ttlNanos = ttl.toNanos();
+    }
+
+    boolean isHot(String iban) {
+        var until = hotUntil.get(iban);
+        if (until == null) return false;
+        if (System.nanoTime() - until < 0) return true;
+        hotUntil.remove(iban, until);
+        return false;
+    }
+
+    void mark(String iban) {
+        hotUntil.put(iban, System.nanoTime() + ttlNanos);
+    }
+
+    int size() {
+        return hotUntil.size();
+    }
+}
@@ -0,0 +1,117 @@
+package com.instantpay.domain.usecase;
+
+import com.instantpay.domain.model.Payment;
+import com.instantpay.domain.model.PaymentStatus;
+import com.instantpay.domain.port.in.SendPaymentUseCase.Result;
+import com.instantpay.domain.port.out.CacheInvalidationPublisherPort;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Recent idempotency key -> (payment id, status), consulted before a transaction is opened so that
+ * client retry storms are answered from memory. Entries are only written after the transaction that
+ * persisted the payment has committed, so a rolled-back payment is never replayed from here.
+ * Bounded by {@code maxEntries} (oldest first out) and by {@code ttl}. Local to the node: a status
+ * changed on another node (async settlement) is announced to every node through {@code peers}.
+ */
+public class IdempotencyCache {
+
+    private record Entry(UUID paymentId, PaymentStatus status, long expiresAt) {}
+
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<String> insertionOrder = new ConcurrentLinkedQueue<>();
+    private final int maxEntries;
+    private final CacheInvalidationPublisherPort peers;
+    private final long ttlNanos;
+    private final Counter hits;
+    private final Counter misses;
+
+    public IdempotencyCache(int maxEntries, Duration ttl, MeterRegistry registry) {
+        this(maxEntries, ttl, CacheInvalidationPublisherPort.NONE, registry);
+    }
+
+    public IdempotencyCache(int maxEntries, Duration ttl, CacheInvalidationPublisherPort peers, MeterRegistry registry) {
+        this.maxEntries = maxEntries;
+        this.peers = peers;
+        this.ttlNanos = ttl.toNanos();
+        this.hits = Counter.builder("payment.idempotency.cache").tag("result", "hit").register(registry);
+        this.misses = Counter.builder("payment.idempotency.cache").tag("result", "miss").register(registry);
+        Gauge.builder("payment.idempotency.cache.size", entries, ConcurrentHashMap::size).register(registry);
+    }
+
+    /** A cache that never holds anything (for tests and benchmarks, or {@code max-entries: 0}). */
+    public static IdempotencyCache disabled(MeterRegistry registry) {
+        return new IdempotencyCache(0, Duration.ZERO, registry);
+    }
+
+    Optional<Result> lookup(String idempotencyKey) {
+        if (maxEntries <= 0 || idempotencyKey == null) return Optional.empty();
+        var e = entries.get(idempotencyKey);
+        if (e == null || System.nanoTime() - e.expiresAt() >= 0) {
+            misses.increment();
+            return Optional.empty();
+        }
+        hits.increment();
+        return Optional.of(Result.replay(e.paymentId(), e.status()));
+    }
+
+    /** Records the payment once the current transaction commits (immediately when there is none). */
+    void rememberOnCommit(Payment payment) {
+        if (maxEntries <= 0) return;
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            remember(payment);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                remember(payment);
+            }
+        });
+    }
+
+    /** Makes the other nodes drop these keys once the current transaction commits: their status changed here. */
+    void invalidateOnOtherNodes(Collection<String> idempotencyKeys) {
+        if (maxEntries <= 0 || idempotencyKeys.isEmpty()) return;
+        peers.invalidate(CacheInvalidations.IDEMPOTENCY, idempotencyKeys);
+    }
+
+    // Evicted entries are expired in place rather than removed, so the insertion order stays consistent
+    public void evict(String idempotencyKey) {
+        var now = System.nanoTime();
+        entries.computeIfPresent(idempotencyKey, (k, e) -> new Entry(e.paymentId(), e.status(), now));
+    }
+
+    public void evictAll() {
+        var now = System.nanoTime();
+        entries.replaceAll((k, e) -> new Entry(e.paymentId(), e.status(), now));
+    }
+
+    private void remember(Payment payment) {
+        var key = payment.idempotencyKey();
+        var previous = entries.put(key, new Entry(payment.id(), payment.status(), System.nanoTime() + ttlNanos));
+        if (previous == null) {
+            insertionOrder.add(key);
+        }
+        // Expired entries stay until pushed out, so every cached key is in the queue exactly once
+        while (entries.size() > maxEntries) {
+            var oldest = insertionOrder.poll();
+            if (oldest == null) break;
+            entries.remove(oldest);
+        }
+    }
+
+    int size() {
+        return entries.size();
+    }
+}
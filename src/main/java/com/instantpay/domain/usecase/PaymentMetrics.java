@@ -0,0 +1,151 @@
+package com.instantpay.domain.usecase;
+
+import com.instantpay.domain.error.AccountNotFoundException;
+import com.instantpay.domain.error.InsufficientFundsException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Meters for {@link PaymentService#send} and the grouped paths (batch, group commit), which record
+ * every payment they carry: one timer per stage ({@code payment.send.stage}),
+ * row-lock wait per account ({@code payment.send.lock.wait}), the whole call ({@code payment.send})
+ * and outcome counters ({@code payment.send.outcome}). Timers publish percentile histograms.
+ * OPTIMISTIC mode adds retry and fallback counters and the number of hot accounts.
+ */
+final class PaymentMetrics {
+
+    enum Stage { IDEMPOTENCY_LOOKUP, LOCK, PAYMENT_SAVE, PUBLISH, ACCOUNT_SAVE, LEDGER_APPEND, COMMIT }
+
+    enum Outcome { COMPLETED, IDEMPOTENT_REPLAY, INSUFFICIENT_FUNDS, NOT_FOUND, REJECTED }
+
+    private final Map<Stage, Timer> stages = new EnumMap<>(Stage.class);
+    private final Map<Outcome, Counter> outcomes = new EnumMap<>(Outcome.class);
+    private final Timer lockWait;
+    private final Timer total;
+    private final Counter optimisticRetries;
+    private final Counter optimisticFallbacks;
+    private final Counter singleFlightJoins;
+
+    PaymentMetrics(MeterRegistry registry, HotAccounts hotAccounts) {
+        for (var stage : Stage.values()) {
+            stages.put(stage, Timer.builder("payment.send.stage")
+                    .tag("stage", tag(stage))
+                    .publishPercentileHistogram()
+                    .register(registry));
+        }
+        for (var outcome : Outcome.values()) {
+            outcomes.put(outcome, Counter.builder("payment.send.outcome")
+                    .tag("result", tag(outcome))
+                    .register(registry));
+        }
+        lockWait = Timer.builder("payment.send.lock.wait")
+                .description("Time blocked acquiring one account row lock")
+                .publishPercentileHistogram()
+                .register(registry);
+        total = Timer.builder("payment.send")
+                .publishPercentileHistogram()
+                .register(registry);
+        optimisticRetries = Counter.builder("payment.optimistic.retries")
+                .description("Version conflicts retried in OPTIMISTIC mode")
+                .register(registry);
+        optimisticFallbacks = Counter.builder("payment.optimistic.fallbacks")
+                .description("Accounts switched to pessimistic locking after exhausting retries")
+                .register(registry);
+        singleFlightJoins = Counter.builder("payment.send.singleflight.joined")
+                .description("Requests that waited for an in-flight request with the same idempotency key")
+                .register(registry);
+        Gauge.builder("payment.optimistic.hot.accounts", hotAccounts, HotAccounts::size)
+                .register(registry);
+    }
+
+    /** Records the stage since {@code startNanos} and returns now, so stages can be chained. */
+    long stage(Stage stage, long startNanos) {
+        var now = System.nanoTime();
+        stages.get(stage).record(now - startNanos, TimeUnit.NANOSECONDS);
+        return now;
+    }
+
+    /** Same for a stage shared by {@code payments} grouped payments: each of them spent that long in it. */
+    long stage(Stage stage, long startNanos, int payments) {
+        var now = System.nanoTime();
+        var timer = stages.get(stage);
+        for (int i = 0; i < payments; i++) {
+            timer.record(now - startNanos, TimeUnit.NANOSECONDS);
+        }
+        return now;
+    }
+
+    long lockWait(long startNanos) {
+        var now = System.nanoTime();
+        lockWait.record(now - startNanos, TimeUnit.NANOSECONDS);
+        return now;
+    }
+
+    void total(long startNanos) {
+        total(startNanos, 1);
+    }
+
+    void total(long startNanos, int payments) {
+        var elapsed = System.nanoTime() - startNanos;
+        for (int i = 0; i < payments; i++) {
+            total.record(elapsed, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    void outcome(Outcome outcome) {
+        outcomes.get(outcome).increment();
+    }
+
+    void optimisticRetry() {
+        optimisticRetries.increment();
+    }
+
+    void optimisticFallback() {
+        optimisticFallbacks.increment();
+    }
+
+    void singleFlightJoin() {
+        singleFlightJoins.increment();
+    }
+
+    void failed(RuntimeException e) {
+        if (e instanceof InsufficientFundsException) outcome(Outcome.INSUFFICIENT_FUNDS);
+        else if (e instanceof AccountNotFoundException) outcome(Outcome.NOT_FOUND);
+        else outcome(Outcome.REJECTED);
+    }
+
+    // The commit runs after send() returns, in the transaction interceptor
+    void timeCommit() {
+        timeCommit(1);
+    }
+
+    void timeCommit(int payments) {
+        if (payments <= 0 || !TransactionSynchronizationManager.isSynchronizationActive()) return;
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            private long started;
+
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                started = System.nanoTime();
+            }
+
+            @Override
+            public void afterCommit() {
+                stage(Stage.COMMIT, started, payments);
+            }
+        });
+    }
+
+    private static String tag(Enum<?> e) {
+        return e.name().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,30 @@
+package com.instantpay.domain.usecase;
+
+import com.instantpay.domain.error.PaymentNotFoundException;
+import com.instantpay.domain.port.in.GetPaymentUseCase;
+import com.instantpay.domain.port.out.PaymentRepositoryPort;
+import org.springframework.stereotype.Service;
+
+import java.util.UUID;
+
+@Service
+public class PaymentQueryService implements GetPaymentUseCase {
+
+    private final PaymentRepositoryPort paymentRepo;
+
+    public PaymentQueryService(PaymentRepositoryPort paymentRepo) {
+        this.paymentRepo = paymentRepo;
+    }
+
+    @Override
+    public PaymentView get(UUID paymentId) {
+        var p = paymentRepo.findById(paymentId)
+                .orElseThrow(() -> new PaymentNotFoundException("Payment not found: " + paymentId));
+        var message = switch (p.status()) {
+            case CREATED   -> "Payment accepted";
+            case COMPLETED -> "Payment completed";
+            case FAILED    -> p.failureReason();
+        };
+        return new PaymentView(p.id(), p.status(), message);
+    }
+}
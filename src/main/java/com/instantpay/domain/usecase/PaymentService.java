@@ -1,58 +1,154 @@
 package com.instantpay.domain.usecase;
 
 import com.instantpay.domain.error.AccountNotFoundException;
+import com.instantpay.domain.error.DebtorLimitExceededException;
+import com.instantpay.domain.error.DomainException;
 import com.instantpay.domain.error.InsufficientFundsException;
 import com.instantpay.domain.error.PaymentRejectedException;
+import com.instantpay.domain.model.Account;
 import com.instantpay.domain.model.Payment;
+import com.instantpay.domain.model.PaymentStatus;
 import com.instantpay.domain.model.Transaction;
 import com.instantpay.domain.port.in.SendPaymentUseCase;
 import com.instantpay.domain.port.out.*;
+import com.instantpay.domain.usecase.PaymentMetrics.Outcome;
+import com.instantpay.domain.usecase.PaymentMetrics.Stage;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionOperations;
 
+import java.math.BigDecimal;
 import java.time.Clock;
 import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 
 @Service
 public class PaymentService implements SendPaymentUseCase {
 
     private final PaymentRepositoryPort paymentRepo;
     private final AccountRepositoryPort accountRepo;
+    private final BalanceStripesPort stripes;
+    private final CreditJournalPort journal;
     private final TransactionRepositoryPort txRepo;
     private final PaymentEventPublisherPort publisherPort;
     private final Clock clock;
+    private final PaymentMetrics metrics;
+    private final TransferPolicy policy;
+    private final HotAccounts hotAccounts;
+    private final IdempotencyCache replays;
+    private final TransactionOperations tx;
+    private final SingleFlight inFlight;
+    private final AccountLocks accountLocks;
+    private final DebtorLimits limits;
+    private final AccountDirectory directory;
 
     public PaymentService(PaymentRepositoryPort paymentRepo,
                           AccountRepositoryPort accountRepo,
+                          BalanceStripesPort stripes,
+                          CreditJournalPort journal,
                           TransactionRepositoryPort txRepo,
                           PaymentEventPublisherPort publisherPort,
-                          Clock clock) {
+                          Clock clock,
+                          MeterRegistry meterRegistry,
+                          TransferPolicy policy,
+                          IdempotencyCache replays,
+                          AccountLocks accountLocks,
+                          DebtorLimits limits,
+                          AccountDirectory directory,
+                          TransactionOperations tx) {
         this.paymentRepo = paymentRepo;
         this.accountRepo = accountRepo;
+        this.stripes = stripes;
+        this.journal = journal;
         this.txRepo = txRepo;
         this.publisherPort = publisherPort;
         this.clock = clock;
+        this.policy = policy;
+        this.hotAccounts = new HotAccounts(policy.hotAccountTtl());
+        this.metrics = new PaymentMetrics(meterRegistry, hotAccounts);
+        this.replays = replays;
+        this.accountLocks = accountLocks;
+        this.limits = limits;
+        this.directory = directory;
+        this.tx = tx;
+        this.inFlight = new SingleFlight(metrics);
     }
 
+    // Not @Transactional: cached replays, unknown accounts and over-limit debtors are answered before
+    // a transaction (and a connection) is opened
     @Override
-    @Transactional
     public Result send(SendPaymentCommand cmd) {
-        // 0) Fast validation -> throw domain exceptions (handled by GlobalExceptionHandler)
-        if (cmd.debtorIban() == null || cmd.creditorIban() == null) {
-            throw new PaymentRejectedException("Both debtorIban and creditorIban are required.");
-        }
-        if (cmd.debtorIban().equals(cmd.creditorIban())) {
-            throw new PaymentRejectedException("Self transfer is not allowed.");
-        }
-        if (cmd.amount() == null || cmd.amount().signum() <= 0) {
-            throw new PaymentRejectedException("Amount must be greater than zero.");
+        return send(cmd, true);
+    }
+
+    /** {@link #send} for a payment whose debtor limits were already counted (group commit fallback). */
+    Result resend(SendPaymentCommand cmd) {
+        return send(cmd, false);
+    }
+
+    /**
+     * Rejects unknown accounts and counts the payment against its debtor's limits, for entry points
+     * that sit in front of {@link #send}.
+     */
+    void admit(SendPaymentCommand cmd) {
+        directory.check(cmd);
+        limits.check(cmd);
+    }
+
+    private Result send(SendPaymentCommand cmd, boolean countLimits) {
+        var started = System.nanoTime();
+        try {
+            // 0) Fast validation -> throw domain exceptions (handled by GlobalExceptionHandler)
+            validate(cmd);
+            var cached = replays.lookup(cmd.idempotencyKey());
+            if (cached.isPresent()) {
+                metrics.outcome(Outcome.IDEMPOTENT_REPLAY);
+                return cached.get();
+            }
+            directory.check(cmd);
+            if (countLimits) limits.check(cmd);
+            // Concurrent duplicates on this node wait for the first one instead of hitting the unique key;
+            // same-account requests queue on the in-process lock before they take a connection
+            return inFlight.run(cmd.idempotencyKey(), () -> {
+                try (var held = accountLocks.lock(lockable(cmd.debtorIban()), lockable(cmd.creditorIban()))) {
+                    return tx.execute(status -> {
+                        metrics.timeCommit();
+                        return settle(cmd, started);
+                    });
+                }
+            });
+        } catch (DomainException e) {
+            metrics.failed(e);
+            throw e;
+        } finally {
+            metrics.total(started);
         }
+    }
 
+    // Striped and journaled accounts take concurrent writers by design; queueing them on one stripe would undo that
+    private String lockable(String iban) {
+        return stripes.isStriped(iban) || journal.isJournaled(iban) ? null : iban;
+    }
+
+    private Result settle(SendPaymentCommand cmd, long started) {
         // 1) Idempotency – return the previously computed outcome (success or otherwise) without error
         var existing = paymentRepo.findByIdempotencyKey(cmd.idempotencyKey());
+        var t = metrics.stage(Stage.IDEMPOTENCY_LOOKUP, started);
         if (existing.isPresent()) {
             var p = existing.get();
-            return new Result(p.id(), p.status(), "Idempotent replay");
+            replays.rememberOnCommit(p);
+            metrics.outcome(Outcome.IDEMPOTENT_REPLAY);
+            return Result.replay(p.id(), p.status());
+        }
+        // Striped accounts are never locked as a whole, and journaled ones are credited without a lock
+        // and folded before a debit, so those transfers go leg by leg as well
+        if (policy.mode() != TransferMode.PESSIMISTIC
+                || stripes.isStriped(cmd.debtorIban()) || stripes.isStriped(cmd.creditorIban())
+                || journal.isJournaled(cmd.debtorIban()) || journal.isJournaled(cmd.creditorIban())) {
+            return settleWithoutReadLocks(cmd, t);
         }
 
         // 2) Lock accounts deterministically and validate their existence
@@ -63,10 +159,14 @@ public class PaymentService implements SendPaymentUseCase {
         var firstIban  = same ? debtorIban : (debtorIban.compareTo(creditorIban) < 0 ? debtorIban : creditorIban);
         var secondIban = same ? debtorIban : (firstIban.equals(debtorIban) ? creditorIban : debtorIban);
 
+        var lockStart = t;
         var first = accountRepo.findByIbanForUpdate(firstIban)
                 .orElseThrow(() -> new AccountNotFoundException("Account not found: " + firstIban));
+        t = metrics.lockWait(t);
         var second = same ? first : accountRepo.findByIbanForUpdate(secondIban)
                 .orElseThrow(() -> new AccountNotFoundException("Account not found: " + secondIban));
+        if (!same) metrics.lockWait(t);
+        t = metrics.stage(Stage.LOCK, lockStart);
 
         // Map back to from/to
         var from = debtorIban.equals(first.iban()) ? first : second;
@@ -84,29 +184,537 @@ public class PaymentService implements SendPaymentUseCase {
         } catch (Exception uniqueMaybe) {
             // In case another thread inserted concurrently, load and return as idempotent replay
             var again = paymentRepo.findByIdempotencyKey(cmd.idempotencyKey()).orElseThrow();
-            return new Result(again.id(), again.status(), "Idempotent replay");
+            metrics.outcome(Outcome.IDEMPOTENT_REPLAY);
+            return Result.replay(again.id(), again.status());
         }
+        t = metrics.stage(Stage.PAYMENT_SAVE, t);
 
         // Publish CREATED (after we validated the business preconditions)
         publisherPort.publishPaymentCreated(payment);
+        t = metrics.stage(Stage.PUBLISH, t);
 
         // 5) Apply transfer: persist new balances + ledger
         var newFrom = from.debit(cmd.amount());
         var newTo   = to.credit(cmd.amount());
         accountRepo.save(newFrom);
         if (!same) accountRepo.save(newTo);
+        t = metrics.stage(Stage.ACCOUNT_SAVE, t);
 
         var now = Instant.now(clock);
-        txRepo.append(Transaction.debit(payment.id(), newFrom.id(), cmd.amount(), newFrom.balance(), now));
-        txRepo.append(Transaction.credit(payment.id(), newTo.id(),   cmd.amount(), newTo.balance(),   now));
+        txRepo.appendAll(List.of(
+                Transaction.debit(payment.id(), newFrom.id(), cmd.amount(), newFrom.balance(), now),
+                Transaction.credit(payment.id(), newTo.id(),   cmd.amount(), newTo.balance(),   now)));
+        t = metrics.stage(Stage.LEDGER_APPEND, t);
 
         // 6) Complete payment
         payment = payment.completed(clock);
         paymentRepo.save(payment);
+        t = metrics.stage(Stage.PAYMENT_SAVE, t);
 
         // 7) Publish COMPLETED
         publisherPort.publishPaymentCompleted(payment);
+        metrics.stage(Stage.PUBLISH, t);
+
+        replays.rememberOnCommit(payment);
+        metrics.outcome(Outcome.COMPLETED);
+        return new Result(payment.id(), payment.status(), "Payment completed");
+    }
+
+    // Same steps as settle, but the accounts are not locked up front: each leg is either one
+    // conditional statement (CONDITIONAL), a versioned update with retries (OPTIMISTIC), a stripe
+    // update (striped accounts), a journal append (credits to journaled accounts) or lock-check-save
+    // of that one account (PESSIMISTIC, and debits of journaled accounts after folding their credits)
+    private Result settleWithoutReadLocks(SendPaymentCommand cmd, long t) {
+        // Payment row first: if a leg fails below, it rolls back together with it
+        var payment = Payment.newCreated(cmd, clock);
+        try {
+            paymentRepo.save(payment);
+        } catch (Exception uniqueMaybe) {
+            var again = paymentRepo.findByIdempotencyKey(cmd.idempotencyKey()).orElseThrow();
+            metrics.outcome(Outcome.IDEMPOTENT_REPLAY);
+            return Result.replay(again.id(), again.status());
+        }
+        t = metrics.stage(Stage.PAYMENT_SAVE, t);
+
+        // Statements run in sorted IBAN order, like the pessimistic locks, so crossing transfers cannot deadlock
+        Account newFrom, newTo;
+        if (cmd.debtorIban().compareTo(cmd.creditorIban()) < 0) {
+            newFrom = applyLeg(cmd, payment.id(), true);
+            newTo = applyLeg(cmd, payment.id(), false);
+        } else {
+            newTo = applyLeg(cmd, payment.id(), false);
+            newFrom = applyLeg(cmd, payment.id(), true);
+        }
+        t = metrics.stage(Stage.ACCOUNT_SAVE, t);
+
+        publisherPort.publishPaymentCreated(payment);
+        t = metrics.stage(Stage.PUBLISH, t);
+
+        // Every leg here holds its account row lock except striped ones and credits into a journal
+        var now = Instant.now(clock);
+        var ledger = new Ledger(2);
+        ledger.add(Transaction.debit(payment.id(), newFrom.id(), cmd.amount(), newFrom.balance(), now),
+                !stripes.isStriped(cmd.debtorIban()));
+        ledger.add(Transaction.credit(payment.id(), newTo.id(),   cmd.amount(), newTo.balance(),   now),
+                !stripes.isStriped(cmd.creditorIban()) && !journal.isJournaled(cmd.creditorIban()));
+        ledger.appendTo(txRepo);
+        t = metrics.stage(Stage.LEDGER_APPEND, t);
+
+        payment = payment.completed(clock);
+        paymentRepo.save(payment);
+        t = metrics.stage(Stage.PAYMENT_SAVE, t);
+
+        publisherPort.publishPaymentCompleted(payment);
+        metrics.stage(Stage.PUBLISH, t);
 
+        replays.rememberOnCommit(payment);
+        metrics.outcome(Outcome.COMPLETED);
         return new Result(payment.id(), payment.status(), "Payment completed");
     }
+
+    private Account applyLeg(SendPaymentCommand cmd, UUID paymentId, boolean debit) {
+        var iban = debit ? cmd.debtorIban() : cmd.creditorIban();
+        if (stripes.isStriped(iban)) {
+            return applyStriped(iban, cmd.amount(), debit);
+        }
+        if (journal.isJournaled(iban)) {
+            return debit ? debitJournaled(iban, cmd.amount()) : journal.append(iban, paymentId, cmd.amount())
+                    .orElseThrow(() -> new AccountNotFoundException("Account not found: " + iban));
+        }
+        return switch (policy.mode()) {
+            case CONDITIONAL -> debit ? debitIfCovered(cmd) : credit(cmd);
+            case OPTIMISTIC -> applyOptimistically(iban, cmd.amount(), debit);
+            case PESSIMISTIC -> applyLocked(iban, cmd.amount(), debit);
+        };
+    }
+
+    private Account applyStriped(String iban, BigDecimal amount, boolean debit) {
+        if (!debit) {
+            return stripes.credit(iban, amount)
+                    .orElseThrow(() -> new AccountNotFoundException("Account not found: " + iban));
+        }
+        var result = stripes.debit(iban, amount)
+                .orElseThrow(() -> new AccountNotFoundException("Account not found: " + iban));
+        if (!result.applied()) {
+            throw new InsufficientFundsException("Insufficient balance on source account.");
+        }
+        return result.account();
+    }
+
+    // Pending credits count towards the balance check: they are folded into the row first, under its lock
+    private Account debitJournaled(String iban, BigDecimal amount) {
+        var folded = foldJournal(iban)
+                .orElseThrow(() -> new AccountNotFoundException("Account not found: " + iban));
+        var next = apply(folded, amount, true);
+        accountRepo.save(next);
+        return next;
+    }
+
+    // The folded credits' legs are numbered too, so they come before the debit in the account's sequence
+    private Optional<Account> foldJournal(String iban) {
+        var folded = journal.foldForUpdate(iban);
+        if (folded.isPresent()) {
+            txRepo.sequencePending(iban);
+        }
+        return folded;
+    }
+
+    private Account applyLocked(String iban, BigDecimal amount, boolean debit) {
+        var locked = accountRepo.findByIbanForUpdate(iban)
+                .orElseThrow(() -> new AccountNotFoundException("Account not found: " + iban));
+        var next = apply(locked, amount, debit);
+        accountRepo.save(next);
+        return next;
+    }
+
+    // Retries stay inside the transaction: a leg that already succeeded keeps its row lock, only
+    // the conflicting account is re-read (read committed sees the winner's commit) and re-applied
+    private Account applyOptimistically(String iban, BigDecimal amount, boolean debit) {
+        if (!hotAccounts.isHot(iban)) {
+            for (int attempt = 0; attempt <= policy.maxRetries(); attempt++) {
+                if (attempt > 0) {
+                    metrics.optimisticRetry();
+                    backoff(attempt);
+                }
+                var current = accountRepo.findByIban(iban)
+                        .orElseThrow(() -> new AccountNotFoundException("Account not found: " + iban));
+                var next = apply(current, amount, debit);
+                if (accountRepo.saveIfUnchanged(next)) return next;
+            }
+            hotAccounts.mark(iban);
+            metrics.optimisticFallback();
+        }
+        var locked = accountRepo.findByIbanForUpdate(iban)
+                .orElseThrow(() -> new AccountNotFoundException("Account not found: " + iban));
+        var next = apply(locked, amount, debit);
+        if (!accountRepo.saveIfUnchanged(next)) {
+            throw new IllegalStateException("Locked account changed concurrently: " + iban);
+        }
+        return next;
+    }
+
+    private static Account apply(Account account, BigDecimal amount, boolean debit) {
+        if (!debit) return account.credit(amount);
+        if (account.balance().compareTo(amount) < 0) {
+            throw new InsufficientFundsException("Insufficient balance on source account.");
+        }
+        return account.debit(amount);
+    }
+
+    private void backoff(int attempt) {
+        var max = policy.backoff().toNanos() << Math.min(attempt - 1, 10);
+        try {
+            TimeUnit.NANOSECONDS.sleep(ThreadLocalRandom.current().nextLong(max / 2, max + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while backing off", e);
+        }
+    }
+
+    private Account debitIfCovered(SendPaymentCommand cmd) {
+        var debit = accountRepo.debitIfCovered(cmd.debtorIban(), cmd.amount())
+                .orElseThrow(() -> new AccountNotFoundException("Account not found: " + cmd.debtorIban()));
+        if (!debit.applied()) {
+            throw new InsufficientFundsException("Insufficient balance on source account.");
+        }
+        return debit.account();
+    }
+
+    private Account credit(SendPaymentCommand cmd) {
+        return accountRepo.credit(cmd.creditorIban(), cmd.amount())
+                .orElseThrow(() -> new AccountNotFoundException("Account not found: " + cmd.creditorIban()));
+    }
+
+    // Not @Transactional: debtor limits are counted before a transaction (and a connection) is opened,
+    // as in send; items over their limit never reach it
+    @Override
+    public List<ItemResult> sendBatch(List<SendPaymentCommand> cmds) {
+        var overLimit = new HashMap<Integer, DebtorLimitExceededException>();
+        var admitted = new ArrayList<SendPaymentCommand>(cmds.size());
+        var firstByKey = new HashMap<String, Integer>();
+        for (int i = 0; i < cmds.size(); i++) {
+            var cmd = cmds.get(i);
+            var first = firstByKey.putIfAbsent(cmd.idempotencyKey(), i);
+            if (first != null) {
+                // A duplicate inside the batch shares the outcome of its first occurrence and is not counted again
+                if (overLimit.containsKey(first)) overLimit.put(i, overLimit.get(first));
+                else admitted.add(cmd);
+                continue;
+            }
+            try {
+                validate(cmd);
+                directory.check(cmd);
+                limits.check(cmd);
+            } catch (DebtorLimitExceededException e) {
+                overLimit.put(i, e);
+                continue;
+            } catch (AccountNotFoundException | PaymentRejectedException e) {
+                // Not counted; settleAll reports it for this item
+            }
+            admitted.add(cmd);
+        }
+
+        var settled = admitted.isEmpty() ? List.<Settled>of() : tx.execute(status -> settleAll(admitted));
+        var next = settled.iterator();
+        var results = new ArrayList<ItemResult>(cmds.size());
+        for (int i = 0; i < cmds.size(); i++) {
+            var rejected = overLimit.get(i);
+            var item = rejected != null ? failed(rejected) : next.next();
+            results.add(item.toItem(cmds.get(i).idempotencyKey()));
+        }
+        return results;
+    }
+
+    /** Replay answered from the {@link IdempotencyCache}, for entry points that sit in front of {@link #send}. */
+    Optional<Result> cachedReplay(SendPaymentCommand cmd) {
+        return replays.lookup(cmd.idempotencyKey());
+    }
+
+    /**
+     * Core of {@link #sendBatch}, also used by {@link GroupCommitter}: one transaction, per-item
+     * outcome aligned with the input, failures kept as the domain exception {@link #send} would throw.
+     * Always locks the involved accounts up front (the PESSIMISTIC way), whatever the transfer mode:
+     * one lock per account is what the batch shares. Stage and outcome meters count every payment.
+     */
+    @Transactional
+    public List<Settled> settleAll(List<SendPaymentCommand> cmds) {
+        // Debtor limits are not counted here: sendBatch and GroupCommitter did so before the transaction
+        var started = System.nanoTime();
+        try {
+            return settleGroup(cmds, started);
+        } finally {
+            metrics.total(started, cmds.size());
+        }
+    }
+
+    // Stages shared by the whole batch are recorded once per payment in it: each one waited that long
+    private List<Settled> settleGroup(List<SendPaymentCommand> cmds, long started) {
+        var results = new Settled[cmds.size()];
+
+        // 0) Idempotency – one lookup for the whole batch
+        var keys = new HashSet<String>();
+        for (var cmd : cmds) {
+            if (cmd.idempotencyKey() != null) keys.add(cmd.idempotencyKey());
+        }
+        var existing = new HashMap<String, Payment>();
+        for (var p : paymentRepo.findAllByIdempotencyKeys(keys)) {
+            existing.put(p.idempotencyKey(), p);
+        }
+        var t = metrics.stage(Stage.IDEMPOTENCY_LOOKUP, started, cmds.size());
+
+        // 1) Fast validation per item; duplicates inside the batch replay their first occurrence
+        var pending = new ArrayList<Integer>();
+        var firstByKey = new HashMap<String, Integer>();
+        var duplicates = new HashMap<Integer, Integer>();
+        var ibans = new TreeSet<String>();
+        for (int i = 0; i < cmds.size(); i++) {
+            var cmd = cmds.get(i);
+            try {
+                validate(cmd);
+            } catch (PaymentRejectedException e) {
+                results[i] = failed(e);
+                continue;
+            }
+            var prior = existing.get(cmd.idempotencyKey());
+            if (prior != null) {
+                replays.rememberOnCommit(prior);
+                metrics.outcome(Outcome.IDEMPOTENT_REPLAY);
+                results[i] = Settled.of(Result.replay(prior.id(), prior.status()));
+                continue;
+            }
+            var first = firstByKey.putIfAbsent(cmd.idempotencyKey(), i);
+            if (first != null) {
+                duplicates.put(i, first);
+                continue;
+            }
+            try {
+                directory.check(cmd); // unknown accounts are not even looked up
+            } catch (AccountNotFoundException | PaymentRejectedException e) {
+                results[i] = failed(e);
+                continue;
+            }
+            pending.add(i);
+            ibans.add(cmd.debtorIban());
+            ibans.add(cmd.creditorIban());
+        }
+
+        // 2) Lock every involved account once, in sorted IBAN order (same global order as send)
+        var lockStart = t;
+        var accounts = lockAll(ibans);
+        t = metrics.stage(Stage.LOCK, lockStart, pending.size());
+
+        // 3) Apply transfers in request order against the locked, in-memory balances
+        var touched = new LinkedHashSet<String>();
+        var ledger = new Ledger(pending.size() * 2);
+        int completed = 0;
+        for (int i : pending) {
+            var payment = Payment.newCreated(cmds.get(i), clock);
+            var failure = transfer(payment, accounts, touched, ledger);
+            if (failure != null) {
+                results[i] = failed(failure);
+                continue;
+            }
+            t = System.nanoTime();
+            publisherPort.publishPaymentCreated(payment);
+            t = metrics.stage(Stage.PUBLISH, t);
+
+            payment = payment.completed(clock);
+            paymentRepo.save(payment);
+            t = metrics.stage(Stage.PAYMENT_SAVE, t);
+            publisherPort.publishPaymentCompleted(payment);
+            metrics.stage(Stage.PUBLISH, t);
+            replays.rememberOnCommit(payment);
+
+            metrics.outcome(Outcome.COMPLETED);
+            results[i] = Settled.of(new Result(payment.id(), payment.status(), "Payment completed"));
+            completed++;
+        }
+
+        // 4) Persist final balances once per account and the ledger in bulk
+        persist(accounts, touched, ledger, completed);
+        metrics.timeCommit(completed);
+
+        duplicates.forEach((i, first) -> {
+            var r = results[first];
+            metrics.outcome(Outcome.IDEMPOTENT_REPLAY);
+            results[i] = r.error() != null ? r : Settled.of(Result.replay(r.result().paymentId(), r.result().status()));
+        });
+        return Arrays.asList(results);
+    }
+
+    private Settled failed(DomainException e) {
+        metrics.failed(e);
+        return Settled.failed(e);
+    }
+
+    /**
+     * Settles payments that were accepted earlier (status CREATED, see {@link AsyncPaymentAcceptor}) in one
+     * transaction: each one ends COMPLETED or FAILED, with the matching event. Others are skipped.
+     */
+    @Transactional
+    public void settleAccepted(List<Payment> payments) {
+        var open = payments.stream().filter(p -> p.status() == PaymentStatus.CREATED).toList();
+        var ibans = new TreeSet<String>();
+        for (var p : open) {
+            ibans.add(p.debtorIban());
+            ibans.add(p.creditorIban());
+        }
+        var accounts = lockAll(ibans);
+
+        var touched = new LinkedHashSet<String>();
+        var ledger = new Ledger(open.size() * 2);
+        // The accepting node may still have these as CREATED in its idempotency cache
+        replays.invalidateOnOtherNodes(open.stream().map(Payment::idempotencyKey).toList());
+        for (var payment : open) {
+            var failure = transfer(payment, accounts, touched, ledger);
+            if (failure != null) {
+                var failed = payment.failed(failure.getMessage(), clock);
+                paymentRepo.save(failed);
+                publisherPort.publishPaymentFailed(failed, failure.getMessage());
+                replays.rememberOnCommit(failed);
+                continue;
+            }
+            var completed = payment.completed(clock);
+            paymentRepo.save(completed);
+            publisherPort.publishPaymentCompleted(completed);
+            replays.rememberOnCommit(completed);
+        }
+        persist(accounts, touched, ledger, 0);
+    }
+
+    /**
+     * Gives up on accepted payments that could not be settled for a reason outside the business rules
+     * (see {@link SettlementWorkers}): each one still CREATED ends FAILED, with the matching event.
+     */
+    @Transactional
+    public void failAccepted(List<Payment> payments, String reason) {
+        var open = payments.stream().filter(p -> p.status() == PaymentStatus.CREATED).toList();
+        replays.invalidateOnOtherNodes(open.stream().map(Payment::idempotencyKey).toList());
+        for (var payment : open) {
+            var failed = payment.failed(reason, clock);
+            paymentRepo.save(failed);
+            publisherPort.publishPaymentFailed(failed, reason);
+            replays.rememberOnCommit(failed);
+        }
+    }
+
+    // Striped accounts are left out: their legs go straight to a stripe in transfer(). Journaled ones
+    // are locked with their pending credits folded in, and then treated like any other account
+    private Map<String, Account> lockAll(SortedSet<String> ibans) {
+        var accounts = new HashMap<String, Account>();
+        for (var iban : ibans) {
+            if (stripes.isStriped(iban)) continue;
+            var locked = journal.isJournaled(iban) ? foldJournal(iban) : accountRepo.findByIbanForUpdate(iban);
+            locked.ifPresent(a -> accounts.put(iban, a));
+        }
+        return accounts;
+    }
+
+    // Moves the amount between the locked in-memory balances and queues both ledger legs; returns the failure, if any
+    private DomainException transfer(Payment payment, Map<String, Account> accounts,
+                                     Set<String> touched, Ledger ledger) {
+        var fromStriped = stripes.isStriped(payment.debtorIban());
+        var toStriped = stripes.isStriped(payment.creditorIban());
+        var from = accounts.get(payment.debtorIban());
+        var to = accounts.get(payment.creditorIban());
+        if ((from == null && !fromStriped) || (to == null && !toStriped)) {
+            var missing = from == null && !fromStriped ? payment.debtorIban() : payment.creditorIban();
+            return new AccountNotFoundException("Account not found: " + missing);
+        }
+        if (!fromStriped && from.balance().compareTo(payment.amount()) < 0) {
+            return new InsufficientFundsException("Insufficient balance on source account.");
+        }
+
+        // Stripe legs are written immediately; the debit goes first so a failed one leaves nothing to undo
+        Account newFrom, newTo;
+        if (fromStriped) {
+            try {
+                newFrom = applyStriped(payment.debtorIban(), payment.amount(), true);
+            } catch (DomainException e) {
+                return e;
+            }
+        } else {
+            newFrom = from.debit(payment.amount());
+            accounts.put(newFrom.iban(), newFrom);
+            touched.add(newFrom.iban());
+        }
+        if (toStriped) {
+            var credited = stripes.credit(payment.creditorIban(), payment.amount());
+            if (credited.isEmpty()) {
+                if (fromStriped) stripes.credit(payment.debtorIban(), payment.amount()); // give the debit back
+                else accounts.put(from.iban(), from);
+                return new AccountNotFoundException("Account not found: " + payment.creditorIban());
+            }
+            newTo = credited.get();
+        } else {
+            newTo = to.credit(payment.amount());
+            accounts.put(newTo.iban(), newTo);
+            touched.add(newTo.iban());
+        }
+
+        var now = Instant.now(clock);
+        ledger.add(Transaction.debit(payment.id(), newFrom.id(), payment.amount(), newFrom.balance(), now), !fromStriped);
+        ledger.add(Transaction.credit(payment.id(), newTo.id(),   payment.amount(), newTo.balance(),   now), !toStriped);
+        return null;
+    }
+
+    // Records the account and ledger writes as stages of each of the {@code payments} they carry
+    private void persist(Map<String, Account> accounts, Set<String> touched, Ledger ledger, int payments) {
+        var t = System.nanoTime();
+        for (var iban : touched) {
+            accountRepo.save(accounts.get(iban));
+        }
+        t = metrics.stage(Stage.ACCOUNT_SAVE, t, payments);
+        ledger.appendTo(txRepo);
+        metrics.stage(Stage.LEDGER_APPEND, t, payments);
+    }
+
+    // Legs of accounts whose row this transaction holds are numbered as they are written; the others
+    // (striped accounts, credits into a journal) are numbered later, by whoever next locks that row
+    private static final class Ledger {
+        private final List<Transaction> sequenced;
+        private final List<Transaction> unsequenced = new ArrayList<>();
+
+        Ledger(int expectedLegs) {
+            this.sequenced = new ArrayList<>(expectedLegs);
+        }
+
+        void add(Transaction leg, boolean rowLocked) {
+            (rowLocked ? sequenced : unsequenced).add(leg);
+        }
+
+        void appendTo(TransactionRepositoryPort txRepo) {
+            if (!sequenced.isEmpty()) txRepo.appendAll(sequenced);
+            if (!unsequenced.isEmpty()) txRepo.appendUnsequenced(unsequenced);
+        }
+    }
+
+    static void validate(SendPaymentCommand cmd) {
+        if (cmd.debtorIban() == null || cmd.creditorIban() == null) {
+            throw new PaymentRejectedException("Both debtorIban and creditorIban are required.");
+        }
+        if (cmd.debtorIban().equals(cmd.creditorIban())) {
+            throw new PaymentRejectedException("Self transfer is not allowed.");
+        }
+        if (cmd.amount() == null || cmd.amount().signum() <= 0) {
+            throw new PaymentRejectedException("Amount must be greater than zero.");
+        }
+    }
+
+    /** Outcome of one item of {@link #settleAll}: a result, or the exception {@link #send} would have thrown. */
+    public record Settled(Result result, DomainException error) {
+        static Settled of(Result result) {
+            return new Settled(result, null);
+        }
+
+        static Settled failed(DomainException error) {
+            return new Settled(null, error);
+        }
+
+        ItemResult toItem(String idempotencyKey) {
+            return error != null
+                    ? new ItemResult(idempotencyKey, null, PaymentStatus.FAILED, error.getMessage())
+                    : new ItemResult(idempotencyKey, result.paymentId(), result.status(), result.message());
+        }
+    }
 }
@@ -0,0 +1,147 @@
+package com.instantpay.domain.usecase;
+
+import com.instantpay.domain.error.DomainException;
+import com.instantpay.domain.port.out.PaymentRepositoryPort;
+import com.instantpay.domain.port.out.SettlementQueuePort;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Drains the settlement queue of the async accept mode. Each round claims up to {@code batchSize}
+ * payments and settles them in the same transaction, so a crash or rollback puts the claims back.
+ * If that transaction fails, the payments are settled again one per transaction. One that is then
+ * rejected for a business reason is marked FAILED; one that fails for any other reason (deadlock,
+ * serialization failure, lost connection, ...) stays queued and is retried with a growing backoff,
+ * so it cannot block the queue behind it and the client's 202 does not turn into a spurious FAILED.
+ * Workers on every replica can run side by side: the JDBC queue claims with SKIP LOCKED.
+ */
+public class SettlementWorkers implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(SettlementWorkers.class);
+    private static final Duration RETRY_BASE = Duration.ofSeconds(1);
+    private static final int RETRY_MAX_DOUBLINGS = 8; // at most ~4 minutes between attempts
+
+    private final SettlementQueuePort queue;
+    private final PaymentRepositoryPort paymentRepo;
+    private final PaymentService paymentService;
+    private final TransactionOperations tx;
+    private final int batchSize;
+    private final long idleMillis;
+    private final List<Thread> threads = new ArrayList<>();
+    private volatile boolean running = true;
+
+    public SettlementWorkers(SettlementQueuePort queue,
+                             PaymentRepositoryPort paymentRepo,
+                             PaymentService paymentService,
+                             TransactionOperations tx,
+                             int workers,
+                             int batchSize,
+                             Duration idle) {
+        this.queue = queue;
+        this.paymentRepo = paymentRepo;
+        this.paymentService = paymentService;
+        this.tx = tx;
+        this.batchSize = Math.max(1, batchSize);
+        this.idleMillis = idle.toMillis();
+        for (int i = 0; i < Math.max(1, workers); i++) {
+            threads.add(Thread.ofPlatform().name("settle-worker-" + i).daemon().start(this::run));
+        }
+    }
+
+    private void run() {
+        while (running) {
+            int settled;
+            try {
+                settled = settleOnce();
+            } catch (RuntimeException e) {
+                log.error("Settlement round failed; claims were rolled back", e);
+                settled = 0;
+            }
+            if (settled == 0) {
+                try {
+                    Thread.sleep(idleMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /** One claim-and-settle round; returns how many payments it claimed. */
+    int settleOnce() {
+        var claimed = new ArrayList<UUID>();
+        try {
+            tx.executeWithoutResult(status -> {
+                claimed.addAll(queue.claim(batchSize));
+                if (!claimed.isEmpty()) {
+                    paymentService.settleAccepted(paymentRepo.findAllByIds(claimed));
+                }
+            });
+        } catch (RuntimeException e) {
+            if (claimed.isEmpty()) throw e;
+            log.warn("Settlement of {} payments failed; settling them one by one", claimed.size(), e);
+            claimed.forEach(this::settleAlone);
+        }
+        return claimed.size();
+    }
+
+    // Claimed again by id: another worker may have taken it meanwhile, then it is theirs
+    private void settleAlone(UUID paymentId) {
+        try {
+            tx.executeWithoutResult(status -> {
+                if (queue.claim(paymentId)) {
+                    paymentService.settleAccepted(paymentRepo.findAllByIds(List.of(paymentId)));
+                }
+            });
+        } catch (DomainException e) {
+            log.warn("Payment {} rejected: {}", paymentId, e.getMessage());
+            failAlone(paymentId, e.getMessage());
+        } catch (RuntimeException e) {
+            retryLater(paymentId, e);
+        }
+    }
+
+    private void failAlone(UUID paymentId, String reason) {
+        try {
+            tx.executeWithoutResult(status -> {
+                if (queue.claim(paymentId)) {
+                    paymentService.failAccepted(paymentRepo.findAllByIds(List.of(paymentId)), reason);
+                }
+            });
+        } catch (RuntimeException e) {
+            retryLater(paymentId, e);
+        }
+    }
+
+    private void retryLater(UUID paymentId, RuntimeException cause) {
+        try {
+            var attempt = tx.execute(status -> queue.retryLater(paymentId, SettlementWorkers::backoff));
+            log.warn("Settlement of payment {} failed (attempt {}); it stays queued and is retried", paymentId, attempt, cause);
+        } catch (RuntimeException e) {
+            log.error("Could not defer payment {}; it stays queued", paymentId, cause);
+        }
+    }
+
+    static Duration backoff(int attempt) {
+        return RETRY_BASE.multipliedBy(1L << Math.min(Math.max(attempt, 1) - 1, RETRY_MAX_DOUBLINGS));
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        for (var t : threads) {
+            try {
+                t.join(5_000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
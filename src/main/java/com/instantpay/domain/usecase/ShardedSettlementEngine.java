@@ -0,0 +1,417 @@
+package com.instantpay.domain.usecase;
+
+import com.instantpay.domain.error.AccountNotFoundException;
+import com.instantpay.domain.error.DomainException;
+import com.instantpay.domain.error.InsufficientFundsException;
+import com.instantpay.domain.model.Account;
+import com.instantpay.domain.model.Payment;
+import com.instantpay.domain.model.PaymentStatus;
+import com.instantpay.domain.model.Transaction;
+import com.instantpay.domain.port.in.SendPaymentUseCase;
+import com.instantpay.domain.port.out.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Single-writer alternative to {@link PaymentService}: IBANs are hashed to N shards, each shard
+ * owns the in-memory balances of its accounts and applies transfers on one thread fed by a
+ * lock-free queue. Settled transfers are written asynchronously, in batches, through the regular
+ * repository ports; a caller is answered once the batch holding its payment has committed.
+ * <p>
+ * Cross-shard transfers run in two steps: the debtor shard checks funds and debits (a hold), then
+ * hands over to the creditor shard, which credits. If the creditor cannot be credited, the hold is
+ * refunded on the debtor shard and the payment is rejected.
+ * <p>
+ * The engine must be the only writer of the accounts it serves (one replica, or IBAN ranges routed
+ * to replicas upstream). The persister re-applies every batch against the locked database rows, so
+ * a failed batch never leaks stale in-memory balances into the ledger.
+ */
+public class ShardedSettlementEngine implements SendPaymentUseCase, AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(ShardedSettlementEngine.class);
+
+    private final PaymentRepositoryPort paymentRepo;
+    private final AccountRepositoryPort accountRepo;
+    private final TransactionRepositoryPort txRepo;
+    private final PaymentEventPublisherPort publisherPort;
+    private final TransactionOperations tx;
+    private final Clock clock;
+    private final Duration timeout;
+
+    private final Shard[] shards;
+    private final Persister persister;
+    private final ConcurrentHashMap<String, Pending> inFlight = new ConcurrentHashMap<>();
+
+    public ShardedSettlementEngine(PaymentRepositoryPort paymentRepo,
+                                   AccountRepositoryPort accountRepo,
+                                   TransactionRepositoryPort txRepo,
+                                   PaymentEventPublisherPort publisherPort,
+                                   TransactionOperations tx,
+                                   Clock clock,
+                                   int shardCount,
+                                   int persistBatchSize,
+                                   Duration timeout) {
+        if (shardCount < 1) throw new IllegalArgumentException("shardCount must be >= 1");
+        this.paymentRepo = paymentRepo;
+        this.accountRepo = accountRepo;
+        this.txRepo = txRepo;
+        this.publisherPort = publisherPort;
+        this.tx = tx;
+        this.clock = clock;
+        this.timeout = timeout;
+        this.shards = new Shard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new Shard(i);
+        }
+        this.persister = new Persister(persistBatchSize);
+    }
+
+    @Override
+    public Result send(SendPaymentCommand cmd) {
+        return await(start(cmd));
+    }
+
+    @Override
+    public List<ItemResult> sendBatch(List<SendPaymentCommand> cmds) {
+        // Submit everything first so the whole batch shares persister round trips
+        var futures = new ArrayList<Pending>(cmds.size());
+        for (var cmd : cmds) {
+            try {
+                futures.add(start(cmd));
+            } catch (DomainException e) {
+                futures.add(new Pending(null, CompletableFuture.failedFuture(e)));
+            }
+        }
+        var results = new ArrayList<ItemResult>(cmds.size());
+        for (int i = 0; i < cmds.size(); i++) {
+            var key = cmds.get(i).idempotencyKey();
+            try {
+                var r = await(futures.get(i));
+                results.add(new ItemResult(key, r.paymentId(), r.status(), r.message()));
+            } catch (DomainException e) {
+                results.add(new ItemResult(key, null, PaymentStatus.FAILED, e.getMessage()));
+            }
+        }
+        return results;
+    }
+
+    private Pending start(SendPaymentCommand cmd) {
+        PaymentService.validate(cmd);
+
+        var existing = paymentRepo.findByIdempotencyKey(cmd.idempotencyKey());
+        if (existing.isPresent()) {
+            var p = existing.get();
+            return new Pending(p.id(), CompletableFuture.completedFuture(Result.replay(p.id(), p.status())));
+        }
+
+        // Concurrent duplicates on this node attach to the running settlement
+        var payment = Payment.newCreated(cmd, clock);
+        var fresh = new Pending(payment.id(), new CompletableFuture<>());
+        var running = inFlight.putIfAbsent(cmd.idempotencyKey(), fresh);
+        if (running != null) {
+            return new Pending(running.paymentId(),
+                    running.done().thenApply(r -> Result.replay(r.paymentId(), r.status())));
+        }
+        fresh.done().whenComplete((r, e) -> inFlight.remove(cmd.idempotencyKey(), fresh));
+
+        submit(payment, fresh.done());
+        return fresh;
+    }
+
+    private void submit(Payment payment, CompletableFuture<Result> done) {
+        var amount = payment.amount();
+        var debtorShard = shardFor(payment.debtorIban());
+        var creditorShard = shardFor(payment.creditorIban());
+
+        debtorShard.execute(() -> {
+            try {
+                var from = debtorShard.account(payment.debtorIban());
+                if (from == null) {
+                    done.completeExceptionally(new AccountNotFoundException("Account not found: " + payment.debtorIban()));
+                    return;
+                }
+                if (from.balance().compareTo(amount) < 0) {
+                    done.completeExceptionally(new InsufficientFundsException("Insufficient balance on source account."));
+                    return;
+                }
+                if (debtorShard == creditorShard) {
+                    var to = debtorShard.account(payment.creditorIban());
+                    if (to == null) {
+                        done.completeExceptionally(new AccountNotFoundException("Account not found: " + payment.creditorIban()));
+                        return;
+                    }
+                    debtorShard.put(from.debit(amount));
+                    debtorShard.put(to.credit(amount));
+                    persister.offer(new Settlement(payment, done));
+                    return;
+                }
+
+                // Step 1: hold the funds on the debtor shard
+                debtorShard.put(from.debit(amount));
+            } catch (RuntimeException e) {
+                done.completeExceptionally(e);
+                return;
+            }
+
+            // Step 2: credit on the creditor shard, or give the hold back
+            creditorShard.execute(() -> {
+                try {
+                    var to = creditorShard.account(payment.creditorIban());
+                    if (to == null) {
+                        debtorShard.execute(() -> debtorShard.refund(payment.debtorIban(), amount));
+                        done.completeExceptionally(new AccountNotFoundException("Account not found: " + payment.creditorIban()));
+                        return;
+                    }
+                    creditorShard.put(to.credit(amount));
+                    persister.offer(new Settlement(payment, done));
+                } catch (RuntimeException e) {
+                    debtorShard.execute(() -> debtorShard.refund(payment.debtorIban(), amount));
+                    done.completeExceptionally(e);
+                }
+            });
+        });
+    }
+
+    private Result await(Pending pending) {
+        try {
+            return pending.done().get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            throw new IllegalStateException("Settlement failed", e.getCause());
+        } catch (TimeoutException e) {
+            // The settlement may still commit, so this is not a failure: the outcome is not known yet
+            return new Result(pending.paymentId(), PaymentStatus.CREATED,
+                    "Settlement still in progress; retry with the same idempotency key for the outcome");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for settlement", e);
+        }
+    }
+
+    int shardIndex(String iban) {
+        return Math.floorMod(iban.hashCode(), shards.length);
+    }
+
+    private Shard shardFor(String iban) {
+        return shards[shardIndex(iban)];
+    }
+
+    private void evict(String iban) {
+        var shard = shardFor(iban);
+        shard.execute(() -> shard.evict(iban));
+    }
+
+    @Override
+    public void close() {
+        for (var shard : shards) shard.stop();
+        var drained = persister.stop();
+        // Whatever is still waiting either never reached the persister (nothing was written), or the
+        // persister did not finish in time and its outcome is unknown
+        for (var pending : inFlight.values()) {
+            if (drained) {
+                pending.done().completeExceptionally(new IllegalStateException("Settlement engine stopped; the payment was not settled"));
+            } else {
+                pending.done().complete(new Result(pending.paymentId(), PaymentStatus.CREATED,
+                        "Settlement engine stopped; retry with the same idempotency key for the outcome"));
+            }
+        }
+    }
+
+    private record Pending(UUID paymentId, CompletableFuture<Result> done) {}
+
+    private record Settlement(Payment payment, CompletableFuture<Result> done) {}
+
+    /** One thread, one lock-free inbox, exclusive ownership of its accounts. */
+    private final class Shard implements Runnable {
+        private final ConcurrentLinkedQueue<Runnable> inbox = new ConcurrentLinkedQueue<>();
+        private final Map<String, Account> accounts = new HashMap<>(); // confined to the shard thread
+        private final Thread thread;
+        private volatile boolean running = true;
+
+        Shard(int index) {
+            this.thread = Thread.ofPlatform().name("settle-shard-" + index).daemon().start(this);
+        }
+
+        void execute(Runnable task) {
+            inbox.offer(task);
+            LockSupport.unpark(thread);
+        }
+
+        @Override
+        public void run() {
+            while (running) {
+                var task = inbox.poll();
+                if (task == null) {
+                    LockSupport.park(this);
+                    continue;
+                }
+                try {
+                    task.run();
+                } catch (RuntimeException e) {
+                    log.error("Shard task failed", e);
+                }
+            }
+        }
+
+        Account account(String iban) {
+            var a = accounts.get(iban);
+            if (a == null) {
+                // First touch: the durable balance becomes authoritative in memory
+                a = accountRepo.findByIban(iban).orElse(null);
+                if (a != null) accounts.put(iban, a);
+            }
+            return a;
+        }
+
+        void put(Account account) {
+            accounts.put(account.iban(), account);
+        }
+
+        void refund(String iban, BigDecimal amount) {
+            // Absent after an eviction: the reloaded durable balance never saw the hold
+            accounts.computeIfPresent(iban, (k, a) -> a.credit(amount));
+        }
+
+        void evict(String iban) {
+            accounts.remove(iban);
+        }
+
+        void stop() {
+            running = false;
+            LockSupport.unpark(thread);
+        }
+    }
+
+    /** Drains settled transfers and writes them in one transaction per batch. */
+    private final class Persister implements Runnable {
+        private final LinkedBlockingQueue<Settlement> queue = new LinkedBlockingQueue<>();
+        private final int batchSize;
+        private final Thread thread;
+        private volatile boolean running = true;
+
+        Persister(int batchSize) {
+            this.batchSize = Math.max(1, batchSize);
+            this.thread = Thread.ofPlatform().name("settle-persist").daemon().start(this);
+        }
+
+        void offer(Settlement s) {
+            queue.offer(s);
+        }
+
+        @Override
+        public void run() {
+            var batch = new ArrayList<Settlement>(batchSize);
+            while (running || !queue.isEmpty()) {
+                try {
+                    var first = queue.poll(100, TimeUnit.MILLISECONDS);
+                    if (first == null) continue;
+                    batch.add(first);
+                    queue.drainTo(batch, batchSize - 1);
+                    persist(batch);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                } finally {
+                    batch.clear();
+                }
+            }
+        }
+
+        private void persist(List<Settlement> batch) {
+            var committed = new ArrayList<Settlement>(batch.size());
+            var rejected = new ArrayList<Settlement>();
+            try {
+                tx.executeWithoutResult(status -> write(batch, committed, rejected));
+            } catch (RuntimeException e) {
+                log.error("Settlement batch of {} failed; evicting touched accounts", batch.size(), e);
+                for (var s : batch) {
+                    evict(s.payment().debtorIban());
+                    evict(s.payment().creditorIban());
+                    s.done().completeExceptionally(e);
+                }
+                return;
+            }
+            for (var s : committed) {
+                s.done().complete(new Result(s.payment().id(), PaymentStatus.COMPLETED, "Payment completed"));
+            }
+            for (var s : rejected) {
+                evict(s.payment().debtorIban());
+                evict(s.payment().creditorIban());
+                s.done().completeExceptionally(new InsufficientFundsException("Insufficient balance on source account."));
+            }
+        }
+
+        // Re-applies the batch on the locked rows; in-memory balances only decided admission
+        private void write(List<Settlement> batch, List<Settlement> committed, List<Settlement> rejected) {
+            committed.clear();
+            rejected.clear();
+
+            var ibans = new TreeSet<String>();
+            for (var s : batch) {
+                ibans.add(s.payment().debtorIban());
+                ibans.add(s.payment().creditorIban());
+            }
+            var accounts = new HashMap<String, Account>();
+            for (var iban : ibans) {
+                accountRepo.findByIbanForUpdate(iban).ifPresent(a -> accounts.put(iban, a));
+            }
+
+            var touched = new LinkedHashSet<String>();
+            var ledger = new ArrayList<Transaction>(batch.size() * 2);
+            for (var s : batch) {
+                var p = s.payment();
+                var from = accounts.get(p.debtorIban());
+                var to = accounts.get(p.creditorIban());
+                if (from == null || to == null || from.balance().compareTo(p.amount()) < 0) {
+                    // Only reachable after a failed batch left a shard ahead of the database
+                    rejected.add(s);
+                    continue;
+                }
+                publisherPort.publishPaymentCreated(p);
+
+                var newFrom = from.debit(p.amount());
+                var newTo = to.credit(p.amount());
+                accounts.put(newFrom.iban(), newFrom);
+                accounts.put(newTo.iban(), newTo);
+                touched.add(newFrom.iban());
+                touched.add(newTo.iban());
+
+                var now = Instant.now(clock);
+                ledger.add(Transaction.debit(p.id(), newFrom.id(), p.amount(), newFrom.balance(), now));
+                ledger.add(Transaction.credit(p.id(), newTo.id(), p.amount(), newTo.balance(), now));
+
+                var completed = p.completed(clock);
+                paymentRepo.save(completed);
+                publisherPort.publishPaymentCompleted(completed);
+                committed.add(s);
+            }
+
+            for (var iban : touched) {
+                accountRepo.save(accounts.get(iban));
+            }
+            if (!ledger.isEmpty()) {
+                txRepo.appendAll(ledger);
+            }
+        }
+
+        // True when the queue was drained and the thread has ended
+        boolean stop() {
+            running = false;
+            try {
+                thread.join(5_000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return !thread.isAlive();
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.instantpay.domain.usecase;
+
+import com.instantpay.domain.error.DomainException;
+import com.instantpay.domain.port.in.SendPaymentUseCase.Result;
+import com.instantpay.domain.usecase.PaymentMetrics.Outcome;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * One execution per idempotency key on this node: concurrent callers with a key that is already
+ * being settled wait for that execution instead of racing it into the unique constraint.
+ */
+final class SingleFlight {
+
+    private final ConcurrentHashMap<String, CompletableFuture<Result>> inFlight = new ConcurrentHashMap<>();
+    private final PaymentMetrics metrics;
+
+    SingleFlight(PaymentMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Runs {@code call} unless the key is in flight, in which case the running call's result is
+     * returned as a replay. A domain failure is shared with the waiters (a retry would fail the same
+     * way); after any other failure the waiters run the call again themselves.
+     */
+    Result run(String key, Supplier<Result> call) {
+        if (key == null) return call.get();
+        while (true) {
+            var mine = new CompletableFuture<Result>();
+            var running = inFlight.putIfAbsent(key, mine);
+            if (running == null) {
+                try {
+                    var result = call.get();
+                    mine.complete(result);
+                    return result;
+                } catch (RuntimeException e) {
+                    mine.completeExceptionally(e);
+                    throw e;
+                } finally {
+                    // The call has committed (and filled the idempotency cache) by now, so later arrivals find it
+                    inFlight.remove(key, mine);
+                }
+            }
+
+            metrics.singleFlightJoin();
+            try {
+                var r = running.join();
+                metrics.outcome(Outcome.IDEMPOTENT_REPLAY);
+                return Result.replay(r.paymentId(), r.status());
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof DomainException de) throw de;
+            }
+        }
+    }
+
+    int inFlight() {
+        return inFlight.size();
+    }
+}
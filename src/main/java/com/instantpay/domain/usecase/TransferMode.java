@@ -0,0 +1,11 @@
+package com.instantpay.domain.usecase;
+
+/** How {@link PaymentService#send} serializes balance changes ({@code app.payments.transfer-mode}). */
+public enum TransferMode {
+    /** SELECT ... FOR UPDATE on both accounts (sorted by IBAN), check, then save both. */
+    PESSIMISTIC,
+    /** One conditional UPDATE ... RETURNING per leg; row locks are held only from the statement to commit. */
+    CONDITIONAL,
+    /** Unlocked read, versioned UPDATE, bounded retries; accounts that keep conflicting fall back to PESSIMISTIC. */
+    OPTIMISTIC
+}
@@ -0,0 +1,16 @@
+package com.instantpay.domain.usecase;
+
+import java.time.Duration;
+
+/**
+ * Transfer settings for {@link PaymentService}: the {@link TransferMode} and, for
+ * {@link TransferMode#OPTIMISTIC}, how often a version conflict is retried (with jittered
+ * exponential backoff from {@code backoff}) before the account is locked pessimistically
+ * for {@code hotAccountTtl}.
+ */
+public record TransferPolicy(TransferMode mode, int maxRetries, Duration backoff, Duration hotAccountTtl) {
+
+    public static TransferPolicy of(TransferMode mode) {
+        return new TransferPolicy(mode, 3, Duration.ofMillis(2), Duration.ofSeconds(30));
+    }
+}
@@ -0,0 +1,40 @@
+package com.instantpay.ops;
+
+import com.instantpay.domain.usecase.AccountDirectory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Loads the account directory at startup and reloads it periodically. Every node keeps its own copy,
+ * so there is no ShedLock here. The read runs in a read-only transaction so the table is streamed.
+ */
+@Component
+public class AccountDirectoryRefresher {
+    private static final Logger log = LoggerFactory.getLogger(AccountDirectoryRefresher.class);
+
+    private final AccountDirectory directory;
+    private final TransactionTemplate tx;
+
+    public AccountDirectoryRefresher(AccountDirectory directory, PlatformTransactionManager txManager) {
+        this.directory = directory;
+        this.tx = new TransactionTemplate(txManager);
+        this.tx.setReadOnly(true);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${app.payments.account-directory.refresh-interval:PT1M}",
+               initialDelayString = "${app.payments.account-directory.refresh-interval:PT1M}")
+    public void reload() {
+        try {
+            tx.executeWithoutResult(status -> directory.reload());
+        } catch (RuntimeException e) {
+            log.warn("Account directory reload failed; keeping the previous one", e);
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.instantpay.ops;
+
+import net.javacrumbs.shedlock.spring.annotation.SchedulerLock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Moves every account's balance checkpoint ({@code balance_checkpoints}: ledger position {@code seq}
+ * and the ledger balance up to it) forward over the legs numbered since, so balance checks only read
+ * the ledger after the checkpoint. Accounts are walked in batches of {@code batch-size}, and the legs
+ * of a batch in pages of at most {@code leg-batch-size} (keyset on {@code (account_id, seq)}), one
+ * short transaction each, so a backlog of legs never lands in a single transaction or in memory.
+ * Only numbered legs are taken in. Numbers are handed out under the account row lock, so once a
+ * number is visible every lower one is too, and a leg numbered later always lands after the
+ * checkpoint.
+ */
+@Component
+@Profile("!memory")
+public class BalanceCheckpointer {
+    private static final Logger log = LoggerFactory.getLogger(BalanceCheckpointer.class);
+
+    private static final String NEW_LEGS = """
+            SELECT t.account_id, (t.amount * 100)::bigint AS amount, (t.balance_after * 100)::bigint AS balance_after, t.seq
+              FROM transactions t
+              LEFT JOIN balance_checkpoints c ON c.account_id = t.account_id
+             WHERE t.account_id = ANY (?) AND t.seq > COALESCE(c.position_seq, 0)
+               AND (t.account_id, t.seq) > (?, ?)
+             ORDER BY t.account_id, t.seq
+             LIMIT ?
+            """;
+
+    private static final String UPSERT = """
+            INSERT INTO balance_checkpoints (account_id, position_seq, balance, taken_at)
+            VALUES (?, ?, ?, ?)
+            ON CONFLICT (account_id) DO UPDATE
+               SET position_seq = EXCLUDED.position_seq,
+                   balance = EXCLUDED.balance,
+                   taken_at = EXCLUDED.taken_at
+            """;
+
+    private static final int FETCH_SIZE = 1_000;
+
+    private record Checkpoint(long positionSeq, long balanceMinor) {}
+
+    // Keyset over the ledger of one account batch; the nil UUID sorts before every account id
+    record Position(UUID accountId, long seq) {
+        static final Position START = new Position(new UUID(0L, 0L), 0L);
+    }
+
+    /** One page of legs taken in: how many, the accounts whose checkpoint moved, and where to go on from. */
+    record Page(int legs, Set<UUID> moved, Position last) {}
+
+    private final JdbcTemplate jdbc;
+    private final JdbcTemplate streaming;
+    private final TransactionTemplate tx;
+    private final Clock clock;
+    private final int batchSize;
+    private final int legBatchSize;
+
+    public BalanceCheckpointer(JdbcTemplate jdbc, PlatformTransactionManager txManager, Clock clock,
+                               @Value("${app.ops.checkpoints.batch-size:500}") int batchSize,
+                               @Value("${app.ops.checkpoints.leg-batch-size:10000}") int legBatchSize) {
+        this.jdbc = jdbc;
+        this.streaming = new JdbcTemplate(jdbc.getDataSource());
+        this.streaming.setFetchSize(FETCH_SIZE); // pgjdbc only honours it inside a transaction
+        this.tx = new TransactionTemplate(txManager);
+        this.clock = clock;
+        this.batchSize = Math.max(1, batchSize);
+        this.legBatchSize = Math.max(1, legBatchSize);
+    }
+
+    @Scheduled(fixedDelayString = "${app.ops.checkpoints.interval:PT10M}")
+    @SchedulerLock(name = "balance-checkpoints", lockAtMostFor = "PT1H")
+    public void checkpoint() {
+        UUID after = null;
+        int moved = 0;
+        while (true) {
+            var ids = after == null
+                    ? jdbc.queryForList("SELECT id FROM accounts ORDER BY id LIMIT ?", UUID.class, batchSize)
+                    : jdbc.queryForList("SELECT id FROM accounts WHERE id > ? ORDER BY id LIMIT ?", UUID.class, after, batchSize);
+            if (ids.isEmpty()) break;
+            try {
+                moved += checkpointAccounts(ids);
+            } catch (RuntimeException e) {
+                log.warn("Balance checkpoints failed for a batch of {} accounts after {}", ids.size(), after, e);
+            }
+            after = ids.get(ids.size() - 1);
+        }
+        log.info("Balance checkpoints moved forward for {} accounts", moved);
+    }
+
+    // Pages committed before a failure keep their checkpoints; the next run goes on from there
+    private int checkpointAccounts(List<UUID> accountIds) {
+        var moved = new HashSet<UUID>();
+        var from = Position.START;
+        while (true) {
+            var start = from;
+            var page = tx.execute(status -> checkpointBatch(accountIds, start));
+            moved.addAll(page.moved());
+            if (page.legs() < legBatchSize) return moved.size();
+            from = page.last();
+        }
+    }
+
+    // The first checkpoint of an account starts from its opening balance: the one before its first leg
+    Page checkpointBatch(List<UUID> accountIds, Position from) {
+        var current = new HashMap<UUID, Checkpoint>();
+        jdbc.query(con -> {
+            var ps = con.prepareStatement("""
+                    SELECT account_id, position_seq, (balance * 100)::bigint AS balance
+                      FROM balance_checkpoints WHERE account_id = ANY (?)
+                    """);
+            ps.setArray(1, con.createArrayOf("uuid", accountIds.toArray()));
+            return ps;
+        }, rs -> {
+            current.put(rs.getObject("account_id", UUID.class),
+                    new Checkpoint(rs.getLong("position_seq"), rs.getLong("balance")));
+        });
+
+        var next = new HashMap<UUID, Checkpoint>();
+        var legs = new int[1];
+        var last = new Position[] {from};
+        streaming.query(con -> {
+            var ps = con.prepareStatement(NEW_LEGS);
+            ps.setArray(1, con.createArrayOf("uuid", accountIds.toArray()));
+            ps.setObject(2, from.accountId());
+            ps.setLong(3, from.seq());
+            ps.setInt(4, legBatchSize);
+            return ps;
+        }, rs -> {
+            legs[0]++;
+            var account = rs.getObject("account_id", UUID.class);
+            var seq = rs.getLong("seq");
+            last[0] = new Position(account, seq);
+            var amount = rs.getLong("amount");
+            var previous = next.containsKey(account) ? next.get(account) : current.get(account);
+            var base = previous != null ? previous.balanceMinor() : rs.getLong("balance_after") - amount;
+            next.put(account, new Checkpoint(seq, base + amount));
+        });
+
+        var now = Timestamp.from(clock.instant());
+        List<Object[]> rows = new ArrayList<>(next.size());
+        for (Map.Entry<UUID, Checkpoint> e : next.entrySet()) {
+            var c = e.getValue();
+            rows.add(new Object[] {e.getKey(), c.positionSeq(), BigDecimal.valueOf(c.balanceMinor(), 2), now});
+        }
+        if (!rows.isEmpty()) jdbc.batchUpdate(UPSERT, rows);
+        return new Page(legs[0], next.keySet(), last[0]);
+    }
+}
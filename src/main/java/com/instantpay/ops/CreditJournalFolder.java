@@ -0,0 +1,45 @@
+package com.instantpay.ops;
+
+import com.instantpay.domain.port.out.CreditJournalPort;
+import com.instantpay.domain.port.out.TransactionRepositoryPort;
+import net.javacrumbs.shedlock.spring.annotation.SchedulerLock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Folds the pending credits of every journaled account into its balance, and numbers their ledger legs
+ * while the row is locked anyway. One short transaction per account.
+ */
+@Component
+@Profile("!memory")
+public class CreditJournalFolder {
+    private static final Logger log = LoggerFactory.getLogger(CreditJournalFolder.class);
+
+    private final CreditJournalPort journal;
+    private final TransactionRepositoryPort txRepo;
+    private final TransactionTemplate tx;
+
+    public CreditJournalFolder(CreditJournalPort journal, TransactionRepositoryPort txRepo, PlatformTransactionManager txManager) {
+        this.journal = journal;
+        this.txRepo = txRepo;
+        this.tx = new TransactionTemplate(txManager);
+    }
+
+    @Scheduled(fixedDelayString = "${app.payments.credit-journal.fold-interval:PT5S}")
+    @SchedulerLock(name = "credit-journal-fold", lockAtMostFor = "PT5M")
+    public void fold() {
+        for (var iban : journal.journaledIbans()) {
+            try {
+                tx.executeWithoutResult(status -> journal.foldForUpdate(iban)
+                        .ifPresent(folded -> txRepo.sequencePending(iban)));
+            } catch (RuntimeException e) {
+                log.warn("Folding pending credits failed for {}", iban, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.instantpay.ops;
+
+import java.util.Objects;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Folds a stream of account balances and ledger legs, grouped by account (balance first, then legs in
+ * ledger order), in {@code long} minor units. Only the current account is held, so memory stays
+ * constant whatever the size of the ledger. An account drifts when its balance is not the opening
+ * balance plus the sum of its legs, or not the {@code balance_after} of its last leg. The opening
+ * balance is the account's balance checkpoint when it has one (and then only the legs after it are
+ * streamed), else the one before the first leg ({@code balance_after - amount}), because accounts
+ * are opened with a balance and no ledger entry. Striped and journaled accounts are only held to the
+ * sum (their balance being the row plus stripes and pending credits): the {@code balance_after} of
+ * their legs is read without the row lock, so it can include or miss concurrent updates.
+ */
+final class LedgerFold {
+
+    /** {@code balanceMinor} is null for legs of an account that does not exist. */
+    record Drift(UUID accountId, Long balanceMinor, long openingPlusLegsMinor, long lastBalanceAfterMinor) {}
+
+    private final Consumer<Drift> drifts;
+
+    private UUID account;
+    private Long balance;
+    private boolean sumOnly;
+    private Long checkpoint;
+    private boolean hasLegs;
+    private long opening;
+    private long sum;
+    private long lastAfter;
+
+    private long accountsChecked;
+    private long accountsSumOnly;
+    private long legs;
+    private long drifted;
+
+    LedgerFold(Consumer<Drift> drifts) {
+        this.drifts = drifts;
+    }
+
+    void balance(UUID accountId, long balanceMinor, boolean striped, boolean journaled, Long checkpointMinor) {
+        next(accountId);
+        this.balance = balanceMinor;
+        this.sumOnly = striped || journaled;
+        this.checkpoint = checkpointMinor;
+    }
+
+    void leg(UUID accountId, long amountMinor, long balanceAfterMinor) {
+        next(accountId);
+        if (!hasLegs) {
+            opening = checkpoint != null ? checkpoint : balanceAfterMinor - amountMinor;
+            hasLegs = true;
+        }
+        sum += amountMinor;
+        lastAfter = balanceAfterMinor;
+        legs++;
+    }
+
+    /** Evaluates the last account; call once after the stream ends. */
+    void finish() {
+        next(null);
+    }
+
+    private void next(UUID accountId) {
+        if (Objects.equals(accountId, account)) return;
+        evaluate();
+        account = accountId;
+        balance = null;
+        sumOnly = false;
+        checkpoint = null;
+        hasLegs = false;
+        opening = sum = lastAfter = 0;
+    }
+
+    private void evaluate() {
+        if (account == null || (!hasLegs && checkpoint == null)) return;
+        accountsChecked++;
+        if (sumOnly) accountsSumOnly++;
+        var expected = hasLegs ? opening + sum : checkpoint;
+        if (!hasLegs || sumOnly) lastAfter = expected;
+        if (balance == null || balance != expected || balance != lastAfter) {
+            drifted++;
+            drifts.accept(new Drift(account, balance, expected, lastAfter));
+        }
+    }
+
+    long accountsChecked() { return accountsChecked; }
+    long accountsSumOnly() { return accountsSumOnly; }
+    long legs() { return legs; }
+    long drifted() { return drifted; }
+}
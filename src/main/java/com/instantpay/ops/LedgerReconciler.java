@@ -1,71 +1,293 @@
 // com.instantpay.ops.LedgerReconciler
 package com.instantpay.ops;
 
+import com.instantpay.domain.port.out.CreditJournalPort;
 import net.javacrumbs.shedlock.spring.annotation.SchedulerLock;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
 
+/**
+ * Checks the payments that reached a final state (COMPLETED or FAILED, by {@code completed_at}) or are
+ * still CREATED (by {@code created_at}) since the persisted high-watermark, so a run costs what happened
+ * since the previous one rather than the whole history. The window ends {@code settle-lag} in the past,
+ * because a payment stamped just before the run may still be committing. A run works through slices of
+ * at most {@code max-window} until it reaches that end, jumping over stretches without payments; a fresh
+ * install starts just before the oldest payment. Violating ids are streamed, not collected.
+ */
 @Component
+@Profile("!memory")
 public class LedgerReconciler {
     private static final Logger log = LoggerFactory.getLogger(LedgerReconciler.class);
 
+    static final String WATERMARK = "ledger";
+    private static final int FETCH_SIZE = 1_000;
+    static final int LOGGED_IDS = 100;
+    private static final Duration RUN_BUDGET = Duration.ofMinutes(10); // below lockAtMostFor; the rest waits for the next run
+    private static final Duration MICROSECOND = Duration.ofNanos(1_000); // timestamptz resolution
+
     private final JdbcTemplate jdbc;
+    private final JdbcTemplate streaming;
+    private final CreditJournalPort journal;
+    private final TransactionTemplate readOnly;
+    private final TransactionTemplate tx;
+    private final TransactionTemplate snapshot;
+    private final Clock clock;
+    private final Duration settleLag;
+    private final Duration maxWindow;
 
-    public LedgerReconciler(JdbcTemplate jdbc) {
+    public LedgerReconciler(JdbcTemplate jdbc, PlatformTransactionManager txManager, Clock clock, CreditJournalPort journal,
+                            @Value("${app.ops.reconciliation.settle-lag:PT1M}") Duration settleLag,
+                            @Value("${app.ops.reconciliation.max-window:P1D}") Duration maxWindow) {
         this.jdbc = jdbc;
+        this.streaming = new JdbcTemplate(jdbc.getDataSource());
+        this.streaming.setFetchSize(FETCH_SIZE); // pgjdbc only honours it inside a transaction
+        this.journal = journal;
+        this.readOnly = new TransactionTemplate(txManager);
+        this.readOnly.setReadOnly(true);
+        this.tx = new TransactionTemplate(txManager);
+        // Balances and ledger read from one snapshot, so payments settling meanwhile cannot show up as drift
+        this.snapshot = new TransactionTemplate(txManager);
+        this.snapshot.setReadOnly(true);
+        this.snapshot.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.clock = clock;
+        this.settleLag = settleLag;
+        this.maxWindow = maxWindow;
+    }
+
+    // Nightly at 02:05 by default; a cron like "0 */5 * * * *" keeps each run small. Only one node runs it (ShedLock).
+    @Scheduled(cron = "${app.ops.reconciliation.cron:0 5 2 * * *}")
+    @SchedulerLock(name = "reconciliation-ledger", lockAtLeastFor = "PT30S", lockAtMostFor = "PT15M")
+    public void reconcile() {
+        catchUp(clock.instant().minus(settleLag));
+        readOnly.executeWithoutResult(status -> {
+            checkLogicalBalancesNotNegative();
+            checkOutboxNotStuck();
+        });
+    }
+
+    /** Checks slice after slice from the watermark up to {@code end}, moving the watermark after each one. */
+    Findings catchUp(Instant end) {
+        var deadline = System.nanoTime() + RUN_BUDGET.toNanos();
+        long checked = 0, violations = 0;
+        var sample = new ArrayList<Object>();
+        var from = watermark();
+        while (from.isBefore(end) && System.nanoTime() < deadline) {
+            var next = nextPaymentAfter(from);
+            if (next == null || next.isAfter(end)) {
+                // Nothing left to check before the end
+                var done = end;
+                tx.executeWithoutResult(status -> advanceWatermark(done));
+                break;
+            }
+            // Empty stretches are skipped: the slice starts just before the next payment
+            var start = max(from, next.minus(MICROSECOND));
+            var to = min(end, start.plus(maxWindow));
+            var findings = readOnly.execute(status -> checkPayments(start, to));
+            // Violations are reported once; they are not re-checked by later runs
+            tx.executeWithoutResult(status -> advanceWatermark(to));
+            log.info("Recon window ({}, {}] done", start, to);
+            checked += findings.paymentsChecked();
+            violations += findings.violations();
+            sample.addAll(findings.sample().subList(0, Math.min(LOGGED_IDS - sample.size(), findings.sample().size())));
+            from = to;
+        }
+        if (from.isBefore(end) && System.nanoTime() >= deadline) {
+            log.info("Recon stopped at {} after {}; the next run carries on", from, RUN_BUDGET);
+        }
+        return new Findings(checked, violations, sample);
+    }
+
+    // A full pass over the ledger, so it keeps its own (nightly) schedule
+    @Scheduled(cron = "${app.ops.reconciliation.balance-cron:0 35 2 * * *}")
+    @SchedulerLock(name = "reconciliation-balances", lockAtLeastFor = "PT1M", lockAtMostFor = "PT6H")
+    public void reconcileBalances() {
+        snapshot.executeWithoutResult(status -> checkBalancesMatchLedger());
+    }
+
+    // Logical balance (row + stripes + pending credits) == opening balance + SUM(legs) == last balance_after,
+    // in one pass over accounts and the ledger after their checkpoints, merged by account id. Amounts arrive
+    // as cents (bigint): no BigDecimal per row. Legs are taken in seq order, the order they were applied in;
+    // the ones not numbered yet are the latest and follow by created_at
+    void checkBalancesMatchLedger() {
+        String sql = """
+      SELECT a.id AS account_id, 0 AS kind, NULL::timestamptz AS created_at, NULL::uuid AS id,
+             ((a.balance
+               + COALESCE((SELECT SUM(s.balance) FROM account_stripes s WHERE s.account_id = a.id), 0)
+               + COALESCE((SELECT SUM(c.amount) FROM pending_credits c WHERE c.account_id = a.id), 0)) * 100)::bigint AS v1,
+             CASE WHEN EXISTS (SELECT 1 FROM account_stripes s WHERE s.account_id = a.id) THEN 1
+                  WHEN a.iban = ANY (?) THEN 2
+                  ELSE 0 END AS v2,
+             (cp.balance * 100)::bigint AS v3,
+             NULL::bigint AS seq
+      FROM accounts a
+      LEFT JOIN balance_checkpoints cp ON cp.account_id = a.id
+      UNION ALL
+      SELECT t.account_id, 1, t.created_at, t.id, (t.amount * 100)::bigint, (t.balance_after * 100)::bigint, NULL::bigint, t.seq
+      FROM transactions t
+      LEFT JOIN balance_checkpoints cp ON cp.account_id = t.account_id
+      WHERE cp.account_id IS NULL OR t.seq IS NULL OR t.seq > cp.position_seq
+      ORDER BY account_id, kind, seq NULLS LAST, created_at, id
+    """;
+        var sample = new ArrayList<LedgerFold.Drift>();
+        var fold = new LedgerFold(drift -> {
+            if (sample.size() < LOGGED_IDS) sample.add(drift);
+        });
+        var journaled = journal.journaledIbans().toArray(String[]::new);
+        streaming.query(con -> {
+            var ps = con.prepareStatement(sql);
+            ps.setArray(1, con.createArrayOf("varchar", journaled));
+            return ps;
+        }, rs -> {
+            var account = rs.getObject(1, UUID.class);
+            if (rs.getInt(2) == 0) {
+                long checkpoint = rs.getLong(7);
+                Long checkpointMinor = rs.wasNull() ? null : checkpoint;
+                fold.balance(account, rs.getLong(5), rs.getLong(6) == 1, rs.getLong(6) == 2, checkpointMinor);
+            } else {
+                fold.leg(account, rs.getLong(5), rs.getLong(6));
+            }
+        });
+        fold.finish();
+        if (fold.drifted() > 0) {
+            log.error("RECON FAIL: {} accounts whose balance drifted from the ledger, first ones: {}", fold.drifted(), sample);
+        } else {
+            log.info("Recon ✓ Balances vs ledger: OK ({} accounts, {} of them striped or journaled and checked by sum, {} legs)",
+                    fold.accountsChecked(), fold.accountsSumOnly(), fold.legs());
+        }
+    }
+
+    Instant watermark() {
+        var stored = jdbc.queryForList("SELECT watermark FROM recon_watermarks WHERE name = ?", Timestamp.class, WATERMARK);
+        if (!stored.isEmpty()) return stored.get(0).toInstant();
+        // Fresh install: start just before the oldest payment (completed_at is never before created_at)
+        var oldest = jdbc.queryForObject("SELECT MIN(created_at) FROM payments", Timestamp.class);
+        return oldest == null ? clock.instant().minus(settleLag) : oldest.toInstant().minus(MICROSECOND);
     }
 
-    // Run daily at 02:05 (server time). Only one node will execute (ShedLock).
-    @Scheduled(cron = "0 5 2 * * *")
-    @SchedulerLock(name = "reconciliation-nightly", lockAtLeastFor = "PT1M", lockAtMostFor = "PT15M")
-    @Transactional(readOnly = true)
-    public void nightlyRecon() {
-        checkCompletedPaymentsHaveTwoTx();
-        checkFailedPaymentsHaveNoTx();
-        checkOutboxNotStuck();
+    // The earliest completed_at, or created_at of a CREATED payment, after the given instant; null when there is none
+    private Instant nextPaymentAfter(Instant from) {
+        var next = jdbc.queryForObject("""
+            SELECT LEAST((SELECT MIN(completed_at) FROM payments WHERE completed_at > ?),
+                         (SELECT MIN(created_at) FROM payments WHERE status = 'CREATED' AND created_at > ?))
+            """, Timestamp.class, Timestamp.from(from), Timestamp.from(from));
+        return next == null ? null : next.toInstant();
+    }
+
+    private void advanceWatermark(Instant to) {
+        jdbc.update("""
+            INSERT INTO recon_watermarks (name, watermark) VALUES (?, ?)
+            ON CONFLICT (name) DO UPDATE SET watermark = EXCLUDED.watermark
+            """, WATERMARK, Timestamp.from(to));
+    }
+
+    /** What the payment checks found for one window; {@code sample} holds the first violating ids. */
+    record Findings(long paymentsChecked, long violations, List<Object> sample) {}
+
+    /**
+     * The payment checks over the payments finished in (from, to], and those created then and still
+     * CREATED; runs in the caller's transaction.
+     */
+    Findings checkPayments(Instant from, Instant to) {
+        var checked = jdbc.queryForObject("""
+            SELECT (SELECT COUNT(*) FROM payments WHERE completed_at > ? AND completed_at <= ?)
+                 + (SELECT COUNT(*) FROM payments WHERE status = 'CREATED' AND created_at > ? AND created_at <= ?)
+            """, Long.class, Timestamp.from(from), Timestamp.from(to), Timestamp.from(from), Timestamp.from(to));
+        var completed = checkCompletedPaymentsHaveTwoTx(from, to);
+        var failed = checkFailedPaymentsHaveNoTx(from, to);
+        var created = checkCreatedPaymentsHaveNoTx(from, to);
+        var sample = new ArrayList<>(completed.sample());
+        sample.addAll(failed.sample());
+        sample.addAll(created.sample());
+        return new Findings(checked == null ? 0 : checked, completed.violations() + failed.violations() + created.violations(),
+                sample.subList(0, Math.min(LOGGED_IDS, sample.size())));
     }
 
-    // COMPLETED => exactly 2 entries (DEBIT + CREDIT) with equal amounts
-    void checkCompletedPaymentsHaveTwoTx() {
+    // COMPLETED => exactly 2 entries (a debit and a credit) that cancel out
+    Findings checkCompletedPaymentsHaveTwoTx(Instant from, Instant to) {
         String sql = """
       SELECT p.id
       FROM payments p
       LEFT JOIN transactions t ON t.payment_id = p.id
       WHERE p.status = 'COMPLETED'
+        AND p.completed_at > ? AND p.completed_at <= ?
       GROUP BY p.id
       HAVING COUNT(t.*) <> 2
-         OR MIN(t.type) = MAX(t.type) -- both DEBIT or both CREDIT
-         OR ABS(SUM(CASE WHEN t.type = 'DEBIT' THEN t.amount ELSE -t.amount END)) <> 0
+         OR MIN(SIGN(t.amount)) = MAX(SIGN(t.amount)) -- both debits or both credits
+         OR SUM(t.amount) <> 0
     """;
-        List<UUID> bad = jdbc.query(sql, (rs, i) -> (UUID) rs.getObject(1));
-        if (!bad.isEmpty()) {
-            log.error("RECON FAIL: completed payments with invalid transaction pairs: {}", bad);
-        } else {
-            log.info("Recon ✓ COMPLETED payments: OK");
-        }
+        return report("completed payments with invalid transaction pairs", "COMPLETED payments", sql, from, to);
     }
 
     // FAILED => 0 ledger entries
-    void checkFailedPaymentsHaveNoTx() {
+    Findings checkFailedPaymentsHaveNoTx(Instant from, Instant to) {
         String sql = """
-      SELECT p.id
+      SELECT DISTINCT p.id
       FROM payments p
       JOIN transactions t ON t.payment_id = p.id
       WHERE p.status = 'FAILED'
-      GROUP BY p.id
+        AND p.completed_at > ? AND p.completed_at <= ?
+    """;
+        return report("FAILED payments with ledger entries present", "FAILED payments", sql, from, to);
+    }
+
+    // CREATED => 0 ledger entries: legs are written in the transaction that completes the payment
+    Findings checkCreatedPaymentsHaveNoTx(Instant from, Instant to) {
+        String sql = """
+      SELECT DISTINCT p.id
+      FROM payments p
+      JOIN transactions t ON t.payment_id = p.id
+      WHERE p.status = 'CREATED'
+        AND p.created_at > ? AND p.created_at <= ?
+    """;
+        return report("CREATED payments with ledger entries present", "CREATED payments", sql, from, to);
+    }
+
+    // Logs the first ids and counts the rest while the rows stream in
+    private Findings report(String failure, String ok, String sql, Instant from, Instant to) {
+        var sample = new ArrayList<Object>();
+        long[] count = {0};
+        streaming.query(sql, rs -> {
+            if (count[0]++ < LOGGED_IDS) sample.add(rs.getObject(1));
+        }, Timestamp.from(from), Timestamp.from(to));
+        if (count[0] > 0) {
+            log.error("RECON FAIL: {} {} in ({}, {}], first ones: {}", count[0], failure, from, to, sample);
+        } else {
+            log.info("Recon ✓ {}: OK", ok);
+        }
+        return new Findings(0, count[0], sample);
+    }
+
+    // Striped and journaled accounts are checked as one logical account: account row + all stripes
+    // + credits not folded yet, never below zero
+    void checkLogicalBalancesNotNegative() {
+        String sql = """
+      SELECT a.iban
+      FROM accounts a
+      WHERE a.balance
+          + COALESCE((SELECT SUM(s.balance) FROM account_stripes s WHERE s.account_id = a.id), 0)
+          + COALESCE((SELECT SUM(c.amount) FROM pending_credits c WHERE c.account_id = a.id), 0) < 0
     """;
-        List<UUID> viol = jdbc.query(sql, (rs, i) -> (UUID) rs.getObject(1));
-        if (!viol.isEmpty()) {
-            log.error("RECON FAIL: FAILED payments with ledger entries present: {}", viol);
+        List<String> negative = jdbc.queryForList(sql, String.class);
+        if (!negative.isEmpty()) {
+            log.error("RECON FAIL: accounts with a negative logical balance: {}", negative);
         } else {
-            log.info("Recon ✓ FAILED payments: OK");
+            log.info("Recon ✓ Logical account balances: OK");
         }
     }
 
@@ -84,4 +306,12 @@ public class LedgerReconciler {
             log.info("Recon ✓ Event publication backlog: OK");
         }
     }
+
+    private static Instant min(Instant a, Instant b) {
+        return a.isBefore(b) ? a : b;
+    }
+
+    private static Instant max(Instant a, Instant b) {
+        return a.isAfter(b) ? a : b;
+    }
 }
@@ -0,0 +1,91 @@
+package com.instantpay.ops;
+
+import net.javacrumbs.shedlock.spring.annotation.SchedulerLock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.util.UUID;
+
+/**
+ * Numbers the ledger legs written before {@code transactions.seq} existed, once, in order. Without it
+ * those legs would stay unnumbered on accounts whose row is locked by payments, and on striped or
+ * journaled accounts {@code sequencePending} would number them after the legs written since. Each
+ * account with unnumbered legs is renumbered 1..n under its row lock in one short transaction:
+ * unnumbered legs older than its first numbered leg (by {@code created_at}), then the numbered legs in
+ * their order, then the rest (by {@code created_at}). Done is recorded in {@code recon_watermarks}.
+ */
+@Component
+@Profile("!memory")
+public class LedgerSeqBackfill {
+    private static final Logger log = LoggerFactory.getLogger(LedgerSeqBackfill.class);
+
+    private static final String DONE = "ledger-seq-backfill";
+
+    // Numbers that are kept move out of the way first: the unique (account_id, seq) index is checked row by row
+    private static final String SET_ASIDE = """
+            UPDATE transactions SET seq = -seq WHERE account_id = ? AND seq IS NOT NULL
+            """;
+
+    private static final String RENUMBER = """
+            WITH first AS (SELECT MIN(created_at) AS at FROM transactions WHERE account_id = ? AND seq IS NOT NULL),
+                 ordered AS (SELECT t.id, row_number() OVER (ORDER BY
+                                        CASE WHEN t.seq IS NOT NULL THEN 1
+                                             WHEN f.at IS NULL OR t.created_at < f.at THEN 0
+                                             ELSE 2 END,
+                                        -t.seq, t.created_at, t.id) AS n
+                               FROM transactions t CROSS JOIN first f
+                              WHERE t.account_id = ?),
+                 numbered AS (UPDATE transactions t SET seq = o.n FROM ordered o WHERE t.id = o.id RETURNING t.id)
+            UPDATE accounts SET ledger_seq = (SELECT count(*) FROM numbered) WHERE id = ?
+            """;
+
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate tx;
+    private final Clock clock;
+
+    public LedgerSeqBackfill(JdbcTemplate jdbc, PlatformTransactionManager txManager, Clock clock) {
+        this.jdbc = jdbc;
+        this.tx = new TransactionTemplate(txManager);
+        this.clock = clock;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @SchedulerLock(name = "ledger-seq-backfill", lockAtMostFor = "PT1H")
+    public void backfillOnce() {
+        if (!jdbc.queryForList("SELECT 1 FROM recon_watermarks WHERE name = ?", Integer.class, DONE).isEmpty()) return;
+        var accounts = jdbc.queryForList("SELECT DISTINCT account_id FROM transactions WHERE seq IS NULL", UUID.class);
+        int failed = 0;
+        for (var account : accounts) {
+            try {
+                tx.executeWithoutResult(status -> renumber(account));
+            } catch (RuntimeException e) {
+                failed++;
+                log.warn("Numbering the earlier ledger legs failed for account {}", account, e);
+            }
+        }
+        if (failed > 0) {
+            log.warn("Ledger legs numbered for {} of {} accounts; the rest are retried on the next start",
+                    accounts.size() - failed, accounts.size());
+            return;
+        }
+        jdbc.update("INSERT INTO recon_watermarks (name, watermark) VALUES (?, ?) ON CONFLICT (name) DO NOTHING",
+                DONE, Timestamp.from(clock.instant()));
+        log.info("Ledger legs numbered for {} accounts", accounts.size());
+    }
+
+    void renumber(UUID accountId) {
+        jdbc.queryForList("SELECT id FROM accounts WHERE id = ? FOR UPDATE", UUID.class, accountId);
+        jdbc.update(SET_ASIDE, accountId);
+        jdbc.update(RENUMBER, accountId, accountId, accountId);
+        jdbc.update("DELETE FROM balance_checkpoints WHERE account_id = ?", accountId); // its position moved
+    }
+}
@@ -0,0 +1,45 @@
+package com.instantpay.ops;
+
+import com.instantpay.domain.port.out.BalanceStripesPort;
+import com.instantpay.domain.port.out.TransactionRepositoryPort;
+import net.javacrumbs.shedlock.spring.annotation.SchedulerLock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Numbers the ledger legs of striped accounts, which payments write without touching the account row.
+ * Takes the row lock only for the one statement, so payments on the stripes keep running meanwhile.
+ * Journaled accounts need no sweep here: {@link CreditJournalFolder} numbers their legs when it folds.
+ */
+@Component
+@Profile("!memory")
+public class LedgerSequencer {
+    private static final Logger log = LoggerFactory.getLogger(LedgerSequencer.class);
+
+    private final BalanceStripesPort stripes;
+    private final TransactionRepositoryPort txRepo;
+    private final TransactionTemplate tx;
+
+    public LedgerSequencer(BalanceStripesPort stripes, TransactionRepositoryPort txRepo, PlatformTransactionManager txManager) {
+        this.stripes = stripes;
+        this.txRepo = txRepo;
+        this.tx = new TransactionTemplate(txManager);
+    }
+
+    @Scheduled(fixedDelayString = "${app.ops.ledger-sequencer.interval:PT5S}")
+    @SchedulerLock(name = "ledger-sequencer", lockAtMostFor = "PT5M")
+    public void sequence() {
+        for (var iban : stripes.stripedIbans()) {
+            try {
+                tx.executeWithoutResult(status -> txRepo.sequencePending(iban));
+            } catch (RuntimeException e) {
+                log.warn("Numbering ledger legs failed for {}", iban, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package com.instantpay.ops;
+
+import net.javacrumbs.shedlock.core.LockConfiguration;
+import net.javacrumbs.shedlock.core.LockProvider;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.net.InetAddress;
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Re-verifies a time range of payments (e.g. after a backfill) by splitting it into partitions of
+ * {@code partition-size} by {@code completed_at}. Partitions are stored in {@code recon_partitions};
+ * workers on every replica claim them one at a time through a ShedLock lock per partition, so the
+ * cluster checks them in parallel. A partition whose worker died is picked up again once its lock
+ * expires. Progress, payments checked and violations are persisted per partition.
+ */
+@Component
+@Profile("!memory")
+public class PartitionedReconciliation implements AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(PartitionedReconciliation.class);
+
+    private static final int CANDIDATES = 32;
+
+    private final JdbcTemplate jdbc;
+    private final LockProvider locks;
+    private final LedgerReconciler reconciler;
+    private final TransactionTemplate readOnly;
+    private final Clock clock;
+    private final Duration partitionSize;
+    private final Duration lockAtMostFor;
+    private final long pollMillis;
+    private final int workers;
+    private final String node;
+    private final List<Thread> threads = new ArrayList<>();
+    private volatile boolean running = true;
+
+    public PartitionedReconciliation(JdbcTemplate jdbc, LockProvider locks, LedgerReconciler reconciler,
+                                     PlatformTransactionManager txManager, Clock clock,
+                                     @Value("${app.ops.reconciliation.partitions.size:P1D}") Duration partitionSize,
+                                     @Value("${app.ops.reconciliation.partitions.lock-at-most-for:PT30M}") Duration lockAtMostFor,
+                                     @Value("${app.ops.reconciliation.partitions.poll:PT10S}") Duration poll,
+                                     @Value("${app.ops.reconciliation.partitions.workers:1}") int workers) {
+        this.jdbc = jdbc;
+        this.locks = locks;
+        this.reconciler = reconciler;
+        this.readOnly = new TransactionTemplate(txManager);
+        this.readOnly.setReadOnly(true);
+        this.clock = clock;
+        this.partitionSize = partitionSize;
+        this.lockAtMostFor = lockAtMostFor;
+        this.pollMillis = poll.toMillis();
+        this.workers = workers;
+        this.node = nodeName();
+    }
+
+    /** One partition of a run, as persisted. */
+    public record Partition(UUID runId, int partitionNo, Instant from, Instant to, String status, String claimedBy,
+                            Instant startedAt, Instant finishedAt, long paymentsChecked, long violations, String sampleIds) {}
+
+    /** Plans a run over the payments finished in (from, to]; workers pick its partitions up from now on. */
+    public UUID start(Instant from, Instant to) {
+        if (!to.isAfter(from)) throw new IllegalArgumentException("Empty range: " + from + " .. " + to);
+        var runId = UUID.randomUUID();
+        var rows = new ArrayList<Object[]>();
+        var start = from;
+        for (int n = 0; start.isBefore(to); n++) {
+            var end = start.plus(partitionSize).isBefore(to) ? start.plus(partitionSize) : to;
+            rows.add(new Object[] {runId, n, Timestamp.from(start), Timestamp.from(end)});
+            start = end;
+        }
+        jdbc.batchUpdate("INSERT INTO recon_partitions (run_id, partition_no, range_from, range_to) VALUES (?, ?, ?, ?)", rows);
+        log.info("Recon run {} planned: ({}, {}] in {} partitions", runId, from, to, rows.size());
+        return runId;
+    }
+
+    public List<Partition> partitions(UUID runId) {
+        return jdbc.query("SELECT * FROM recon_partitions WHERE run_id = ? ORDER BY partition_no", (rs, i) -> new Partition(
+                rs.getObject("run_id", UUID.class),
+                rs.getInt("partition_no"),
+                rs.getTimestamp("range_from").toInstant(),
+                rs.getTimestamp("range_to").toInstant(),
+                rs.getString("status"),
+                rs.getString("claimed_by"),
+                toInstant(rs.getTimestamp("started_at")),
+                toInstant(rs.getTimestamp("finished_at")),
+                rs.getLong("payments_checked"),
+                rs.getLong("violations"),
+                rs.getString("sample_ids")), runId);
+    }
+
+    public List<UUID> runs() {
+        return jdbc.queryForList("""
+            SELECT run_id FROM recon_partitions GROUP BY run_id
+             ORDER BY MIN(range_from) DESC
+            """, UUID.class);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void startWorkers() {
+        if (!threads.isEmpty()) return;
+        for (int i = 0; i < Math.max(0, workers); i++) {
+            threads.add(Thread.ofPlatform().name("recon-partition-" + i).daemon().start(this::run));
+        }
+    }
+
+    private void run() {
+        while (running) {
+            boolean worked;
+            try {
+                worked = claimAndCheckOne();
+            } catch (RuntimeException e) {
+                log.error("Recon partition round failed", e);
+                worked = false;
+            }
+            if (!worked) {
+                try {
+                    Thread.sleep(pollMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    // Tries the open partitions in random order, so the workers of several nodes rarely race for the same one
+    boolean claimAndCheckOne() {
+        var open = jdbc.query("""
+            SELECT run_id, partition_no FROM recon_partitions WHERE status <> 'DONE'
+             ORDER BY run_id, partition_no LIMIT ?
+            """, (rs, i) -> new Object[] {rs.getObject("run_id", UUID.class), rs.getInt("partition_no")}, CANDIDATES);
+        Collections.shuffle(open);
+        for (var key : open) {
+            var runId = (UUID) key[0];
+            var no = (int) key[1];
+            var lock = locks.lock(new LockConfiguration(clock.instant(), "recon-" + runId + "-" + no, lockAtMostFor, Duration.ZERO));
+            if (lock.isEmpty()) continue;
+            try {
+                // Someone may have finished it between our query and our lock
+                if (check(runId, no)) return true;
+            } finally {
+                lock.get().unlock();
+            }
+        }
+        return false;
+    }
+
+    private boolean check(UUID runId, int no) {
+        var claimed = jdbc.update("""
+            UPDATE recon_partitions SET status = 'RUNNING', claimed_by = ?, started_at = ?
+             WHERE run_id = ? AND partition_no = ? AND status <> 'DONE'
+            """, node, Timestamp.from(clock.instant()), runId, no);
+        if (claimed == 0) return false;
+        var range = jdbc.queryForObject("SELECT range_from, range_to FROM recon_partitions WHERE run_id = ? AND partition_no = ?",
+                (rs, i) -> new Instant[] {rs.getTimestamp("range_from").toInstant(), rs.getTimestamp("range_to").toInstant()},
+                runId, no);
+
+        var findings = readOnly.execute(status -> reconciler.checkPayments(range[0], range[1]));
+        jdbc.update("""
+            UPDATE recon_partitions SET status = 'DONE', finished_at = ?, payments_checked = ?, violations = ?, sample_ids = ?
+             WHERE run_id = ? AND partition_no = ?
+            """, Timestamp.from(clock.instant()), findings.paymentsChecked(), findings.violations(),
+                findings.sample().isEmpty() ? null : String.join(",", findings.sample().stream().map(String::valueOf).toList()),
+                runId, no);
+        return true;
+    }
+
+    @Override
+    public void close() {
+        running = false;
+    }
+
+    private static Instant toInstant(Timestamp ts) {
+        return ts == null ? null : ts.toInstant();
+    }
+
+    private static String nodeName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            return "unknown";
+        }
+    }
+}
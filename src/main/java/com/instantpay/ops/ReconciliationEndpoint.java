@@ -0,0 +1,93 @@
+package com.instantpay.ops;
+
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * {@code /actuator/reconciliation}: lists partitioned reconciliation runs with their progress
+ * ({@code GET}), shows the partitions of one run ({@code GET /{runId}}) and plans a new run
+ * ({@code POST {"from": "...", "to": "..."}}, ISO-8601 instants; 400 when they do not parse or
+ * the range is empty). Not exposed by default: {@code POST} starts work, so expose it on the
+ * management port only ({@code management.server.port}).
+ */
+@Component
+@Profile("!memory")
+@Endpoint(id = "reconciliation")
+public class ReconciliationEndpoint {
+
+    private final PartitionedReconciliation reconciliation;
+
+    public ReconciliationEndpoint(PartitionedReconciliation reconciliation) {
+        this.reconciliation = reconciliation;
+    }
+
+    public record RunSummary(UUID runId, Instant from, Instant to, int partitions, int done, int running,
+                             long paymentsChecked, long violations, Double paymentsPerSecond) {}
+
+    @ReadOperation
+    public List<RunSummary> runs() {
+        return reconciliation.runs().stream().map(id -> summarize(id, reconciliation.partitions(id))).toList();
+    }
+
+    @ReadOperation
+    public List<PartitionedReconciliation.Partition> run(@Selector UUID runId) {
+        return reconciliation.partitions(runId);
+    }
+
+    @WriteOperation
+    public Map<String, Object> start(String from, String to) {
+        var range = parseRange(from, to);
+        var runId = reconciliation.start(range[0], range[1]);
+        return Map.of("runId", runId, "partitions", reconciliation.partitions(runId).size());
+    }
+
+    // InvalidEndpointRequestException is answered with 400 by the actuator
+    static Instant[] parseRange(String from, String to) {
+        Instant start, end;
+        try {
+            start = Instant.parse(from);
+            end = Instant.parse(to);
+        } catch (DateTimeParseException e) {
+            throw new InvalidEndpointRequestException("Invalid instant: " + e.getParsedString(), "from and to must be ISO-8601 instants");
+        }
+        if (!end.isAfter(start)) {
+            throw new InvalidEndpointRequestException("Empty range: " + from + " .. " + to, "to must be after from");
+        }
+        return new Instant[] {start, end};
+    }
+
+    // Throughput over the time the finished partitions were actually being checked, summed over workers
+    static RunSummary summarize(UUID runId, List<PartitionedReconciliation.Partition> parts) {
+        int done = 0, running = 0;
+        long checked = 0, violations = 0, busyMillis = 0;
+        for (var p : parts) {
+            if ("DONE".equals(p.status())) {
+                done++;
+                if (p.startedAt() != null && p.finishedAt() != null) {
+                    busyMillis += Duration.between(p.startedAt(), p.finishedAt()).toMillis();
+                }
+            } else if ("RUNNING".equals(p.status())) {
+                running++;
+            }
+            checked += p.paymentsChecked();
+            violations += p.violations();
+        }
+        var from = parts.stream().map(PartitionedReconciliation.Partition::from).filter(Objects::nonNull).min(Instant::compareTo).orElse(null);
+        var to = parts.stream().map(PartitionedReconciliation.Partition::to).filter(Objects::nonNull).max(Instant::compareTo).orElse(null);
+        return new RunSummary(runId, from, to, parts.size(), done, running, checked, violations,
+                busyMillis == 0 ? null : checked * 1000.0 / busyMillis);
+    }
+}
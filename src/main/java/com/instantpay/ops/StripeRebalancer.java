@@ -0,0 +1,41 @@
+package com.instantpay.ops;
+
+import com.instantpay.domain.port.out.BalanceStripesPort;
+import net.javacrumbs.shedlock.spring.annotation.SchedulerLock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Periodically evens out the stripes of every striped account, so that most debits are covered by a
+ * single stripe. One short transaction per account; only one node sweeps at a time (ShedLock).
+ */
+@Component
+@Profile("!memory")
+public class StripeRebalancer {
+    private static final Logger log = LoggerFactory.getLogger(StripeRebalancer.class);
+
+    private final BalanceStripesPort stripes;
+    private final TransactionTemplate tx;
+
+    public StripeRebalancer(BalanceStripesPort stripes, PlatformTransactionManager txManager) {
+        this.stripes = stripes;
+        this.tx = new TransactionTemplate(txManager);
+    }
+
+    @Scheduled(fixedDelayString = "${app.payments.striping.rebalance-interval:PT1M}")
+    @SchedulerLock(name = "stripe-rebalance", lockAtMostFor = "PT5M")
+    public void rebalance() {
+        for (var iban : stripes.stripedIbans()) {
+            try {
+                tx.executeWithoutResult(status -> stripes.rebalance(iban));
+            } catch (RuntimeException e) {
+                log.warn("Stripe rebalance failed for {}", iban, e);
+            }
+        }
+    }
+}
@@ -4,3 +4,73 @@ CREATE TABLE IF NOT EXISTS shedlock (
   locked_at    TIMESTAMP    NOT NULL,
   locked_by    VARCHAR(255) NOT NULL
 );
+
+-- Async accept mode: payments accepted (CREATED) and waiting for a settlement worker
+-- A payment whose settlement failed for a non-business reason stays queued, claimable again after not_before
+CREATE TABLE IF NOT EXISTS settlement_queue (
+  payment_id   UUID         NOT NULL PRIMARY KEY,
+  enqueued_at  TIMESTAMPTZ  NOT NULL DEFAULT now(),
+  attempts     INT          NOT NULL DEFAULT 0,
+  not_before   TIMESTAMPTZ  NOT NULL DEFAULT now()
+);
+ALTER TABLE settlement_queue ADD COLUMN IF NOT EXISTS attempts INT NOT NULL DEFAULT 0;
+ALTER TABLE settlement_queue ADD COLUMN IF NOT EXISTS not_before TIMESTAMPTZ NOT NULL DEFAULT now();
+CREATE INDEX IF NOT EXISTS ix_settlement_queue_enqueued_at ON settlement_queue (enqueued_at);
+
+-- Balance striping: sub-balances of designated hot accounts (app.payments.striping.accounts).
+-- Logical balance = accounts.balance + SUM(account_stripes.balance)
+CREATE TABLE IF NOT EXISTS account_stripes (
+  account_id  UUID           NOT NULL,
+  stripe      INT            NOT NULL,
+  balance     NUMERIC(18,2)  NOT NULL DEFAULT 0,
+  PRIMARY KEY (account_id, stripe)
+);
+
+-- Credit journal: credits to receive-mostly accounts (app.payments.credit-journal.accounts) not yet
+-- folded into accounts.balance. Logical balance = accounts.balance + SUM(pending_credits.amount)
+CREATE TABLE IF NOT EXISTS pending_credits (
+  id          BIGSERIAL      PRIMARY KEY,
+  account_id  UUID           NOT NULL,
+  payment_id  UUID           NOT NULL,
+  amount      NUMERIC(18,2)  NOT NULL,
+  created_at  TIMESTAMPTZ    NOT NULL DEFAULT now()
+);
+CREATE INDEX IF NOT EXISTS ix_pending_credits_account ON pending_credits (account_id);
+
+-- Reconciliation high-watermarks: payments finished (completed_at) up to here have been checked
+CREATE TABLE IF NOT EXISTS recon_watermarks (
+  name       VARCHAR(64)  NOT NULL PRIMARY KEY,
+  watermark  TIMESTAMPTZ  NOT NULL
+);
+
+-- Partitioned reconciliation runs (re-verification of a time range, see /actuator/reconciliation).
+-- Each partition is claimed through its own ShedLock lock by whichever node gets it first
+CREATE TABLE IF NOT EXISTS recon_partitions (
+  run_id            UUID          NOT NULL,
+  partition_no      INT           NOT NULL,
+  range_from        TIMESTAMPTZ   NOT NULL,
+  range_to          TIMESTAMPTZ   NOT NULL,
+  status            VARCHAR(16)   NOT NULL DEFAULT 'PENDING',   -- PENDING | RUNNING | DONE
+  claimed_by        VARCHAR(255),
+  started_at        TIMESTAMPTZ,
+  finished_at       TIMESTAMPTZ,
+  payments_checked  BIGINT        NOT NULL DEFAULT 0,
+  violations        BIGINT        NOT NULL DEFAULT 0,
+  sample_ids        TEXT,
+  PRIMARY KEY (run_id, partition_no)
+);
+CREATE INDEX IF NOT EXISTS ix_recon_partitions_open ON recon_partitions (run_id, partition_no) WHERE status <> 'DONE';
+
+-- Balance checkpoints: ledger balance of an account up to a ledger position (transactions.seq), so
+-- balance checks only read the legs after it. Moved forward in the background by BalanceCheckpointer
+CREATE TABLE IF NOT EXISTS balance_checkpoints (
+  account_id    UUID           NOT NULL PRIMARY KEY,
+  position_seq  BIGINT         NOT NULL,
+  balance       NUMERIC(18,2)  NOT NULL,
+  taken_at      TIMESTAMPTZ    NOT NULL
+);
+-- Checkpoints positioned by (created_at, id) do not line up with seq order; they are retaken from the start
+ALTER TABLE balance_checkpoints ADD COLUMN IF NOT EXISTS position_seq BIGINT;
+DELETE FROM balance_checkpoints WHERE position_seq IS NULL;
+ALTER TABLE balance_checkpoints DROP COLUMN IF EXISTS position_created_at, DROP COLUMN IF EXISTS position_id;
+ALTER TABLE balance_checkpoints ALTER COLUMN position_seq SET NOT NULL;
@@ -0,0 +1,58 @@
+package com.instantpay.adapter.in.web;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    final SimpleMeterRegistry meters = new SimpleMeterRegistry();
+
+    @Test
+    void rejectsBeyondTheLimit_andCountsIt() {
+        var limiter = new AdaptiveConcurrencyLimiter("payments", 2, 1, 10, meters);
+
+        assertThat(limiter.tryAcquire()).isTrue();
+        assertThat(limiter.tryAcquire()).isTrue();
+        assertThat(limiter.tryAcquire()).isFalse();
+
+        assertThat(meters.get("payment.admission.rejected").counter().count()).isEqualTo(1);
+        assertThat(meters.get("payment.admission.inflight").gauge().value()).isEqualTo(2);
+    }
+
+    @Test
+    void growsWhileLatencyStaysFlat_andShrinksWhenRequestsQueue() {
+        var limiter = new AdaptiveConcurrencyLimiter("payments", 10, 1, 100, meters);
+        var fast = TimeUnit.MILLISECONDS.toNanos(5);
+
+        for (int i = 0; i < 20; i++) {
+            saturate(limiter);
+            limiter.release(fast, false);
+        }
+        var grown = limiter.limit();
+        assertThat(grown).isGreaterThan(10);
+
+        // Latency x10 at the same load: most of it is queueing
+        for (int i = 0; i < 5; i++) {
+            limiter.release(fast * 10, false);
+        }
+        assertThat(limiter.limit()).isLessThan(grown);
+        assertThat(meters.get("payment.admission.limit").gauge().value()).isEqualTo(limiter.limit());
+    }
+
+    @Test
+    void failures_cutTheLimit_butNotBelowTheMinimum() {
+        var limiter = new AdaptiveConcurrencyLimiter("payments", 10, 5, 100, meters);
+        for (int i = 0; i < 20; i++) {
+            limiter.release(1, true);
+        }
+        assertThat(limiter.limit()).isEqualTo(5);
+    }
+
+    private static void saturate(AdaptiveConcurrencyLimiter limiter) {
+        while (limiter.tryAcquire()) { /* fill every slot so growth is allowed */ }
+    }
+}
@@ -0,0 +1,63 @@
+package com.instantpay.adapter.out.jdbc;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.*;
+
+class PgNotifyCacheInvalidationAdapterTest {
+
+    static final String CACHE = "idempotency";
+
+    // What Postgres sees: "<cache> <13-digit millis>\n" in front of the chunk
+    private static int payloadBytes(String chunk) {
+        return (CACHE + " " + 1_760_000_000_000L + "\n" + chunk).getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    private static int budget() {
+        return PgNotifyCacheInvalidationAdapter.MAX_PAYLOAD - CACHE.length() - 16;
+    }
+
+    @Test
+    void manyKeys_areSplitBelowThe8000ByteLimit_andKeptInOrder() {
+        var keys = new ArrayList<String>();
+        for (int i = 0; i < 1_000; i++) keys.add(UUID.randomUUID().toString());
+
+        var chunks = PgNotifyCacheInvalidationAdapter.chunks(CACHE, keys);
+
+        assertThat(chunks).hasSizeGreaterThan(1);
+        assertThat(chunks).allSatisfy(c -> assertThat(payloadBytes(c)).isLessThan(8000));
+        assertThat(chunks.stream().flatMap(c -> c.lines()).toList()).isEqualTo(keys);
+    }
+
+    @Test
+    void keysFillingTheBudgetExactly_stayInOneChunk_oneByteMoreSplits() {
+        var half = (budget() - 1) / 2;
+        var first = "a".repeat(half);
+        var fits = "b".repeat(budget() - 1 - half);   // first + newline + fits == budget
+
+        assertThat(PgNotifyCacheInvalidationAdapter.chunks(CACHE, List.of(first, fits)))
+                .singleElement()
+                .satisfies(c -> assertThat(payloadBytes(c)).isLessThan(8000));
+        assertThat(PgNotifyCacheInvalidationAdapter.chunks(CACHE, List.of(first, fits + "b")))
+                .containsExactly(first, fits + "b");
+    }
+
+    @Test
+    void budget_countsUtf8Bytes_notCharacters() {
+        var first = "a".repeat(budget() - 2);
+        var twoBytes = "é";                        // newline + 2 bytes: one byte over
+
+        assertThat(PgNotifyCacheInvalidationAdapter.chunks(CACHE, List.of(first, twoBytes))).hasSize(2);
+        assertThat(PgNotifyCacheInvalidationAdapter.chunks(CACHE, List.of(first, "e"))).hasSize(1);
+    }
+
+    @Test
+    void noKeys_noNotification() {
+        assertThat(PgNotifyCacheInvalidationAdapter.chunks(CACHE, List.of())).isEmpty();
+    }
+}
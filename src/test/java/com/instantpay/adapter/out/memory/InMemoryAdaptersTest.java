@@ -0,0 +1,87 @@
+package com.instantpay.adapter.out.memory;
+
+import com.instantpay.domain.model.Payment;
+import com.instantpay.domain.port.in.SendPaymentUseCase.SendPaymentCommand;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+
+class InMemoryAdaptersTest {
+
+    private static final String IBAN = "CH9300762011623852957";
+
+    @Test
+    void lockedAccount_isExclusiveUntilTheTransactionCompletes() throws Exception {
+        var accounts = new InMemoryAccountRepositoryAdapter(List.of(IBAN + "=0.00"));
+        var tx = new TransactionTemplate(new InMemoryTransactionManager());
+        int threads = 8, perThread = 200;
+
+        try (var pool = Executors.newFixedThreadPool(threads)) {
+            var start = new CountDownLatch(1);
+            for (int t = 0; t < threads; t++) {
+                pool.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < perThread; i++) {
+                        tx.executeWithoutResult(s -> {
+                            var a = accounts.findByIbanForUpdate(IBAN).orElseThrow();
+                            accounts.save(a.credit(BigDecimal.ONE));
+                        });
+                    }
+                    return null;
+                });
+            }
+            start.countDown();
+            pool.shutdown();
+            assertThat(pool.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+        }
+
+        // Lost updates would show up as a smaller balance
+        assertThat(accounts.findByIban(IBAN).orElseThrow().balance())
+                .isEqualByComparingTo(BigDecimal.valueOf((long) threads * perThread));
+    }
+
+    @Test
+    void idempotencyKey_isUnique() {
+        var payments = new InMemoryPaymentRepositoryAdapter();
+        var cmd = new SendPaymentCommand("idem-1", IBAN, "CH5604835012345678009", "CHF", BigDecimal.TEN, null, null);
+        var first = Payment.newCreated(cmd, Clock.systemUTC());
+
+        payments.save(first);
+        payments.save(first.completed(Clock.systemUTC())); // same payment, new state
+
+        assertThatThrownBy(() -> payments.save(Payment.newCreated(cmd, Clock.systemUTC())))
+                .isInstanceOf(DataIntegrityViolationException.class);
+        assertThat(payments.findByIdempotencyKey("idem-1")).get()
+                .extracting(Payment::id).isEqualTo(first.id());
+    }
+
+    @Test
+    void rollback_undoesEveryWriteOfTheTransaction() {
+        var creditor = "CH5604835012345678009";
+        var accounts = new InMemoryAccountRepositoryAdapter(List.of(IBAN + "=10.00", creditor + "=0.00"));
+        var payments = new InMemoryPaymentRepositoryAdapter();
+        var tx = new TransactionTemplate(new InMemoryTransactionManager());
+        var cmd = new SendPaymentCommand("idem-1", IBAN, creditor, "CHF", new BigDecimal("30.00"), null, null);
+
+        // Credit first (sorted IBAN order), then the debit finds the balance short
+        assertThatThrownBy(() -> tx.executeWithoutResult(s -> {
+            payments.save(Payment.newCreated(cmd, Clock.systemUTC()));
+            accounts.credit(creditor, new BigDecimal("30.00"));
+            var debit = accounts.debitIfCovered(IBAN, new BigDecimal("30.00")).orElseThrow();
+            if (!debit.applied()) throw new IllegalStateException("insufficient");
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(accounts.findByIban(creditor).orElseThrow().balance()).isEqualByComparingTo("0.00");
+        assertThat(accounts.findByIban(IBAN).orElseThrow().balance()).isEqualByComparingTo("10.00");
+        assertThat(payments.findByIdempotencyKey("idem-1")).isEmpty();
+    }
+}
@@ -0,0 +1,100 @@
+package com.instantpay.domain.usecase;
+
+import com.instantpay.domain.error.AccountNotFoundException;
+import com.instantpay.domain.port.in.SendPaymentUseCase.SendPaymentCommand;
+import com.instantpay.domain.port.out.AccountDirectoryPort;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.BiConsumer;
+
+import static org.assertj.core.api.Assertions.*;
+
+class AccountDirectoryTest {
+
+    static final String DEBTOR = "CH9300762011623852957";
+    static final String CREDITOR = "CH5604835012345678009";
+    static final String UNKNOWN = "CH2801234000123456789";
+
+    final SimpleMeterRegistry meters = new SimpleMeterRegistry();
+    final Map<String, UUID> table = new LinkedHashMap<>(Map.of(DEBTOR, UUID.randomUUID(), CREDITOR, UUID.randomUUID()));
+    final AccountDirectoryPort source = new AccountDirectoryPort() {
+        @Override
+        public void forEachAccount(BiConsumer<String, UUID> ibanAndId) {
+            table.forEach(ibanAndId);
+        }
+
+        @Override
+        public Optional<UUID> findId(String iban) {
+            return Optional.ofNullable(table.get(iban));
+        }
+    };
+    final AccountDirectory directory = new AccountDirectory(source, true, meters);
+
+    private static SendPaymentCommand pay(String debtor, String creditor) {
+        return new SendPaymentCommand("k", debtor, creditor, "CHF", BigDecimal.ONE, null, null);
+    }
+
+    @Test
+    void beforeTheFirstLoad_everythingPasses() {
+        directory.check(pay(UNKNOWN, CREDITOR));
+        assertThat(directory.isLoaded()).isFalse();
+    }
+
+    @Test
+    void unknownDebtorOrCreditor_isRejected_knownOnesPass() {
+        directory.reload();
+
+        directory.check(pay(DEBTOR, CREDITOR));
+        assertThatThrownBy(() -> directory.check(pay(UNKNOWN, CREDITOR)))
+                .isInstanceOf(AccountNotFoundException.class).hasMessageContaining(UNKNOWN);
+        assertThatThrownBy(() -> directory.check(pay(DEBTOR, UNKNOWN)))
+                .isInstanceOf(AccountNotFoundException.class).hasMessageContaining(UNKNOWN);
+        assertThat(meters.counter("payment.account.directory.rejected").count()).isEqualTo(2);
+    }
+
+    @Test
+    void miss_isRejectedWithoutAskingTheTable() {
+        directory.reload();
+        table.put(UNKNOWN, UUID.randomUUID()); // opened but not announced yet
+
+        assertThatThrownBy(() -> directory.check(pay(UNKNOWN, CREDITOR))).isInstanceOf(AccountNotFoundException.class);
+        assertThat(meters.get("payment.account.directory.size").gauge().value()).isEqualTo(2);
+    }
+
+    @Test
+    void reload_picksUpNewAccounts() {
+        directory.reload();
+        table.put(UNKNOWN, UUID.randomUUID());
+        directory.reload();
+
+        directory.check(pay(UNKNOWN, CREDITOR));
+    }
+
+    @Test
+    void evict_rereadsOneIban() {
+        directory.reload();
+        table.put(UNKNOWN, UUID.randomUUID());
+        table.remove(CREDITOR);
+
+        directory.evict(UNKNOWN);
+        directory.evict(CREDITOR);
+
+        directory.check(pay(UNKNOWN, DEBTOR));
+        assertThatThrownBy(() -> directory.check(pay(DEBTOR, CREDITOR))).isInstanceOf(AccountNotFoundException.class);
+    }
+
+    @Test
+    void disabled_neverLoads() {
+        var off = AccountDirectory.disabled(meters);
+        off.reload();
+
+        assertThat(off.isLoaded()).isFalse();
+        off.check(pay(UNKNOWN, UNKNOWN));
+    }
+}
@@ -0,0 +1,73 @@
+package com.instantpay.domain.usecase;
+
+import com.instantpay.domain.error.AccountBusyException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+
+class AccountLocksTest {
+
+    static final String A = "CH9300762011623852957";
+    static final String B = "CH5604835012345678009";
+    static final String C = "CH2801234000123456789";
+
+    final SimpleMeterRegistry meters = new SimpleMeterRegistry();
+
+    @Test
+    void sameAccount_waitsForTheHolder_andTimesOutWith503Hint() {
+        var locks = new AccountLocks(1, Duration.ofMillis(50), meters);
+
+        try (var held = locks.lock(A, B)) {
+            var waiter = CompletableFuture.runAsync(() -> locks.lock(A, C).close(), r -> Thread.ofVirtual().start(r));
+            assertThatThrownBy(() -> waiter.get(5, TimeUnit.SECONDS))
+                    .hasCauseInstanceOf(AccountBusyException.class);
+        }
+        assertThat(meters.counter("payment.account.lock.timeouts").count()).isEqualTo(1);
+
+        // Released: the next caller gets it straight away
+        locks.lock(A, C).close();
+    }
+
+    @Test
+    void queuedWaiters_showUpInTheStripeGauge() throws Exception {
+        var locks = new AccountLocks(1, Duration.ofSeconds(5), meters);
+        var held = locks.lock(A, B);
+        var waiter = CompletableFuture.runAsync(() -> locks.lock(B, C).close(), r -> Thread.ofVirtual().start(r));
+
+        var gauge = meters.get("payment.account.lock.queue").tag("stripe", "0").gauge();
+        var deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (gauge.value() < 1 && System.nanoTime() < deadline) Thread.sleep(1);
+        assertThat(gauge.value()).isEqualTo(1);
+
+        held.close();
+        waiter.get(5, TimeUnit.SECONDS);
+        assertThat(gauge.value()).isZero();
+    }
+
+    @Test
+    void nullSide_isNotLocked() throws Exception {
+        var locks = new AccountLocks(2, Duration.ofMillis(50), meters);
+
+        try (var held = locks.lock(A, null)) {
+            // A hot account on either side never waits for, or holds up, the other side
+            CompletableFuture.runAsync(() -> locks.lock(null, null).close(), r -> Thread.ofVirtual().start(r))
+                    .get(5, TimeUnit.SECONDS);
+            var waiter = CompletableFuture.runAsync(() -> locks.lock(null, A).close(), r -> Thread.ofVirtual().start(r));
+            assertThatThrownBy(() -> waiter.get(5, TimeUnit.SECONDS))
+                    .hasCauseInstanceOf(AccountBusyException.class);
+        }
+    }
+
+    @Test
+    void disabled_neverBlocks() {
+        var locks = AccountLocks.disabled(meters);
+        try (var held = locks.lock(A, B)) {
+            locks.lock(A, B).close();
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.instantpay.domain.usecase;
+
+import com.instantpay.domain.error.AccountNotFoundException;
+import com.instantpay.domain.model.Payment;
+import com.instantpay.domain.model.PaymentStatus;
+import com.instantpay.domain.port.in.SendPaymentUseCase.SendPaymentCommand;
+import com.instantpay.domain.port.out.PaymentEventPublisherPort;
+import com.instantpay.domain.port.out.PaymentRepositoryPort;
+import com.instantpay.domain.port.out.SettlementQueuePort;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class AsyncPaymentAcceptorTest {
+
+    PaymentService paymentService;
+    PaymentRepositoryPort paymentRepo;
+    SettlementQueuePort queue;
+    PaymentEventPublisherPort publisherPort;
+    Clock clock;
+    AsyncPaymentAcceptor acceptor;
+
+    @BeforeEach
+    void setUp() {
+        paymentService = mock(PaymentService.class);
+        paymentRepo = mock(PaymentRepositoryPort.class);
+        queue = mock(SettlementQueuePort.class);
+        publisherPort = mock(PaymentEventPublisherPort.class);
+        clock = Clock.fixed(Instant.parse("2025-01-01T00:00:00Z"), ZoneOffset.UTC);
+        acceptor = new AsyncPaymentAcceptor(paymentService, paymentRepo, queue, publisherPort, clock,
+                IdempotencyCache.disabled(new SimpleMeterRegistry()), TransactionOperations.withoutTransaction());
+        when(paymentRepo.findByIdempotencyKey(any())).thenReturn(Optional.empty());
+    }
+
+    private static SendPaymentCommand cmd() {
+        return new SendPaymentCommand("idem-1", "CH93-0000-0000-0000-0000-0", "CH44-1111-1111-1111-1111-1",
+                "CHF", new BigDecimal("30.00"), null, null);
+    }
+
+    @Test
+    void send_storesTheCreatedPayment_queuesIt_andAnswersAccepted() {
+        var res = acceptor.send(cmd());
+
+        assertThat(res.status()).isEqualTo(PaymentStatus.CREATED);
+        verify(paymentService).admit(cmd());
+        verify(paymentRepo).save(argThat(p -> p.id().equals(res.paymentId()) && p.status() == PaymentStatus.CREATED));
+        verify(queue).enqueue(res.paymentId());
+        verify(publisherPort).publishPaymentCreated(argThat(p -> p.id().equals(res.paymentId())));
+        verifyNoMoreInteractions(queue);
+    }
+
+    @Test
+    void knownKey_isReplayed_withoutQueueingAgain() {
+        var earlier = Payment.newCreated(cmd(), clock).completed(clock);
+        when(paymentRepo.findByIdempotencyKey("idem-1")).thenReturn(Optional.of(earlier));
+
+        var res = acceptor.send(cmd());
+
+        assertThat(res.paymentId()).isEqualTo(earlier.id());
+        assertThat(res.status()).isEqualTo(PaymentStatus.COMPLETED);
+        verify(paymentRepo, never()).save(any());
+        verifyNoInteractions(queue, publisherPort);
+    }
+
+    @Test
+    void concurrentDuplicate_isReplayed() {
+        var winner = Payment.newCreated(cmd(), clock);
+        when(paymentRepo.save(any())).thenThrow(new DuplicateKeyException("uk_payments_idempotency_key"));
+        when(paymentRepo.findByIdempotencyKey("idem-1")).thenReturn(Optional.empty(), Optional.of(winner));
+
+        var res = acceptor.send(cmd());
+
+        assertThat(res.paymentId()).isEqualTo(winner.id());
+        verifyNoInteractions(queue, publisherPort);
+    }
+
+    @Test
+    void rejectedAdmission_acceptsNothing() {
+        doThrow(new AccountNotFoundException("Account not found: CH44-1111-1111-1111-1111-1")).when(paymentService).admit(any());
+
+        assertThatThrownBy(() -> acceptor.send(cmd())).isInstanceOf(AccountNotFoundException.class);
+        verifyNoInteractions(paymentRepo, queue, publisherPort);
+    }
+}
@@ -0,0 +1,47 @@
+package com.instantpay.domain.usecase;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CacheInvalidationsTest {
+
+    final Clock clock = Clock.fixed(Instant.parse("2025-01-01T00:00:01Z"), ZoneOffset.UTC);
+    final SimpleMeterRegistry meters = new SimpleMeterRegistry();
+    final CacheInvalidations invalidations = new CacheInvalidations(clock, meters);
+
+    @Test
+    void keysGoToTheNamedCache_andTheLagIsRecorded() {
+        var evicted = new ArrayList<String>();
+        invalidations.register("accounts", evicted::add, () -> { });
+
+        invalidations.invalidate("accounts", List.of("CH93", "CH56"), Instant.parse("2025-01-01T00:00:00.750Z"));
+        invalidations.invalidate("unknown", List.of("x"), null);
+
+        assertThat(evicted).containsExactly("CH93", "CH56");
+        var lag = meters.timer("payment.cache.invalidation.lag", "cache", "accounts");
+        assertThat(lag.count()).isEqualTo(1);
+        assertThat(lag.totalTime(TimeUnit.MILLISECONDS)).isEqualTo(250);
+        assertThat(meters.counter("payment.cache.invalidation.received", "cache", "accounts").count()).isEqualTo(2);
+    }
+
+    @Test
+    void resync_reachesEveryCache_evenWhenOneFails() {
+        var resynced = new ArrayList<String>();
+        invalidations.register("a", k -> { }, () -> { throw new IllegalStateException("db down"); });
+        invalidations.register("b", k -> { }, () -> resynced.add("b"));
+
+        invalidations.resync();
+
+        assertThat(resynced).containsExactly("b");
+        assertThat(meters.counter("payment.cache.invalidation.resyncs").count()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,107 @@
+package com.instantpay.domain.usecase;
+
+import com.instantpay.domain.error.InsufficientFundsException;
+import com.instantpay.domain.error.SettlementPendingException;
+import com.instantpay.domain.model.PaymentStatus;
+import com.instantpay.domain.port.in.SendPaymentUseCase.Result;
+import com.instantpay.domain.port.in.SendPaymentUseCase.SendPaymentCommand;
+import com.instantpay.domain.usecase.PaymentService.Settled;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class GroupCommitterTest {
+
+    PaymentService service;
+    SimpleMeterRegistry meters;
+    GroupCommitter committer;
+
+    @BeforeEach
+    void setUp() {
+        service = mock(PaymentService.class);
+        meters = new SimpleMeterRegistry();
+        // A long window so every concurrent send below lands in the same group
+        committer = new GroupCommitter(service, Duration.ofMillis(200), 10, 1, Duration.ofSeconds(5), meters);
+    }
+
+    @AfterEach
+    void tearDown() {
+        committer.close();
+    }
+
+    private static SendPaymentCommand cmd(String key, String amount) {
+        return new SendPaymentCommand(key, "CH93-0000-0000-0000-0000-0", "CH44-1111-1111-1111-1111-1",
+                "CHF", new BigDecimal(amount), null, null);
+    }
+
+    @Test
+    void concurrentSends_shareOneTransaction_andGetTheirOwnOutcome() throws Exception {
+        when(service.settleAll(any())).thenAnswer(inv -> {
+            List<SendPaymentCommand> cmds = inv.getArgument(0);
+            return cmds.stream().map(c -> c.amount().compareTo(BigDecimal.TEN) > 0
+                    ? Settled.failed(new InsufficientFundsException("Insufficient balance on source account."))
+                    : Settled.of(new Result(UUID.randomUUID(), PaymentStatus.COMPLETED, "Payment completed"))).toList();
+        });
+
+        try (var pool = Executors.newFixedThreadPool(4)) {
+            var futures = new ArrayList<CompletableFuture<Result>>();
+            for (int i = 0; i < 3; i++) {
+                var c = cmd("ok-" + i, "5.00");
+                futures.add(CompletableFuture.supplyAsync(() -> committer.send(c), pool));
+            }
+            var tooMuch = CompletableFuture.supplyAsync(() -> committer.send(cmd("big", "50.00")), pool);
+
+            for (var f : futures) {
+                assertThat(f.get().status()).isEqualTo(PaymentStatus.COMPLETED);
+            }
+            assertThatThrownBy(tooMuch::get).hasCauseInstanceOf(InsufficientFundsException.class);
+        }
+
+        verify(service, times(1)).settleAll(argThat(l -> l.size() == 4));
+        assertThat(meters.summary("payment.group.size").max()).isEqualTo(4);
+    }
+
+    @Test
+    void failedGroup_isReplayedOnePaymentPerTransaction() {
+        when(service.settleAll(any())).thenThrow(new IllegalStateException("deadlock detected"));
+        when(service.resend(any())).thenReturn(new Result(UUID.randomUUID(), PaymentStatus.COMPLETED, "Payment completed"));
+
+        var res = committer.send(cmd("k-1", "5.00"));
+
+        assertThat(res.status()).isEqualTo(PaymentStatus.COMPLETED);
+        verify(service).resend(any());
+        verify(service).admit(any()); // once, when queued
+    }
+
+    @Test
+    void groupNotCommittedInTime_answersRetryWithTheSameKey() {
+        var slow = new GroupCommitter(service, Duration.ZERO, 10, 1, Duration.ofMillis(50), meters);
+        var release = new CompletableFuture<Void>();
+        when(service.settleAll(any())).thenAnswer(inv -> {
+            release.join();
+            return List.of(Settled.of(new Result(UUID.randomUUID(), PaymentStatus.COMPLETED, "Payment completed")));
+        });
+        try {
+            assertThatThrownBy(() -> slow.send(cmd("k-slow", "5.00")))
+                    .isInstanceOf(SettlementPendingException.class)
+                    .hasMessageContaining("same idempotency key")
+                    .satisfies(e -> assertThat(((SettlementPendingException) e).retryAfter()).isPositive());
+        } finally {
+            release.complete(null);
+            slow.close();
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.instantpay.domain.usecase;
+
+import com.instantpay.domain.model.Payment;
+import com.instantpay.domain.model.PaymentStatus;
+import com.instantpay.domain.port.in.SendPaymentUseCase.SendPaymentCommand;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IdempotencyCacheTest {
+
+    final Clock clock = Clock.fixed(Instant.parse("2025-01-01T00:00:00Z"), ZoneOffset.UTC);
+    final SimpleMeterRegistry meters = new SimpleMeterRegistry();
+
+    @AfterEach
+    void clearSynchronization() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private Payment payment(String key) {
+        return Payment.newCreated(new SendPaymentCommand(key, "CH93-0000-0000-0000-0000-0", "CH44-1111-1111-1111-1111-1",
+                "CHF", BigDecimal.TEN, null, null), clock).completed(clock);
+    }
+
+    @Test
+    void entries_appearOnlyAfterCommit_andNeverOnRollback() {
+        var cache = new IdempotencyCache(10, Duration.ofMinutes(1), meters);
+
+        TransactionSynchronizationManager.initSynchronization();
+        cache.rememberOnCommit(payment("rolled-back"));
+        assertThat(cache.lookup("rolled-back")).isEmpty();
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        TransactionSynchronizationManager.clearSynchronization();
+        assertThat(cache.lookup("rolled-back")).isEmpty();
+
+        TransactionSynchronizationManager.initSynchronization();
+        var committed = payment("committed");
+        cache.rememberOnCommit(committed);
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+        assertThat(cache.lookup("committed")).hasValueSatisfying(r -> {
+            assertThat(r.paymentId()).isEqualTo(committed.id());
+            assertThat(r.status()).isEqualTo(PaymentStatus.COMPLETED);
+        });
+    }
+
+    @Test
+    void oldestEntries_areEvicted_andExpiredOnesMiss() throws InterruptedException {
+        var bounded = new IdempotencyCache(2, Duration.ofMinutes(1), meters);
+        bounded.rememberOnCommit(payment("k1"));
+        bounded.rememberOnCommit(payment("k2"));
+        bounded.rememberOnCommit(payment("k3"));
+
+        assertThat(bounded.size()).isEqualTo(2);
+        assertThat(bounded.lookup("k1")).isEmpty();
+        assertThat(bounded.lookup("k3")).isPresent();
+
+        var shortLived = new IdempotencyCache(10, Duration.ofMillis(1), new SimpleMeterRegistry());
+        shortLived.rememberOnCommit(payment("k1"));
+        Thread.sleep(5);
+        assertThat(shortLived.lookup("k1")).isEmpty();
+    }
+
+    @Test
+    void invalidations_evictHere_andAreOnlyAnnouncedWhenEnabled() {
+        var announced = new ArrayList<String>();
+        var cache = new IdempotencyCache(10, Duration.ofMinutes(1), (name, keys) -> announced.addAll(keys), meters);
+        cache.rememberOnCommit(payment("k-1"));
+        cache.rememberOnCommit(payment("k-2"));
+
+        cache.evict("k-1");
+        assertThat(cache.lookup("k-1")).isEmpty();
+        assertThat(cache.lookup("k-2")).isPresent();
+        cache.evictAll();
+        assertThat(cache.lookup("k-2")).isEmpty();
+
+        cache.invalidateOnOtherNodes(List.of("k-1"));
+        IdempotencyCache.disabled(meters).invalidateOnOtherNodes(List.of("k-2"));
+        assertThat(announced).containsExactly("k-1");
+    }
+}
@@ -6,14 +6,20 @@ import com.instantpay.domain.model.Payment;
 import com.instantpay.domain.model.PaymentStatus;
 import com.instantpay.domain.port.in.SendPaymentUseCase.SendPaymentCommand;
 import com.instantpay.domain.port.out.*;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionOperations;
 
 import java.math.BigDecimal;
 import java.time.Clock;
+import java.time.Duration;
 import java.time.Instant;
 import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.*;
@@ -23,9 +29,15 @@ class PaymentServiceTest {
 
     PaymentRepositoryPort paymentRepo;
     AccountRepositoryPort accountRepo;
+    BalanceStripesPort stripes;
+    CreditJournalPort journal;
     TransactionRepositoryPort txRepo;
     PaymentEventPublisherPort publisherPort;
     Clock clock;
+    SimpleMeterRegistry meters;
+    IdempotencyCache replays;
+    DebtorLimits limits;
+    AccountDirectory directory;
 
     PaymentService service;
 
@@ -33,10 +45,16 @@ class PaymentServiceTest {
     void setUp() {
         paymentRepo = mock(PaymentRepositoryPort.class);
         accountRepo = mock(AccountRepositoryPort.class);
+        stripes = mock(BalanceStripesPort.class);
+        journal = mock(CreditJournalPort.class);
         txRepo = mock(TransactionRepositoryPort.class);
         publisherPort = mock(PaymentEventPublisherPort.class);
         clock = Clock.fixed(Instant.parse("2025-01-01T00:00:00Z"), ZoneOffset.UTC);
-        service = new PaymentService(paymentRepo, accountRepo, txRepo, publisherPort, clock);
+        meters = new SimpleMeterRegistry();
+        replays = IdempotencyCache.disabled(meters);
+        limits = DebtorLimits.disabled(meters);
+        directory = AccountDirectory.disabled(meters);
+        service = new PaymentService(paymentRepo, accountRepo, stripes, journal, txRepo, publisherPort, clock, meters, TransferPolicy.of(TransferMode.PESSIMISTIC), replays, AccountLocks.disabled(meters), limits, directory, TransactionOperations.withoutTransaction());
     }
 
     private SendPaymentCommand cmd(BigDecimal amount) {
@@ -108,6 +126,7 @@ class PaymentServiceTest {
 
         verify(paymentRepo, never()).save(any(Payment.class));
         verifyNoInteractions(txRepo, publisherPort);
+        assertThat(meters.counter("payment.send.outcome", "result", "insufficient_funds").count()).isEqualTo(1);
     }
 
     @Test
@@ -129,8 +148,288 @@ class PaymentServiceTest {
         verify(paymentRepo, atLeastOnce()).save(any(Payment.class));
         verify(accountRepo).save(argThat(a -> a.iban().equals(debtor.iban()) && a.balance().compareTo(new BigDecimal("70.00")) == 0));
         verify(accountRepo).save(argThat(a -> a.iban().equals(creditor.iban()) && a.balance().compareTo(new BigDecimal("50.00")) == 0));
-        verify(txRepo, times(2)).append(any());
+        verify(txRepo).appendAll(argThat(l -> l.size() == 2
+                && l.get(0).amount().compareTo(new BigDecimal("-30.00")) == 0
+                && l.get(1).balanceAfter().compareTo(new BigDecimal("50.00")) == 0));
+        verify(txRepo, never()).append(any());
         verify(publisherPort).publishPaymentCreated(any(Payment.class));
         verify(publisherPort).publishPaymentCompleted(any(Payment.class));
+
+        assertThat(meters.counter("payment.send.outcome", "result", "completed").count()).isEqualTo(1);
+        assertThat(meters.timer("payment.send.lock.wait").count()).isEqualTo(2);
+        assertThat(meters.timer("payment.send.stage", "stage", "ledger_append").count()).isEqualTo(1);
+    }
+
+    @Test
+    void committedPayment_isReplayedFromCache_withoutTouchingTheRepositories() {
+        replays = new IdempotencyCache(10, Duration.ofMinutes(1), meters);
+        service = new PaymentService(paymentRepo, accountRepo, stripes, journal, txRepo, publisherPort, clock, meters, TransferPolicy.of(TransferMode.PESSIMISTIC), replays, AccountLocks.disabled(meters), limits, directory, TransactionOperations.withoutTransaction());
+        when(paymentRepo.findByIdempotencyKey("idem-1")).thenReturn(Optional.empty());
+        var debtor = new Account(UUID.randomUUID(), "CH93-0000-0000-0000-0000-0", new BigDecimal("100.00"), 1);
+        var creditor = new Account(UUID.randomUUID(), "CH44-1111-1111-1111-1111-1", new BigDecimal("20.00"), 1);
+        when(accountRepo.findByIbanForUpdate(creditor.iban())).thenReturn(Optional.of(creditor));
+        when(accountRepo.findByIbanForUpdate(debtor.iban())).thenReturn(Optional.of(debtor));
+
+        var first = service.send(cmd(new BigDecimal("30.00")));
+        clearInvocations(paymentRepo, accountRepo, txRepo, publisherPort);
+        var replay = service.send(cmd(new BigDecimal("30.00")));
+
+        assertThat(replay.paymentId()).isEqualTo(first.paymentId());
+        assertThat(replay.status()).isEqualTo(PaymentStatus.COMPLETED);
+        assertThat(replay.message()).contains("Idempotent replay");
+        verifyNoInteractions(paymentRepo, accountRepo, txRepo, publisherPort);
+        assertThat(meters.counter("payment.idempotency.cache", "result", "hit").count()).isEqualTo(1);
+        assertThat(meters.counter("payment.idempotency.cache", "result", "miss").count()).isEqualTo(1);
+    }
+
+    @Test
+    void debtorOverItsRateLimit_isRejected_beforeAnyDatabaseWork() {
+        limits = new DebtorLimits(DebtorLimits.parseTiers(List.of("standard=1:1:-:PT1M")), "standard", Map.of(), meters);
+        service = new PaymentService(paymentRepo, accountRepo, stripes, journal, txRepo, publisherPort, clock, meters, TransferPolicy.of(TransferMode.PESSIMISTIC), replays, AccountLocks.disabled(meters), limits, directory, TransactionOperations.withoutTransaction());
+        when(paymentRepo.findByIdempotencyKey(any())).thenReturn(Optional.empty());
+        var debtor = new Account(UUID.randomUUID(), "CH93-0000-0000-0000-0000-0", new BigDecimal("100.00"), 1);
+        var creditor = new Account(UUID.randomUUID(), "CH44-1111-1111-1111-1111-1", new BigDecimal("0.00"), 1);
+        when(accountRepo.findByIbanForUpdate(debtor.iban())).thenReturn(Optional.of(debtor));
+        when(accountRepo.findByIbanForUpdate(creditor.iban())).thenReturn(Optional.of(creditor));
+        doAnswer(inv -> inv.getArgument(0)).when(paymentRepo).save(any(Payment.class));
+
+        service.send(cmd(BigDecimal.ONE));
+        clearInvocations(paymentRepo, accountRepo);
+
+        assertThatThrownBy(() -> service.send(new SendPaymentCommand("idem-2", debtor.iban(), creditor.iban(), "CHF", BigDecimal.ONE, null, null)))
+                .isInstanceOf(DebtorLimitExceededException.class)
+                .isInstanceOf(PaymentRejectedException.class);
+        verifyNoInteractions(paymentRepo, accountRepo);
+        assertThat(meters.counter("payment.debtor.limit.rejected", "limit", "rate", "tier", "standard").count()).isEqualTo(1);
+    }
+
+    @Test
+    void batch_itemsOverTheDebtorLimit_neverReachTheTransaction() {
+        limits = new DebtorLimits(DebtorLimits.parseTiers(List.of("standard=1:1:-:PT1M")), "standard", Map.of(), meters);
+        service = new PaymentService(paymentRepo, accountRepo, stripes, journal, txRepo, publisherPort, clock, meters, TransferPolicy.of(TransferMode.PESSIMISTIC), replays, AccountLocks.disabled(meters), limits, directory, TransactionOperations.withoutTransaction());
+        var debtor = new Account(UUID.randomUUID(), "CH93-0000-0000-0000-0000-0", new BigDecimal("50.00"), 1);
+        var creditor = new Account(UUID.randomUUID(), "CH44-1111-1111-1111-1111-1", new BigDecimal("0.00"), 1);
+        when(paymentRepo.findAllByIdempotencyKeys(any())).thenReturn(List.of());
+        when(accountRepo.findByIbanForUpdate(creditor.iban())).thenReturn(Optional.of(creditor));
+        when(accountRepo.findByIbanForUpdate(debtor.iban())).thenReturn(Optional.of(debtor));
+
+        var first = new SendPaymentCommand("b-1", debtor.iban(), creditor.iban(), "CHF", BigDecimal.ONE, null, null);
+        var second = new SendPaymentCommand("b-2", debtor.iban(), creditor.iban(), "CHF", BigDecimal.ONE, null, null);
+
+        var res = service.sendBatch(List.of(first, second, second));
+
+        assertThat(res).extracting(r -> r.status())
+                .containsExactly(PaymentStatus.COMPLETED, PaymentStatus.FAILED, PaymentStatus.FAILED);
+        assertThat(res.get(1).message()).contains("rate limit");
+        assertThat(res.get(2).message()).contains("rate limit");
+        verify(paymentRepo).findAllByIdempotencyKeys(Set.of("b-1"));
+        assertThat(meters.counter("payment.debtor.limit.rejected", "limit", "rate", "tier", "standard").count()).isEqualTo(1);
+    }
+
+    @Test
+    void batch_locksOnceInSortedOrder_appliesInOrder_andReportsPerItem() {
+        var debtor = new Account(UUID.randomUUID(), "CH93-0000-0000-0000-0000-0", new BigDecimal("50.00"), 1);
+        var creditor = new Account(UUID.randomUUID(), "CH44-1111-1111-1111-1111-1", new BigDecimal("0.00"), 1);
+        var replayed = Payment.newCreated(cmd(BigDecimal.ONE), clock).completed(clock);
+
+        when(paymentRepo.findAllByIdempotencyKeys(any())).thenReturn(List.of(replayed));
+        when(accountRepo.findByIbanForUpdate(creditor.iban())).thenReturn(Optional.of(creditor));
+        when(accountRepo.findByIbanForUpdate(debtor.iban())).thenReturn(Optional.of(debtor));
+
+        var ok = new SendPaymentCommand("b-1", debtor.iban(), creditor.iban(), "CHF", new BigDecimal("30.00"), null, null);
+        var tooMuch = new SendPaymentCommand("b-2", debtor.iban(), creditor.iban(), "CHF", new BigDecimal("30.00"), null, null);
+        var dup = new SendPaymentCommand("b-1", debtor.iban(), creditor.iban(), "CHF", new BigDecimal("30.00"), null, null);
+
+        var res = service.sendBatch(List.of(ok, tooMuch, cmd(BigDecimal.ONE), dup));
+
+        assertThat(res).extracting(r -> r.status())
+                .containsExactly(PaymentStatus.COMPLETED, PaymentStatus.FAILED, PaymentStatus.COMPLETED, PaymentStatus.COMPLETED);
+        assertThat(res.get(1).paymentId()).isNull();
+        assertThat(res.get(1).message()).contains("Insufficient");
+        assertThat(res.get(2).paymentId()).isEqualTo(replayed.id());
+        assertThat(res.get(3).paymentId()).isEqualTo(res.get(0).paymentId());
+        assertThat(res.get(3).message()).contains("Idempotent replay");
+
+        var order = inOrder(accountRepo);
+        order.verify(accountRepo).findByIbanForUpdate(creditor.iban());
+        order.verify(accountRepo).findByIbanForUpdate(debtor.iban());
+        verify(accountRepo, times(2)).findByIbanForUpdate(any());
+        verify(accountRepo).save(argThat(a -> a.iban().equals(debtor.iban()) && a.balance().compareTo(new BigDecimal("20.00")) == 0));
+        verify(paymentRepo, times(1)).save(any(Payment.class));
+        verify(txRepo).appendAll(argThat(l -> l.size() == 2));
+        verify(txRepo, never()).append(any());
+
+        // Grouped payments show up in the same meters as single ones, one count per payment
+        assertThat(meters.counter("payment.send.outcome", "result", "completed").count()).isEqualTo(1);
+        assertThat(meters.counter("payment.send.outcome", "result", "insufficient_funds").count()).isEqualTo(1);
+        assertThat(meters.counter("payment.send.outcome", "result", "idempotent_replay").count()).isEqualTo(2);
+        assertThat(meters.timer("payment.send.stage", "stage", "lock").count()).isEqualTo(2);
+        assertThat(meters.timer("payment.send.stage", "stage", "ledger_append").count()).isEqualTo(1);
+        assertThat(meters.timer("payment.send").count()).isEqualTo(4);
+    }
+
+    @Test
+    void conditionalMode_debitsAndCreditsWithoutLocking_inSortedIbanOrder() {
+        service = new PaymentService(paymentRepo, accountRepo, stripes, journal, txRepo, publisherPort, clock, meters, TransferPolicy.of(TransferMode.CONDITIONAL), replays, AccountLocks.disabled(meters), limits, directory, TransactionOperations.withoutTransaction());
+        when(paymentRepo.findByIdempotencyKey("idem-1")).thenReturn(Optional.empty());
+
+        var debtor = new Account(UUID.randomUUID(), "CH93-0000-0000-0000-0000-0", new BigDecimal("70.00"), 2);
+        var creditor = new Account(UUID.randomUUID(), "CH44-1111-1111-1111-1111-1", new BigDecimal("50.00"), 2);
+        when(accountRepo.debitIfCovered(debtor.iban(), new BigDecimal("30.00")))
+                .thenReturn(Optional.of(new AccountRepositoryPort.ConditionalDebit(debtor, true)));
+        when(accountRepo.credit(creditor.iban(), new BigDecimal("30.00"))).thenReturn(Optional.of(creditor));
+
+        var res = service.send(cmd(new BigDecimal("30.00")));
+
+        assertThat(res.status()).isEqualTo(PaymentStatus.COMPLETED);
+        var order = inOrder(accountRepo);
+        order.verify(accountRepo).credit(creditor.iban(), new BigDecimal("30.00"));
+        order.verify(accountRepo).debitIfCovered(debtor.iban(), new BigDecimal("30.00"));
+        verify(accountRepo, never()).findByIbanForUpdate(any());
+        verify(accountRepo, never()).save(any());
+        verify(txRepo).appendAll(argThat(l -> l.get(0).balanceAfter().compareTo(new BigDecimal("70.00")) == 0
+                && l.get(1).balanceAfter().compareTo(new BigDecimal("50.00")) == 0));
+    }
+
+    @Test
+    void conditionalMode_uncoveredDebit_isInsufficientFunds() {
+        service = new PaymentService(paymentRepo, accountRepo, stripes, journal, txRepo, publisherPort, clock, meters, TransferPolicy.of(TransferMode.CONDITIONAL), replays, AccountLocks.disabled(meters), limits, directory, TransactionOperations.withoutTransaction());
+        when(paymentRepo.findByIdempotencyKey("idem-1")).thenReturn(Optional.empty());
+
+        var debtor = new Account(UUID.randomUUID(), "CH93-0000-0000-0000-0000-0", new BigDecimal("5.00"), 1);
+        var creditor = new Account(UUID.randomUUID(), "CH44-1111-1111-1111-1111-1", new BigDecimal("10.00"), 2);
+        when(accountRepo.credit(any(), any())).thenReturn(Optional.of(creditor));
+        when(accountRepo.debitIfCovered(any(), any()))
+                .thenReturn(Optional.of(new AccountRepositoryPort.ConditionalDebit(debtor, false)));
+
+        assertThatThrownBy(() -> service.send(cmd(new BigDecimal("10.00"))))
+                .isInstanceOf(InsufficientFundsException.class);
+        verifyNoInteractions(txRepo, publisherPort);
+    }
+
+    @Test
+    void stripedCreditor_isCreditedThroughAStripe_withoutLockingItsAccountRow() {
+        when(paymentRepo.findByIdempotencyKey("idem-1")).thenReturn(Optional.empty());
+        var debtor = new Account(UUID.randomUUID(), "CH93-0000-0000-0000-0000-0", new BigDecimal("100.00"), 1);
+        var merchant = new Account(UUID.randomUUID(), "CH44-1111-1111-1111-1111-1", new BigDecimal("5030.00"), 7);
+        when(stripes.isStriped(merchant.iban())).thenReturn(true);
+        when(stripes.credit(merchant.iban(), new BigDecimal("30.00"))).thenReturn(Optional.of(merchant));
+        when(accountRepo.findByIbanForUpdate(debtor.iban())).thenReturn(Optional.of(debtor));
+
+        var res = service.send(cmd(new BigDecimal("30.00")));
+
+        assertThat(res.status()).isEqualTo(PaymentStatus.COMPLETED);
+        verify(accountRepo, never()).findByIbanForUpdate(merchant.iban());
+        verify(accountRepo).save(argThat(a -> a.iban().equals(debtor.iban()) && a.balance().compareTo(new BigDecimal("70.00")) == 0));
+        verify(accountRepo, never()).save(argThat(a -> a.iban().equals(merchant.iban())));
+        // The merchant's row is not locked: its leg is numbered later
+        verify(txRepo).appendAll(argThat(l -> l.size() == 1 && l.get(0).accountId().equals(debtor.id())));
+        verify(txRepo).appendUnsequenced(argThat(l -> l.size() == 1 && l.get(0).balanceAfter().compareTo(new BigDecimal("5030.00")) == 0));
+    }
+
+    @Test
+    void batch_stripedDebtorWithoutCover_failsThatItemOnly() {
+        var treasury = new Account(UUID.randomUUID(), "CH93-0000-0000-0000-0000-0", new BigDecimal("10.00"), 3);
+        var creditor = new Account(UUID.randomUUID(), "CH44-1111-1111-1111-1111-1", new BigDecimal("0.00"), 1);
+        when(stripes.isStriped(treasury.iban())).thenReturn(true);
+        when(stripes.debit(treasury.iban(), new BigDecimal("30.00")))
+                .thenReturn(Optional.of(new AccountRepositoryPort.ConditionalDebit(treasury, false)));
+        when(stripes.debit(treasury.iban(), new BigDecimal("5.00")))
+                .thenReturn(Optional.of(new AccountRepositoryPort.ConditionalDebit(
+                        new Account(treasury.id(), treasury.iban(), new BigDecimal("5.00"), 4), true)));
+        when(accountRepo.findByIbanForUpdate(creditor.iban())).thenReturn(Optional.of(creditor));
+
+        var tooMuch = new SendPaymentCommand("s-1", treasury.iban(), creditor.iban(), "CHF", new BigDecimal("30.00"), null, null);
+        var ok = new SendPaymentCommand("s-2", treasury.iban(), creditor.iban(), "CHF", new BigDecimal("5.00"), null, null);
+        var res = service.sendBatch(List.of(tooMuch, ok));
+
+        assertThat(res).extracting(r -> r.status()).containsExactly(PaymentStatus.FAILED, PaymentStatus.COMPLETED);
+        verify(accountRepo, never()).findByIbanForUpdate(treasury.iban());
+        verify(accountRepo).save(argThat(a -> a.iban().equals(creditor.iban()) && a.balance().compareTo(new BigDecimal("5.00")) == 0));
+        verify(accountRepo, never()).save(argThat(a -> a.iban().equals(treasury.iban())));
+    }
+
+    @Test
+    void journaledCreditor_getsAPendingCredit_andItsDebitsFoldCreditsFirst() {
+        when(paymentRepo.findByIdempotencyKey(any())).thenReturn(Optional.empty());
+        var debtor = new Account(UUID.randomUUID(), "CH93-0000-0000-0000-0000-0", new BigDecimal("100.00"), 1);
+        var merchant = new Account(UUID.randomUUID(), "CH44-1111-1111-1111-1111-1", new BigDecimal("0.00"), 1);
+        when(journal.isJournaled(merchant.iban())).thenReturn(true);
+        when(journal.append(eq(merchant.iban()), any(), eq(new BigDecimal("30.00"))))
+                .thenReturn(Optional.of(new Account(merchant.id(), merchant.iban(), new BigDecimal("30.00"), 1)));
+        when(accountRepo.findByIbanForUpdate(debtor.iban())).thenReturn(Optional.of(debtor));
+
+        service.send(cmd(new BigDecimal("30.00")));
+
+        verify(accountRepo, never()).findByIbanForUpdate(merchant.iban());
+        verify(accountRepo, never()).save(argThat(a -> a.iban().equals(merchant.iban())));
+
+        // Paying out 20.00 is only covered once the pending 30.00 is folded in
+        when(journal.foldForUpdate(merchant.iban()))
+                .thenReturn(Optional.of(new Account(merchant.id(), merchant.iban(), new BigDecimal("30.00"), 1)));
+        when(accountRepo.findByIbanForUpdate(debtor.iban())).thenReturn(Optional.of(debtor));
+        var payout = new SendPaymentCommand("idem-2", merchant.iban(), debtor.iban(), "CHF", new BigDecimal("20.00"), null, null);
+
+        assertThat(service.send(payout).status()).isEqualTo(PaymentStatus.COMPLETED);
+        var order = inOrder(journal, txRepo);
+        order.verify(journal).foldForUpdate(merchant.iban());
+        order.verify(txRepo).sequencePending(merchant.iban());
+        order.verify(txRepo).appendAll(argThat(l -> l.stream().anyMatch(t -> t.accountId().equals(merchant.id()))));
+        verify(accountRepo).save(argThat(a -> a.iban().equals(merchant.iban()) && a.balance().compareTo(new BigDecimal("10.00")) == 0));
+    }
+
+    @Test
+    void optimisticMode_retriesVersionConflicts_thenFallsBackToLocking() {
+        var policy = new TransferPolicy(TransferMode.OPTIMISTIC, 2, Duration.ZERO, Duration.ofMinutes(1));
+        service = new PaymentService(paymentRepo, accountRepo, stripes, journal, txRepo, publisherPort, clock, meters, policy, replays, AccountLocks.disabled(meters), limits, directory, TransactionOperations.withoutTransaction());
+        when(paymentRepo.findByIdempotencyKey(any())).thenReturn(Optional.empty());
+
+        var debtor = new Account(UUID.randomUUID(), "CH93-0000-0000-0000-0000-0", new BigDecimal("100.00"), 1);
+        var creditor = new Account(UUID.randomUUID(), "CH44-1111-1111-1111-1111-1", new BigDecimal("0.00"), 1);
+        when(accountRepo.findByIban(debtor.iban())).thenReturn(Optional.of(debtor));
+        when(accountRepo.findByIban(creditor.iban())).thenReturn(Optional.of(creditor));
+        when(accountRepo.findByIbanForUpdate(creditor.iban())).thenReturn(Optional.of(creditor));
+        // The creditor keeps conflicting until it is locked; the debtor succeeds first time
+        when(accountRepo.saveIfUnchanged(any())).thenAnswer(inv -> {
+            Account a = inv.getArgument(0);
+            return a.iban().equals(debtor.iban()) || mockingDetails(accountRepo).getInvocations().stream()
+                    .anyMatch(i -> i.getMethod().getName().equals("findByIbanForUpdate"));
+        });
+
+        var res = service.send(cmd(new BigDecimal("30.00")));
+
+        assertThat(res.status()).isEqualTo(PaymentStatus.COMPLETED);
+        verify(accountRepo, times(3)).findByIban(creditor.iban());
+        verify(accountRepo).findByIbanForUpdate(creditor.iban());
+        verify(accountRepo, never()).findByIbanForUpdate(debtor.iban());
+        assertThat(meters.counter("payment.optimistic.retries").count()).isEqualTo(2);
+        assertThat(meters.counter("payment.optimistic.fallbacks").count()).isEqualTo(1);
+
+        // Still hot: the next payment locks the creditor straight away
+        service.send(new SendPaymentCommand("idem-2", debtor.iban(), creditor.iban(), "CHF", BigDecimal.ONE, null, null));
+        verify(accountRepo, times(3)).findByIban(creditor.iban());
+        verify(accountRepo, times(2)).findByIbanForUpdate(creditor.iban());
+    }
+
+    @Test
+    void settleAccepted_completesCoveredPayments_andFailsTheRest() {
+        var debtor = new Account(UUID.randomUUID(), "CH93-0000-0000-0000-0000-0", new BigDecimal("40.00"), 1);
+        var creditor = new Account(UUID.randomUUID(), "CH44-1111-1111-1111-1111-1", new BigDecimal("0.00"), 1);
+        when(accountRepo.findByIbanForUpdate(debtor.iban())).thenReturn(Optional.of(debtor));
+        when(accountRepo.findByIbanForUpdate(creditor.iban())).thenReturn(Optional.of(creditor));
+
+        var ok = Payment.newCreated(new SendPaymentCommand("a-1", debtor.iban(), creditor.iban(), "CHF", new BigDecimal("30.00"), null, null), clock);
+        var tooMuch = Payment.newCreated(new SendPaymentCommand("a-2", debtor.iban(), creditor.iban(), "CHF", new BigDecimal("30.00"), null, null), clock);
+        var alreadyDone = Payment.newCreated(cmd(BigDecimal.ONE), clock).completed(clock);
+
+        service.settleAccepted(List.of(ok, tooMuch, alreadyDone));
+
+        verify(paymentRepo).save(argThat(p -> p.id().equals(ok.id()) && p.status() == PaymentStatus.COMPLETED));
+        verify(paymentRepo).save(argThat(p -> p.id().equals(tooMuch.id()) && p.status() == PaymentStatus.FAILED));
+        verify(paymentRepo, never()).save(argThat(p -> p.id().equals(alreadyDone.id())));
+        verify(publisherPort).publishPaymentCompleted(argThat(p -> p.id().equals(ok.id())));
+        verify(publisherPort).publishPaymentFailed(argThat(p -> p.id().equals(tooMuch.id())), contains("Insufficient"));
+        verify(accountRepo).save(argThat(a -> a.iban().equals(debtor.iban()) && a.balance().compareTo(new BigDecimal("10.00")) == 0));
+        verify(txRepo).appendAll(argThat(l -> l.size() == 2));
     }
 }
@@ -0,0 +1,119 @@
+package com.instantpay.domain.usecase;
+
+import com.instantpay.domain.error.AccountNotFoundException;
+import com.instantpay.domain.model.Payment;
+import com.instantpay.domain.port.in.SendPaymentUseCase.SendPaymentCommand;
+import com.instantpay.domain.port.out.PaymentRepositoryPort;
+import com.instantpay.domain.port.out.SettlementQueuePort;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class SettlementWorkersTest {
+
+    SettlementQueuePort queue;
+    PaymentRepositoryPort paymentRepo;
+    PaymentService paymentService;
+    SettlementWorkers workers;
+
+    Payment good;
+    Payment bad;
+
+    @BeforeEach
+    void setUp() {
+        queue = mock(SettlementQueuePort.class);
+        paymentRepo = mock(PaymentRepositoryPort.class);
+        paymentService = mock(PaymentService.class);
+        workers = new SettlementWorkers(queue, paymentRepo, paymentService, TransactionOperations.withoutTransaction(), 1, 10, Duration.ZERO);
+        workers.close(); // rounds are driven by the test through settleOnce()
+        clearInvocations(queue, paymentRepo, paymentService);
+
+        var clock = Clock.systemUTC();
+        good = Payment.newCreated(new SendPaymentCommand("q-1", "CH93-0000-0000-0000-0000-0", "CH44-1111-1111-1111-1111-1", "CHF", BigDecimal.ONE, null, null), clock);
+        bad = Payment.newCreated(new SendPaymentCommand("q-2", "CH93-0000-0000-0000-0000-0", "CH44-1111-1111-1111-1111-1", "CHF", BigDecimal.ONE, null, null), clock);
+        when(paymentRepo.findAllByIds(any())).thenAnswer(inv -> {
+            Collection<UUID> ids = inv.getArgument(0);
+            return List.of(good, bad).stream().filter(p -> ids.contains(p.id())).toList();
+        });
+    }
+
+    @Test
+    void claimedPayments_areSettledInOneCall() {
+        when(queue.claim(10)).thenReturn(List.of(good.id(), bad.id()));
+
+        assertThat(workers.settleOnce()).isEqualTo(2);
+
+        verify(paymentService).settleAccepted(List.of(good, bad));
+        verify(queue, never()).claim(any(UUID.class));
+    }
+
+    @Test
+    void failingBatch_isSettledOneByOne_andARejectedPaymentFails() {
+        when(queue.claim(10)).thenReturn(List.of(good.id(), bad.id()));
+        when(queue.claim(any(UUID.class))).thenReturn(true);
+        doAnswer(inv -> {
+            List<Payment> payments = inv.getArgument(0);
+            if (payments.contains(bad)) throw new AccountNotFoundException("Account not found: CH44-1111-1111-1111-1111-1");
+            return null;
+        }).when(paymentService).settleAccepted(any());
+
+        assertThat(workers.settleOnce()).isEqualTo(2);
+
+        verify(paymentService).settleAccepted(List.of(good));
+        verify(paymentService).failAccepted(List.of(bad), "Account not found: CH44-1111-1111-1111-1111-1");
+        verify(paymentService, never()).failAccepted(eq(List.of(good)), any());
+        verify(queue, never()).retryLater(any(), any());
+    }
+
+    @Test
+    void transientFailure_keepsThePaymentQueued_forALaterRetry() {
+        when(queue.claim(10)).thenReturn(List.of(bad.id()));
+        when(queue.claim(bad.id())).thenReturn(true);
+        when(queue.retryLater(eq(bad.id()), any())).thenReturn(1);
+        doThrow(new CannotAcquireLockException("deadlock detected")).when(paymentService).settleAccepted(any());
+
+        workers.settleOnce();
+
+        verify(queue).retryLater(eq(bad.id()), any());
+        verify(paymentService, never()).failAccepted(any(), any());
+    }
+
+    @Test
+    void backoff_doublesPerAttempt_upToACap() {
+        assertThat(SettlementWorkers.backoff(1)).isEqualTo(Duration.ofSeconds(1));
+        assertThat(SettlementWorkers.backoff(3)).isEqualTo(Duration.ofSeconds(4));
+        assertThat(SettlementWorkers.backoff(50)).isEqualTo(SettlementWorkers.backoff(9));
+    }
+
+    @Test
+    void paymentTakenByAnotherWorker_isLeftToIt() {
+        when(queue.claim(10)).thenReturn(List.of(bad.id()));
+        when(queue.claim(bad.id())).thenReturn(false);
+        doThrow(new IllegalStateException("constraint violated")).when(paymentService).settleAccepted(any());
+
+        workers.settleOnce();
+
+        verify(paymentService, times(1)).settleAccepted(any());
+        verify(paymentService, never()).failAccepted(any(), any());
+    }
+
+    @Test
+    void failingClaim_isReported() {
+        when(queue.claim(10)).thenThrow(new IllegalStateException("database down"));
+
+        assertThatThrownBy(() -> workers.settleOnce()).hasMessage("database down");
+        verifyNoInteractions(paymentService);
+    }
+}
@@ -0,0 +1,128 @@
+package com.instantpay.domain.usecase;
+
+import com.instantpay.domain.error.AccountNotFoundException;
+import com.instantpay.domain.error.InsufficientFundsException;
+import com.instantpay.domain.model.Account;
+import com.instantpay.domain.model.Payment;
+import com.instantpay.domain.model.PaymentStatus;
+import com.instantpay.domain.port.in.SendPaymentUseCase.SendPaymentCommand;
+import com.instantpay.domain.port.out.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ShardedSettlementEngineTest {
+
+    PaymentRepositoryPort paymentRepo;
+    AccountRepositoryPort accountRepo;
+    TransactionRepositoryPort txRepo;
+    PaymentEventPublisherPort publisherPort;
+    Clock clock;
+
+    Account debtor;
+    Account creditor;
+
+    ShardedSettlementEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        paymentRepo = mock(PaymentRepositoryPort.class);
+        accountRepo = mock(AccountRepositoryPort.class);
+        txRepo = mock(TransactionRepositoryPort.class);
+        publisherPort = mock(PaymentEventPublisherPort.class);
+        clock = Clock.fixed(Instant.parse("2025-01-01T00:00:00Z"), ZoneOffset.UTC);
+
+        debtor = new Account(UUID.randomUUID(), "CH93-0000-0000-0000-0000-0", new BigDecimal("50.00"), 1);
+        creditor = new Account(UUID.randomUUID(), "CH44-1111-1111-1111-1111-1", new BigDecimal("0.00"), 1);
+        when(paymentRepo.findByIdempotencyKey(any())).thenReturn(Optional.empty());
+        when(accountRepo.findByIban(debtor.iban())).thenReturn(Optional.of(debtor));
+        when(accountRepo.findByIban(creditor.iban())).thenReturn(Optional.of(creditor));
+        when(accountRepo.findByIbanForUpdate(debtor.iban())).thenReturn(Optional.of(debtor));
+        when(accountRepo.findByIbanForUpdate(creditor.iban())).thenReturn(Optional.of(creditor));
+
+        // Two shards so the accounts may or may not share one; both paths must settle the same way
+        engine = new ShardedSettlementEngine(paymentRepo, accountRepo, txRepo, publisherPort,
+                TransactionOperations.withoutTransaction(), clock, 2, 50, Duration.ofSeconds(5));
+    }
+
+    @AfterEach
+    void tearDown() {
+        engine.close();
+    }
+
+    private SendPaymentCommand cmd(String key, String amount) {
+        return new SendPaymentCommand(key, debtor.iban(), creditor.iban(), "CHF", new BigDecimal(amount), null, null);
+    }
+
+    @Test
+    void transfer_settlesInMemory_andPersistsAgainstLockedRows() {
+        var res = engine.send(cmd("s-1", "30.00"));
+
+        assertThat(res.status()).isEqualTo(PaymentStatus.COMPLETED);
+        verify(accountRepo).save(argThat(a -> a.iban().equals(debtor.iban()) && a.balance().compareTo(new BigDecimal("20.00")) == 0));
+        verify(accountRepo).save(argThat(a -> a.iban().equals(creditor.iban()) && a.balance().compareTo(new BigDecimal("30.00")) == 0));
+        verify(txRepo).appendAll(argThat(l -> l.size() == 2));
+        verify(publisherPort).publishPaymentCompleted(any(Payment.class));
+    }
+
+    @Test
+    void insufficientFunds_isRejectedOnTheDebtorShard_withoutDatabaseWrites() {
+        assertThatThrownBy(() -> engine.send(cmd("s-1", "80.00")))
+                .isInstanceOf(InsufficientFundsException.class);
+
+        verify(paymentRepo, never()).save(any());
+        verifyNoInteractions(txRepo, publisherPort);
+    }
+
+    @Test
+    void unknownCreditor_refundsTheHold() {
+        var unknown = new SendPaymentCommand("s-1", debtor.iban(), "CH00-9999-9999-9999-9999-9", "CHF", new BigDecimal("50.00"), null, null);
+        when(accountRepo.findByIban(unknown.creditorIban())).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> engine.send(unknown)).isInstanceOf(AccountNotFoundException.class);
+
+        // The full balance is available again for the next transfer
+        assertThat(engine.send(cmd("s-2", "50.00")).status()).isEqualTo(PaymentStatus.COMPLETED);
+    }
+
+    @Test
+    void batch_reportsPerItem_inInputOrder() {
+        var res = engine.sendBatch(List.of(cmd("b-1", "30.00"), cmd("b-2", "30.00")));
+
+        assertThat(res).extracting(r -> r.status()).containsExactly(PaymentStatus.COMPLETED, PaymentStatus.FAILED);
+        assertThat(res.get(1).message()).contains("Insufficient");
+    }
+
+    @Test
+    void timeout_answersWithTheNonFinalPayment_whichStillSettles() throws Exception {
+        var release = new CountDownLatch(1);
+        doAnswer(inv -> {
+            release.await();
+            return inv.getArgument(0);
+        }).when(txRepo).appendAll(any());
+        engine.close();
+        engine = new ShardedSettlementEngine(paymentRepo, accountRepo, txRepo, publisherPort,
+                TransactionOperations.withoutTransaction(), clock, 2, 50, Duration.ofMillis(100));
+
+        var res = engine.send(cmd("s-1", "30.00"));
+
+        assertThat(res.status()).isEqualTo(PaymentStatus.CREATED);
+        assertThat(res.paymentId()).isNotNull();
+        release.countDown();
+        verify(paymentRepo, timeout(5_000)).save(argThat(p -> p.id().equals(res.paymentId()) && p.status() == PaymentStatus.COMPLETED));
+    }
+}
@@ -0,0 +1,107 @@
+package com.instantpay.domain.usecase;
+
+import com.instantpay.domain.error.AccountBusyException;
+import com.instantpay.domain.error.InsufficientFundsException;
+import com.instantpay.domain.model.PaymentStatus;
+import com.instantpay.domain.port.in.SendPaymentUseCase.Result;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+
+class SingleFlightTest {
+
+    final SimpleMeterRegistry meters = new SimpleMeterRegistry();
+    final SingleFlight singleFlight = new SingleFlight(new PaymentMetrics(meters, new HotAccounts(Duration.ofSeconds(1))));
+
+    private void awaitJoined(int n) throws InterruptedException {
+        var deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (meters.counter("payment.send.singleflight.joined").count() < n) {
+            assertThat(System.nanoTime()).isLessThan(deadline);
+            Thread.sleep(1);
+        }
+    }
+
+    @Test
+    void concurrentDuplicates_runOnce_andReceiveTheResultAsReplay() throws Exception {
+        var release = new CountDownLatch(1);
+        var calls = new AtomicInteger();
+        var id = UUID.randomUUID();
+
+        var leader = CompletableFuture.supplyAsync(() -> singleFlight.run("k", () -> {
+            calls.incrementAndGet();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+            return new Result(id, PaymentStatus.COMPLETED, "Payment completed");
+        }));
+        while (singleFlight.inFlight() == 0) Thread.sleep(1);
+
+        var follower = CompletableFuture.supplyAsync(() -> singleFlight.run("k", () -> {
+            calls.incrementAndGet();
+            return new Result(UUID.randomUUID(), PaymentStatus.COMPLETED, "Payment completed");
+        }));
+        awaitJoined(1);
+        release.countDown();
+
+        assertThat(leader.get(5, TimeUnit.SECONDS).message()).isEqualTo("Payment completed");
+        var replay = follower.get(5, TimeUnit.SECONDS);
+        assertThat(replay.paymentId()).isEqualTo(id);
+        assertThat(replay.message()).isEqualTo("Idempotent replay");
+        assertThat(calls).hasValue(1);
+        assertThat(singleFlight.inFlight()).isZero();
+    }
+
+    @Test
+    void domainFailure_isSharedWithWaiters() throws Exception {
+        var release = new CountDownLatch(1);
+        var leader = CompletableFuture.runAsync(() -> singleFlight.run("k", () -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+            throw new InsufficientFundsException("Insufficient balance on source account.");
+        }));
+        while (singleFlight.inFlight() == 0) Thread.sleep(1);
+
+        var follower = CompletableFuture.runAsync(() -> singleFlight.run("k", () -> fail("must not run")));
+        awaitJoined(1);
+        release.countDown();
+
+        assertThatThrownBy(() -> follower.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(InsufficientFundsException.class);
+        assertThatThrownBy(() -> leader.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(InsufficientFundsException.class);
+    }
+
+    @Test
+    void busyAccount_isNotShared_waitersRunTheCallThemselves() throws Exception {
+        var release = new CountDownLatch(1);
+        var id = UUID.randomUUID();
+        var leader = CompletableFuture.runAsync(() -> singleFlight.run("k", () -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+            throw new AccountBusyException("Account busy, retry later", Duration.ofSeconds(1));
+        }));
+        while (singleFlight.inFlight() == 0) Thread.sleep(1);
+
+        var follower = CompletableFuture.supplyAsync(() -> singleFlight.run("k",
+                () -> new Result(id, PaymentStatus.COMPLETED, "Payment completed")));
+        awaitJoined(1);
+        release.countDown();
+
+        assertThatThrownBy(() -> leader.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(AccountBusyException.class);
+        assertThat(follower.get(5, TimeUnit.SECONDS).paymentId()).isEqualTo(id);
+    }
+}
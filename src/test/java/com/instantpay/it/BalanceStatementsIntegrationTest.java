@@ -0,0 +1,106 @@
+package com.instantpay.it;
+
+import com.instantpay.adapter.out.jdbc.BalanceStatements;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/** The conditional debit (CONDITIONAL transfer mode) against a real Postgres, statement by statement. */
+@JdbcTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED) // every statement commits, as in the concurrent case
+@Testcontainers
+class BalanceStatementsIntegrationTest {
+
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    private static final String IBAN = "CH9300762011623852957";
+
+    @Autowired JdbcTemplate jdbc;
+
+    @BeforeEach
+    void setUp() {
+        jdbc.execute("""
+            CREATE TABLE IF NOT EXISTS accounts(
+                id UUID PRIMARY KEY,
+                iban VARCHAR(34) UNIQUE NOT NULL,
+                balance NUMERIC(19,2) NOT NULL,
+                version BIGINT NOT NULL
+            );
+        """);
+        jdbc.update("DELETE FROM accounts");
+        jdbc.update("INSERT INTO accounts(id, iban, balance, version) VALUES (?,?,?,?)",
+                UUID.randomUUID(), IBAN, new BigDecimal("100.00"), 0L);
+    }
+
+    @Test
+    void coveredDebit_isApplied_andBumpsTheVersion() {
+        var debit = BalanceStatements.debitIfCovered(jdbc, IBAN, new BigDecimal("60.00")).orElseThrow();
+
+        assertThat(debit.applied()).isTrue();
+        assertThat(debit.account().balance()).isEqualByComparingTo("40.00");
+        assertThat(debit.account().version()).isEqualTo(1);
+        assertThat(balance()).isEqualByComparingTo("40.00");
+    }
+
+    @Test
+    void uncoveredDebit_returnsTheUnchangedRow() {
+        var debit = BalanceStatements.debitIfCovered(jdbc, IBAN, new BigDecimal("100.01")).orElseThrow();
+
+        assertThat(debit.applied()).isFalse();
+        assertThat(debit.account().balance()).isEqualByComparingTo("100.00");
+        assertThat(debit.account().version()).isZero();
+        assertThat(balance()).isEqualByComparingTo("100.00");
+    }
+
+    @Test
+    void unknownIban_isEmpty() {
+        assertThat(BalanceStatements.debitIfCovered(jdbc, "CH0000000000000000000", BigDecimal.ONE)).isEmpty();
+    }
+
+    @Test
+    void concurrentDebits_neverOverdraw() throws Exception {
+        int threads = 8;
+        try (var pool = Executors.newFixedThreadPool(threads)) {
+            var start = new CountDownLatch(1);
+            var results = new ArrayList<Future<Boolean>>();
+            for (int i = 0; i < threads; i++) {
+                results.add(pool.submit(() -> {
+                    start.await();
+                    return BalanceStatements.debitIfCovered(jdbc, IBAN, new BigDecimal("30.00")).orElseThrow().applied();
+                }));
+            }
+            start.countDown();
+            int applied = 0;
+            for (var r : results) {
+                if (r.get()) applied++;
+            }
+
+            // A waiter re-checks "balance >= amount" on the row the winner committed
+            assertThat(applied).isEqualTo(3);
+            assertThat(balance()).isEqualByComparingTo("10.00");
+        }
+    }
+
+    private BigDecimal balance() {
+        return jdbc.queryForObject("SELECT balance FROM accounts WHERE iban = ?", BigDecimal.class, IBAN);
+    }
+}
@@ -0,0 +1,112 @@
+package com.instantpay.it;
+
+import com.instantpay.adapter.out.jdbc.JdbcPaymentRepositoryAdapter;
+import com.instantpay.domain.model.Payment;
+import com.instantpay.domain.model.PaymentStatus;
+import com.instantpay.domain.port.in.SendPaymentUseCase;
+import com.instantpay.domain.port.in.SendPaymentUseCase.SendPaymentCommand;
+import com.instantpay.domain.port.out.PaymentRepositoryPort;
+import com.instantpay.domain.usecase.AccountDirectory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.kafka.KafkaContainer;
+import org.testcontainers.utility.DockerImageName;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.*;
+
+/** The payment flow on the plain-JDBC adapters ({@code app.persistence.adapter=jdbc}). */
+@SpringBootTest(properties = "app.persistence.adapter=jdbc")
+@ActiveProfiles("it")
+@Testcontainers
+class JdbcAdapterIntegrationTest {
+
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @ServiceConnection
+    static KafkaContainer kafka = new KafkaContainer(DockerImageName.parse("apache/kafka-native:3.8.0"));
+
+    private static final String DEBTOR_IBAN   = "CH9300762011623852957";
+    private static final String CREDITOR_IBAN = "CH5604835012345678009";
+
+    @Autowired JdbcTemplate jdbc;
+    @Autowired SendPaymentUseCase useCase;
+    @Autowired PaymentRepositoryPort paymentRepo;
+    @Autowired AccountDirectory directory;
+    @Autowired PlatformTransactionManager txManager;
+
+    @BeforeEach
+    void setUp() {
+        jdbc.update("DELETE FROM transactions");
+        jdbc.update("DELETE FROM payments");
+        jdbc.update("DELETE FROM accounts");
+        jdbc.update("INSERT INTO accounts(id, iban, balance, version) VALUES (?,?,?,?)",
+                UUID.randomUUID(), DEBTOR_IBAN, new BigDecimal("100.00"), 0L);
+        jdbc.update("INSERT INTO accounts(id, iban, balance, version) VALUES (?,?,?,?)",
+                UUID.randomUUID(), CREDITOR_IBAN, new BigDecimal("0.00"), 0L);
+        directory.reload();
+    }
+
+    @Test
+    void jdbcAdaptersAreTheOnesInUse() {
+        assertThat(paymentRepo).isInstanceOf(JdbcPaymentRepositoryAdapter.class);
+    }
+
+    @Test
+    void send_movesTheBalances_andReplaysTheSameKey() {
+        var cmd = new SendPaymentCommand("idem-jdbc-1", DEBTOR_IBAN, CREDITOR_IBAN, "CHF", new BigDecimal("25.00"), "IT-jdbc", null);
+
+        var first = useCase.send(cmd);
+        var again = useCase.send(cmd);
+
+        assertThat(first.status()).isEqualTo(PaymentStatus.COMPLETED);
+        assertThat(again.paymentId()).isEqualTo(first.paymentId());
+        assertThat(jdbc.queryForObject("SELECT balance FROM accounts WHERE iban = ?", BigDecimal.class, DEBTOR_IBAN))
+                .isEqualByComparingTo("75.00");
+        assertThat(jdbc.queryForObject("SELECT balance FROM accounts WHERE iban = ?", BigDecimal.class, CREDITOR_IBAN))
+                .isEqualByComparingTo("25.00");
+        assertThat(jdbc.queryForObject("SELECT status FROM payments WHERE id = ?", String.class, first.paymentId()))
+                .isEqualTo("COMPLETED");
+        assertThat(jdbc.queryForObject("SELECT count(*) FROM transactions WHERE payment_id = ?", Integer.class, first.paymentId()))
+                .isEqualTo(2);
+    }
+
+    @Test
+    void duplicateKeyOnSave_leavesTheTransactionUsable() {
+        var clock = Clock.systemUTC();
+        var winner = Payment.newCreated(new SendPaymentCommand("idem-jdbc-2", DEBTOR_IBAN, CREDITOR_IBAN, "CHF", BigDecimal.ONE, null, null), clock);
+        var loser = Payment.newCreated(new SendPaymentCommand("idem-jdbc-2", DEBTOR_IBAN, CREDITOR_IBAN, "CHF", BigDecimal.ONE, null, null), clock);
+        paymentRepo.save(winner);
+
+        var found = new TransactionTemplate(txManager).execute(status -> {
+            assertThatThrownBy(() -> paymentRepo.save(loser)).isInstanceOf(DuplicateKeyException.class);
+            // Postgres would refuse this read if the duplicate had aborted the transaction
+            return paymentRepo.findByIdempotencyKey("idem-jdbc-2").orElseThrow();
+        });
+
+        assertThat(found.id()).isEqualTo(winner.id());
+    }
+
+    @Test
+    void statusTransition_updatesTheExistingRow() {
+        var payment = Payment.newCreated(new SendPaymentCommand("idem-jdbc-3", DEBTOR_IBAN, CREDITOR_IBAN, "CHF", BigDecimal.ONE, null, null), Clock.systemUTC());
+        paymentRepo.save(payment);
+        paymentRepo.save(payment.completed(Clock.systemUTC()));
+
+        assertThat(paymentRepo.findById(payment.id()).orElseThrow().status()).isEqualTo(PaymentStatus.COMPLETED);
+    }
+}
@@ -0,0 +1,151 @@
+package com.instantpay.it;
+
+import com.instantpay.domain.model.PaymentStatus;
+import com.instantpay.domain.port.in.SendPaymentUseCase;
+import com.instantpay.domain.port.in.SendPaymentUseCase.SendPaymentCommand;
+import com.instantpay.domain.usecase.AccountDirectory;
+import com.instantpay.ops.CreditJournalFolder;
+import com.instantpay.ops.LedgerSeqBackfill;
+import com.instantpay.ops.LedgerSequencer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.kafka.KafkaContainer;
+import org.testcontainers.utility.DockerImageName;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/** Per-account ledger sequence numbers on every write path: each account's legs must run 1..n without gaps. */
+@SpringBootTest(properties = {
+        "app.payments.striping.accounts=" + LedgerSequenceIntegrationTest.STRIPED_IBAN,
+        "app.payments.credit-journal.accounts=" + LedgerSequenceIntegrationTest.JOURNALED_IBAN
+})
+@ActiveProfiles("it")
+@Testcontainers
+class LedgerSequenceIntegrationTest {
+
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @ServiceConnection
+    static KafkaContainer kafka = new KafkaContainer(DockerImageName.parse("apache/kafka-native:3.8.0"));
+
+    private static final String DEBTOR_IBAN   = "CH9300762011623852957";
+    private static final String CREDITOR_IBAN = "CH5604835012345678009";
+    static final String STRIPED_IBAN          = "CH2801234000123456789";
+    static final String JOURNALED_IBAN        = "CH4431999123000889012";
+
+    @Autowired JdbcTemplate jdbc;
+    @Autowired SendPaymentUseCase useCase;
+    @Autowired AccountDirectory directory;
+    @Autowired CreditJournalFolder journalFolder;
+    @Autowired LedgerSequencer sequencer;
+    @Autowired LedgerSeqBackfill backfill;
+
+    private int keys;
+
+    @BeforeEach
+    void setUp() {
+        jdbc.update("DELETE FROM pending_credits");
+        jdbc.update("DELETE FROM account_stripes");
+        jdbc.update("DELETE FROM transactions");
+        jdbc.update("DELETE FROM payments");
+        jdbc.update("DELETE FROM accounts");
+        jdbc.update("DELETE FROM recon_watermarks WHERE name = 'ledger-seq-backfill'");
+        for (var iban : List.of(DEBTOR_IBAN, CREDITOR_IBAN, STRIPED_IBAN, JOURNALED_IBAN)) {
+            jdbc.update("INSERT INTO accounts(id, iban, balance, version) VALUES (?,?,?,?)",
+                    UUID.randomUUID(), iban, new BigDecimal("1000.00"), 0L);
+        }
+        directory.reload();
+    }
+
+    private SendPaymentCommand payment(String from, String to, String amount) {
+        return new SendPaymentCommand("idem-seq-" + keys++, from, to, "CHF", new BigDecimal(amount), "IT-seq", null);
+    }
+
+    private void send(String from, String to, String amount) {
+        assertThat(useCase.send(payment(from, to, amount)).status()).isEqualTo(PaymentStatus.COMPLETED);
+    }
+
+    private UUID accountId(String iban) {
+        return jdbc.queryForObject("SELECT id FROM accounts WHERE iban = ?", UUID.class, iban);
+    }
+
+    private void assertGapFree(String iban) {
+        var account = accountId(iban);
+        var seqs = jdbc.queryForList("SELECT seq FROM transactions WHERE account_id = ? ORDER BY seq", Long.class, account);
+        assertThat(seqs).as(iban).isNotEmpty()
+                .containsExactlyElementsOf(LongStream.rangeClosed(1, seqs.size()).boxed().toList());
+        assertThat(jdbc.queryForObject("SELECT ledger_seq FROM accounts WHERE id = ?", Long.class, account))
+                .as(iban).isEqualTo(seqs.size());
+    }
+
+    @Test
+    void everyWritePath_numbersEachAccountsLegs_oneToN() {
+        // pessimistic
+        send(DEBTOR_IBAN, CREDITOR_IBAN, "10.00");
+        send(CREDITOR_IBAN, DEBTOR_IBAN, "5.00");
+        // batch, several legs of one account in one transaction
+        var results = useCase.sendBatch(List.of(
+                payment(DEBTOR_IBAN, CREDITOR_IBAN, "1.00"),
+                payment(DEBTOR_IBAN, CREDITOR_IBAN, "2.00"),
+                payment(CREDITOR_IBAN, DEBTOR_IBAN, "3.00")));
+        assertThat(results).allMatch(r -> r.status() == PaymentStatus.COMPLETED);
+        // journaled: credits numbered when folded, then a debit that folds first
+        send(DEBTOR_IBAN, JOURNALED_IBAN, "7.00");
+        send(CREDITOR_IBAN, JOURNALED_IBAN, "8.00");
+        journalFolder.fold();
+        send(DEBTOR_IBAN, JOURNALED_IBAN, "9.00");
+        send(JOURNALED_IBAN, CREDITOR_IBAN, "4.00");
+        journalFolder.fold();
+        // striped: numbered by the sequencer
+        send(DEBTOR_IBAN, STRIPED_IBAN, "20.00");
+        send(STRIPED_IBAN, CREDITOR_IBAN, "6.00");
+        send(CREDITOR_IBAN, STRIPED_IBAN, "2.00");
+        sequencer.sequence();
+
+        assertThat(jdbc.queryForObject("SELECT count(*) FROM transactions WHERE seq IS NULL", Long.class)).isZero();
+        for (var iban : List.of(DEBTOR_IBAN, CREDITOR_IBAN, STRIPED_IBAN, JOURNALED_IBAN)) {
+            assertGapFree(iban);
+        }
+    }
+
+    @Test
+    void legsWrittenBeforeTheSequence_areNumberedFirst_once() {
+        var debtor = accountId(DEBTOR_IBAN);
+        var legacy = List.of(UUID.randomUUID(), UUID.randomUUID());
+        var at = Instant.now().minus(Duration.ofDays(30));
+        for (int i = 0; i < legacy.size(); i++) {
+            jdbc.update("INSERT INTO transactions (id, payment_id, account_id, amount, balance_after, created_at) VALUES (?, ?, ?, -1.00, 0, ?)",
+                    legacy.get(i), UUID.randomUUID(), debtor, Timestamp.from(at.plusSeconds(i)));
+        }
+        send(DEBTOR_IBAN, CREDITOR_IBAN, "10.00");   // numbered 1 before the backfill
+
+        backfill.backfillOnce();
+
+        var ordered = jdbc.queryForList("SELECT id FROM transactions WHERE account_id = ? ORDER BY seq", UUID.class, debtor);
+        assertThat(ordered).hasSize(3).startsWith(legacy.get(0), legacy.get(1));
+        assertGapFree(DEBTOR_IBAN);
+        assertGapFree(CREDITOR_IBAN);
+
+        // done once: later unnumbered legs are left to sequencePending
+        jdbc.update("INSERT INTO transactions (id, payment_id, account_id, amount, balance_after, created_at) VALUES (?, ?, ?, -1.00, 0, ?)",
+                UUID.randomUUID(), UUID.randomUUID(), debtor, Timestamp.from(at));
+        backfill.backfillOnce();
+        assertThat(jdbc.queryForObject("SELECT count(*) FROM transactions WHERE seq IS NULL", Long.class)).isOne();
+    }
+}
@@ -3,6 +3,7 @@ package com.instantpay.it;
 import com.instantpay.adapter.in.web.dto.SendPaymentRequest;
 import com.instantpay.domain.model.PaymentStatus;
 import com.instantpay.domain.port.in.SendPaymentUseCase;
+import com.instantpay.domain.usecase.AccountDirectory;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.common.serialization.StringDeserializer;
 import org.junit.jupiter.api.*;
@@ -63,6 +64,7 @@ class PaymentFlowIntegrationTest {
 
     @Autowired JdbcTemplate jdbc;
     @Autowired SendPaymentUseCase useCase;
+    @Autowired AccountDirectory directory;
 
     private KafkaMessageListenerContainer<String, String> listener;
     private BlockingQueue<String> messages;
@@ -82,6 +84,7 @@ class PaymentFlowIntegrationTest {
                 UUID.randomUUID(), DEBTOR_IBAN, new BigDecimal("100.00"), 0L);
         jdbc.update("INSERT INTO accounts(id, iban, balance, version) VALUES (?,?,?,?) ON CONFLICT (iban) DO NOTHING",
                 UUID.randomUUID(), CREDITOR_IBAN, new BigDecimal("0.00"), 0L);
+        directory.reload(); // the accounts were opened after startup
 
         // Start a simple listener container and wait for assignment
         Map<String, Object> props = KafkaTestUtils.consumerProps(  kafka.getBootstrapServers(), "it-consumer","true");
@@ -0,0 +1,102 @@
+package com.instantpay.ops;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.kafka.KafkaContainer;
+import org.testcontainers.utility.DockerImageName;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/** Balance checkpoints against a real Postgres, with pages of two legs so every run spans several transactions. */
+@SpringBootTest(properties = "app.ops.checkpoints.leg-batch-size=2")
+@ActiveProfiles("it")
+@Testcontainers
+class BalanceCheckpointerIntegrationTest {
+
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @ServiceConnection
+    static KafkaContainer kafka = new KafkaContainer(DockerImageName.parse("apache/kafka-native:3.8.0"));
+
+    @Autowired JdbcTemplate jdbc;
+    @Autowired BalanceCheckpointer checkpointer;
+
+    final Instant now = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+    UUID account;
+    long seq;
+
+    @BeforeEach
+    void setUp() {
+        jdbc.update("DELETE FROM balance_checkpoints");
+        jdbc.update("DELETE FROM transactions");
+        jdbc.update("DELETE FROM accounts");
+        account = UUID.randomUUID();
+        seq = 0;
+        jdbc.update("INSERT INTO accounts(id, iban, balance, version) VALUES (?,?,?,?)",
+                account, "CH9300762011623852957", BigDecimal.ZERO, 0L);
+    }
+
+    private long leg(String amount, String balanceAfter, Instant at) {
+        return leg(amount, balanceAfter, at, ++seq);
+    }
+
+    private long leg(String amount, String balanceAfter, Instant at, Long number) {
+        jdbc.update("INSERT INTO transactions (id, payment_id, account_id, amount, balance_after, created_at, seq) VALUES (?, ?, ?, ?, ?, ?, ?)",
+                UUID.randomUUID(), UUID.randomUUID(), account, new BigDecimal(amount), new BigDecimal(balanceAfter), Timestamp.from(at), number);
+        return number == null ? 0 : number;
+    }
+
+    private BigDecimal checkpointBalance() {
+        return jdbc.queryForObject("SELECT balance FROM balance_checkpoints WHERE account_id = ?", BigDecimal.class, account);
+    }
+
+    private long checkpointPosition() {
+        return jdbc.queryForObject("SELECT position_seq FROM balance_checkpoints WHERE account_id = ?", Long.class, account);
+    }
+
+    @Test
+    void firstCheckpoint_startsFromTheOpeningBalance_andTakesOnlyNumberedLegs() {
+        // opened with 100.00
+        leg("-30.00", "70.00", now.minus(Duration.ofHours(3)));
+        leg("5.00", "75.00", now.minus(Duration.ofHours(2)));
+        var lastNumbered = leg("-10.00", "65.00", now.minus(Duration.ofHours(1)));
+        leg("1.00", "66.00", now.minus(Duration.ofHours(4)), null);   // credit not numbered yet
+
+        checkpointer.checkpoint();
+
+        assertThat(checkpointBalance()).isEqualByComparingTo("65.00");
+        assertThat(checkpointPosition()).isEqualTo(lastNumbered);
+    }
+
+    @Test
+    void laterRun_advancesFromTheCheckpoint_overTheLegsWrittenSince() {
+        leg("-30.00", "70.00", now.minus(Duration.ofHours(5)));
+        checkpointer.checkpoint();
+        assertThat(checkpointBalance()).isEqualByComparingTo("70.00");
+
+        // balance_after is off on purpose: the checkpoint adds amounts to its own balance. The first
+        // one was written before the checkpoint but numbered after it, as journaled credits are
+        leg("5.00", "0.00", now.minus(Duration.ofHours(6)));
+        leg("5.00", "0.00", now.minus(Duration.ofHours(3)));
+        var last = leg("-20.00", "0.00", now.minus(Duration.ofHours(2)));
+        checkpointer.checkpoint();
+
+        assertThat(checkpointBalance()).isEqualByComparingTo("60.00");
+        assertThat(checkpointPosition()).isEqualTo(last);
+    }
+}
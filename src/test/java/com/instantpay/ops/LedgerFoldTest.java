@@ -0,0 +1,110 @@
+package com.instantpay.ops;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LedgerFoldTest {
+
+    final ArrayList<LedgerFold.Drift> drifts = new ArrayList<>();
+    final LedgerFold fold = new LedgerFold(drifts::add);
+
+    @Test
+    void consistentAccounts_doNotDrift() {
+        var a = UUID.randomUUID();
+        var b = UUID.randomUUID();
+        // a: opened with 100.00, -30.00, +5.00 -> 75.00
+        fold.balance(a, 7_500, false, false, null);
+        fold.leg(a, -3_000, 7_000);
+        fold.leg(a, 500, 7_500);
+        // b: no legs at all
+        fold.balance(b, 12_345, false, false, null);
+        fold.finish();
+
+        assertThat(drifts).isEmpty();
+        assertThat(fold.accountsChecked()).isEqualTo(1);
+        assertThat(fold.legs()).isEqualTo(2);
+    }
+
+    @Test
+    void balanceOffTheLedger_isReported() {
+        var a = UUID.randomUUID();
+        fold.balance(a, 7_600, false, false, null);
+        fold.leg(a, -3_000, 7_000);
+        fold.leg(a, 500, 7_500);
+        fold.finish();
+
+        assertThat(drifts).singleElement().satisfies(d -> {
+            assertThat(d.accountId()).isEqualTo(a);
+            assertThat(d.balanceMinor()).isEqualTo(7_600);
+            assertThat(d.openingPlusLegsMinor()).isEqualTo(7_500);
+        });
+    }
+
+    @Test
+    void brokenBalanceAfterChain_andOrphanLegs_areReported() {
+        var broken = UUID.randomUUID();
+        var orphan = UUID.randomUUID();
+        var striped = UUID.randomUUID();
+        fold.balance(broken, 7_500, false, false, null);
+        fold.leg(broken, -3_000, 7_000);
+        fold.leg(broken, 500, 7_400);       // should be 7_500
+        fold.leg(orphan, 100, 100);         // no account row
+        fold.balance(striped, 1_100, true, false, 1_000);
+        fold.leg(striped, 100, 999);        // balance_after not compared for striped accounts
+        fold.finish();
+
+        assertThat(drifts).extracting(LedgerFold.Drift::accountId).containsExactly(broken, orphan);
+        assertThat(drifts.get(1).balanceMinor()).isNull();
+        assertThat(fold.accountsSumOnly()).isEqualTo(1);
+    }
+
+    @Test
+    void checkpoint_isTheOpeningBalance_forTheLegsAfterIt() {
+        var moved = UUID.randomUUID();
+        var quiet = UUID.randomUUID();
+        var drifted = UUID.randomUUID();
+        fold.balance(moved, 7_500, false, false, 7_000);
+        fold.leg(moved, 500, 7_500);
+        fold.balance(quiet, 7_000, false, false, 7_000);   // nothing since the checkpoint
+        fold.balance(drifted, 7_100, false, false, 7_000);
+        fold.finish();
+
+        assertThat(drifts).extracting(LedgerFold.Drift::accountId).containsExactly(drifted);
+        assertThat(fold.accountsChecked()).isEqualTo(3);
+    }
+
+    @Test
+    void stripedAccount_offTheSum_isReported() {
+        var striped = UUID.randomUUID();
+        // row + stripes = 7_400, but checkpoint 7_000 + 500 = 7_500
+        fold.balance(striped, 7_400, true, false, 7_000);
+        fold.leg(striped, 500, 7_500);
+        fold.finish();
+
+        assertThat(drifts).singleElement().satisfies(d -> {
+            assertThat(d.accountId()).isEqualTo(striped);
+            assertThat(d.openingPlusLegsMinor()).isEqualTo(7_500);
+        });
+    }
+
+    @Test
+    void journaledAccount_isHeldToTheSum_notToBalanceAfter() {
+        var journaled = UUID.randomUUID();
+        var missing = UUID.randomUUID();
+        // credits folded from the journal: the second one did not see the first in balance_after
+        fold.balance(journaled, 8_000, false, true, 7_000);
+        fold.leg(journaled, 500, 7_500);
+        fold.leg(journaled, 500, 7_500);
+        fold.balance(missing, 7_900, false, true, 7_000);
+        fold.leg(missing, 500, 7_500);
+        fold.leg(missing, 500, 8_000);
+        fold.finish();
+
+        assertThat(drifts).extracting(LedgerFold.Drift::accountId).containsExactly(missing);
+        assertThat(fold.accountsChecked()).isEqualTo(2);
+    }
+}
@@ -0,0 +1,110 @@
+package com.instantpay.ops;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.kafka.KafkaContainer;
+import org.testcontainers.utility.DockerImageName;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/** Incremental reconciliation against a real Postgres: where a fresh install starts and how far a run gets. */
+@SpringBootTest
+@ActiveProfiles("it")
+@Testcontainers
+class LedgerReconcilerIntegrationTest {
+
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @ServiceConnection
+    static KafkaContainer kafka = new KafkaContainer(DockerImageName.parse("apache/kafka-native:3.8.0"));
+
+    private static final String DEBTOR_IBAN   = "CH9300762011623852957";
+    private static final String CREDITOR_IBAN = "CH5604835012345678009";
+
+    @Autowired JdbcTemplate jdbc;
+    @Autowired LedgerReconciler reconciler;
+
+    final Instant now = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+    UUID account;
+
+    @BeforeEach
+    void setUp() {
+        jdbc.update("DELETE FROM transactions");
+        jdbc.update("DELETE FROM payments");
+        jdbc.update("DELETE FROM accounts");
+        jdbc.update("DELETE FROM recon_watermarks");
+        account = UUID.randomUUID();
+        jdbc.update("INSERT INTO accounts(id, iban, balance, version) VALUES (?,?,?,?)", account, DEBTOR_IBAN, BigDecimal.ZERO, 0L);
+    }
+
+    private UUID payment(String status, Instant createdAt, Instant completedAt) {
+        var id = UUID.randomUUID();
+        jdbc.update("""
+            INSERT INTO payments (id, idempotency_key, debtor_iban, creditor_iban, currency, amount, status, created_at, completed_at)
+            VALUES (?, ?, ?, ?, 'CHF', 10.00, ?, ?, ?)
+            """, id, id.toString(), DEBTOR_IBAN, CREDITOR_IBAN, status, Timestamp.from(createdAt),
+                completedAt == null ? null : Timestamp.from(completedAt));
+        return id;
+    }
+
+    private void leg(UUID paymentId, String amount, Instant at) {
+        jdbc.update("INSERT INTO transactions (id, payment_id, account_id, amount, balance_after, created_at) VALUES (?, ?, ?, ?, 0, ?)",
+                UUID.randomUUID(), paymentId, account, new BigDecimal(amount), Timestamp.from(at));
+    }
+
+    @Test
+    void freshInstall_checksTheWholeHistory_inOneRun() {
+        var longAgo = now.minus(Duration.ofDays(800));
+        var unbalanced = payment("COMPLETED", longAgo, longAgo.plusSeconds(1));    // no legs
+        var legsWithoutCompletion = payment("CREATED", now.minus(Duration.ofDays(400)), null);
+        leg(legsWithoutCompletion, "-10.00", now.minus(Duration.ofDays(400)));
+        var good = payment("COMPLETED", now.minus(Duration.ofDays(3)), now.minus(Duration.ofDays(3)));
+        leg(good, "-10.00", now.minus(Duration.ofDays(3)));
+        leg(good, "10.00", now.minus(Duration.ofDays(3)));
+
+        var end = now.minus(Duration.ofMinutes(1));
+        var findings = reconciler.catchUp(end);
+
+        assertThat(findings.paymentsChecked()).isEqualTo(3);
+        assertThat(findings.violations()).isEqualTo(2);
+        assertThat(findings.sample()).containsExactlyInAnyOrder(unbalanced, legsWithoutCompletion);
+        assertThat(reconciler.watermark()).isEqualTo(end);
+    }
+
+    @Test
+    void laterRun_checksOnlyWhatFinishedSince() {
+        var first = payment("FAILED", now.minus(Duration.ofDays(2)), now.minus(Duration.ofDays(2)));
+        reconciler.catchUp(now.minus(Duration.ofDays(1)));
+
+        var second = payment("FAILED", now.minus(Duration.ofHours(2)), now.minus(Duration.ofHours(2)));
+        leg(second, "-10.00", now.minus(Duration.ofHours(2)));
+        var findings = reconciler.catchUp(now.minus(Duration.ofMinutes(1)));
+
+        assertThat(findings.paymentsChecked()).isEqualTo(1);
+        assertThat(findings.sample()).containsExactly(second).doesNotContain(first);
+    }
+
+    @Test
+    void emptyTable_startsNearNow_andChecksNothing() {
+        var end = now.minus(Duration.ofMinutes(1));
+        var findings = reconciler.catchUp(end);
+
+        assertThat(findings.paymentsChecked()).isZero();
+        assertThat(reconciler.watermark()).isAfterOrEqualTo(end);
+    }
+}
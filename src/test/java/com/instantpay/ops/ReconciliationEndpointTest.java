@@ -0,0 +1,61 @@
+package com.instantpay.ops;
+
+import com.instantpay.ops.PartitionedReconciliation.Partition;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.*;
+
+class ReconciliationEndpointTest {
+
+    static final UUID RUN = UUID.randomUUID();
+    static final Instant T0 = Instant.parse("2025-01-01T00:00:00Z");
+
+    private static Partition part(int no, String status, Instant started, Instant finished, long checked, long violations) {
+        return new Partition(RUN, no, T0.plusSeconds(no * 86_400L), T0.plusSeconds((no + 1) * 86_400L), status, "node-a",
+                started, finished, checked, violations, null);
+    }
+
+    @Test
+    void summary_countsProgress_andThroughputOverBusyTime() {
+        var summary = ReconciliationEndpoint.summarize(RUN, List.of(
+                part(0, "DONE", T0, T0.plusSeconds(2), 1_000, 1),
+                part(1, "DONE", T0, T0.plusSeconds(3), 4_000, 0),
+                part(2, "RUNNING", T0, null, 0, 0),
+                part(3, "PENDING", null, null, 0, 0)));
+
+        assertThat(summary.partitions()).isEqualTo(4);
+        assertThat(summary.done()).isEqualTo(2);
+        assertThat(summary.running()).isEqualTo(1);
+        assertThat(summary.paymentsChecked()).isEqualTo(5_000);
+        assertThat(summary.violations()).isEqualTo(1);
+        assertThat(summary.paymentsPerSecond()).isEqualTo(1_000.0);
+        assertThat(summary.from()).isEqualTo(T0);
+        assertThat(summary.to()).isEqualTo(T0.plusSeconds(4 * 86_400L));
+    }
+
+    @Test
+    void summary_ofAFreshRun_hasNoThroughputYet() {
+        var summary = ReconciliationEndpoint.summarize(RUN, List.of(part(0, "PENDING", null, null, 0, 0)));
+
+        assertThat(summary.paymentsPerSecond()).isNull();
+        assertThat(summary.done()).isZero();
+    }
+
+    @Test
+    void start_rejectsUnparsableInstants_andEmptyRanges_asBadRequests() {
+        assertThatThrownBy(() -> ReconciliationEndpoint.parseRange("yesterday", "2025-01-02T00:00:00Z"))
+                .isInstanceOf(InvalidEndpointRequestException.class)
+                .hasMessageContaining("yesterday");
+        assertThatThrownBy(() -> ReconciliationEndpoint.parseRange("2025-01-02T00:00:00Z", "2025-01-01T00:00:00Z"))
+                .isInstanceOf(InvalidEndpointRequestException.class)
+                .hasMessageContaining("Empty range");
+
+        assertThat(ReconciliationEndpoint.parseRange("2025-01-01T00:00:00Z", "2025-01-02T00:00:00Z"))
+                .containsExactly(T0, T0.plusSeconds(86_400));
+    }
+}
@@ -0,0 +1,178 @@
+package com.instantpay.web;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.instantpay.adapter.in.web.AdaptiveConcurrencyLimiter;
+import com.instantpay.adapter.in.web.AdmissionInterceptor;
+import com.instantpay.adapter.in.web.PaymentController;
+import com.instantpay.adapter.in.web.dto.SendPaymentRequest;
+import com.instantpay.domain.error.AccountBusyException;
+import com.instantpay.domain.error.AccountNotFoundException;
+import com.instantpay.domain.model.PaymentStatus;
+import com.instantpay.domain.port.in.GetPaymentUseCase;
+import com.instantpay.domain.port.in.SendPaymentUseCase;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/** The admission limit in front of {@code POST /api/payments}, through the MVC stack and the exception handler. */
+@WebMvcTest(PaymentController.class)
+@Import(AdmissionInterceptorSliceTest.AdmissionTestConfig.class)
+class AdmissionInterceptorSliceTest {
+
+    @TestConfiguration
+    static class AdmissionTestConfig {
+        @Bean
+        SendPaymentUseCase sendPaymentUseCase() {
+            return Mockito.mock(SendPaymentUseCase.class);
+        }
+
+        @Bean
+        GetPaymentUseCase getPaymentUseCase() {
+            return Mockito.mock(GetPaymentUseCase.class);
+        }
+
+        @Bean
+        AdaptiveConcurrencyLimiter paymentAdmissionLimiter() {
+            return Mockito.spy(new AdaptiveConcurrencyLimiter("payments", 10, 1, 10, new SimpleMeterRegistry()));
+        }
+
+        @Bean
+        WebMvcConfigurer admission(AdaptiveConcurrencyLimiter paymentAdmissionLimiter) {
+            return new WebMvcConfigurer() {
+                @Override
+                public void addInterceptors(InterceptorRegistry registry) {
+                    registry.addInterceptor(new AdmissionInterceptor(paymentAdmissionLimiter, Duration.ofSeconds(3)))
+                            .addPathPatterns("/api/payments");
+                }
+            };
+        }
+    }
+
+    @Autowired MockMvc mvc;
+    @Autowired ObjectMapper om;
+    @Autowired SendPaymentUseCase sendPaymentUseCase;
+    @Autowired AdaptiveConcurrencyLimiter limiter;
+
+    @BeforeEach
+    void resetMocks() {
+        reset(sendPaymentUseCase);
+        clearInvocations(limiter);
+    }
+
+    private ResultActions postPayment() throws Exception {
+        var req = new SendPaymentRequest("CH9300762011623852957", "CH5604835012345678009", "CHF", new BigDecimal("10.00"), null);
+        return mvc.perform(post("/api/payments")
+                .header("Idempotency-Key", "idem-admission")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(om.writeValueAsString(req)));
+    }
+
+    @Test
+    void limitReached_answers503_withRetryAfter_withoutCallingTheUseCase() throws Exception {
+        int taken = 0;
+        while (limiter.tryAcquire()) taken++;
+        try {
+            postPayment()
+                    .andExpect(status().isServiceUnavailable())
+                    .andExpect(header().string("Retry-After", "3"))
+                    .andExpect(jsonPath("$.type", containsString("service-unavailable")))
+                    .andExpect(jsonPath("$.title").value("Service overloaded"));
+        } finally {
+            for (int i = 0; i < taken; i++) limiter.releaseUnmeasured();
+        }
+        verifyNoInteractions(sendPaymentUseCase);
+    }
+
+    @Test
+    void busyAccount_503_doesNotCutTheLimit() throws Exception {
+        when(sendPaymentUseCase.send(any()))
+                .thenThrow(new AccountBusyException("Account busy, retry later", Duration.ofSeconds(2)));
+        int before = limiter.limit();
+
+        postPayment()
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "2"));
+
+        assertThat(limiter.limit()).isEqualTo(before);
+    }
+
+    @Test
+    void clientError_isNotALatencySample() throws Exception {
+        when(sendPaymentUseCase.send(any())).thenThrow(new AccountNotFoundException("Account not found: CH5604835012345678009"));
+
+        postPayment().andExpect(status().isNotFound());
+
+        verify(limiter).releaseUnmeasured();
+        verify(limiter, never()).release(anyLong(), anyBoolean());
+    }
+
+    @Test
+    void idempotentReplay_isNotALatencySample() throws Exception {
+        when(sendPaymentUseCase.send(any()))
+                .thenReturn(SendPaymentUseCase.Result.replay(UUID.randomUUID(), PaymentStatus.COMPLETED));
+
+        postPayment().andExpect(status().isCreated());
+
+        verify(limiter).releaseUnmeasured();
+        verify(limiter, never()).release(anyLong(), anyBoolean());
+    }
+
+    @Test
+    void settledPayment_isALatencySample() throws Exception {
+        when(sendPaymentUseCase.send(any()))
+                .thenReturn(new SendPaymentUseCase.Result(UUID.randomUUID(), PaymentStatus.COMPLETED, "Payment completed"));
+
+        postPayment().andExpect(status().isCreated());
+
+        verify(limiter).release(anyLong(), eq(false));
+        verify(limiter, never()).releaseUnmeasured();
+    }
+
+    @Test
+    void serverError_cutsTheLimit() throws Exception {
+        when(sendPaymentUseCase.send(any())).thenThrow(new IllegalStateException("boom"));
+        int before = limiter.limit();
+
+        postPayment().andExpect(status().isInternalServerError());
+
+        assertThat(limiter.limit()).isLessThan(before);
+    }
+
+    @Test
+    void admittedRequest_givesItsSlotBack() throws Exception {
+        when(sendPaymentUseCase.send(any()))
+                .thenReturn(new SendPaymentUseCase.Result(UUID.randomUUID(), PaymentStatus.COMPLETED, "OK"));
+
+        postPayment().andExpect(status().isCreated());
+
+        int taken = 0;
+        while (limiter.tryAcquire()) taken++;
+        for (int i = 0; i < taken; i++) limiter.releaseUnmeasured();
+        assertThat(taken).isEqualTo(limiter.limit());
+    }
+}
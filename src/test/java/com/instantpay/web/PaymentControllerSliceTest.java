@@ -3,9 +3,12 @@ package com.instantpay.web;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.instantpay.adapter.in.web.PaymentController;
 import com.instantpay.adapter.in.web.dto.SendPaymentRequest;
+import com.instantpay.domain.error.AccountBusyException;
 import com.instantpay.domain.error.AccountNotFoundException;
 import com.instantpay.domain.error.InsufficientFundsException;
 import com.instantpay.domain.model.PaymentStatus;
+import com.instantpay.domain.error.PaymentNotFoundException;
+import com.instantpay.domain.port.in.GetPaymentUseCase;
 import com.instantpay.domain.port.in.SendPaymentUseCase;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -19,6 +22,7 @@ import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.util.UUID;
 
 import static org.hamcrest.Matchers.containsString;
@@ -26,6 +30,7 @@ import static org.hamcrest.Matchers.startsWith; // Hamcrest
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.reset;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -39,11 +44,17 @@ class PaymentControllerSliceTest {
         SendPaymentUseCase sendPaymentUseCase() {
             return Mockito.mock(SendPaymentUseCase.class);
         }
+
+        @Bean
+        GetPaymentUseCase getPaymentUseCase() {
+            return Mockito.mock(GetPaymentUseCase.class);
+        }
     }
 
     @Autowired MockMvc mvc;
     @Autowired ObjectMapper om;
     @Autowired SendPaymentUseCase sendPaymentUseCase;
+    @Autowired GetPaymentUseCase getPaymentUseCase;
 
     private static final String DEBTOR_IBAN   = "CH9300762011623852957";
     private static final String CREDITOR_IBAN = "CH5604835012345678009";
@@ -51,7 +62,7 @@ class PaymentControllerSliceTest {
     @BeforeEach
     void resetMocks() {
         // Clear any stubs from previous tests in the cached context
-        reset(sendPaymentUseCase);
+        reset(sendPaymentUseCase, getPaymentUseCase);
     }
 
     @Test
@@ -131,4 +142,43 @@ class PaymentControllerSliceTest {
                 .andExpect(jsonPath("$.status").value(404))
                 .andExpect(jsonPath("$.detail", containsString(CREDITOR_IBAN)));
     }
+
+    @Test
+    void getPayment_returnsCurrentStatus() throws Exception {
+        var id = UUID.randomUUID();
+        when(getPaymentUseCase.get(id))
+                .thenReturn(new GetPaymentUseCase.PaymentView(id, PaymentStatus.CREATED, "Payment accepted"));
+
+        mvc.perform(get("/api/payments/{id}", id))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(id.toString()))
+                .andExpect(jsonPath("$.status").value("CREATED"));
+    }
+
+    @Test
+    void unknownPayment_mapsTo404_problemJson() throws Exception {
+        var id = UUID.randomUUID();
+        when(getPaymentUseCase.get(id)).thenThrow(new PaymentNotFoundException("Payment not found: " + id));
+
+        mvc.perform(get("/api/payments/{id}", id))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.type", containsString("not-found")))
+                .andExpect(jsonPath("$.detail", containsString(id.toString())));
+    }
+
+    @Test
+    void busyAccount_mapsTo503_withRetryAfter() throws Exception {
+        when(sendPaymentUseCase.send(any()))
+                .thenThrow(new AccountBusyException("Account busy, retry later", Duration.ofMillis(1500)));
+
+        var req = new SendPaymentRequest(DEBTOR_IBAN, CREDITOR_IBAN, "CHF", new BigDecimal("10.00"), null);
+
+        mvc.perform(post("/api/payments")
+                        .header("Idempotency-Key", "idem-503")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(om.writeValueAsString(req)))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "2"))
+                .andExpect(jsonPath("$.type", containsString("service-unavailable")));
+    }
 }
@@ -3,6 +3,7 @@ package com.instantpay.web;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.instantpay.adapter.in.web.PaymentController;
 import com.instantpay.adapter.in.web.dto.SendPaymentRequest;
+import com.instantpay.domain.port.in.GetPaymentUseCase;
 import com.instantpay.domain.port.in.SendPaymentUseCase;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -33,6 +34,11 @@ class PaymentControllerValidationTest {
         SendPaymentUseCase sendPaymentUseCase() {
             return Mockito.mock(SendPaymentUseCase.class);
         }
+
+        @Bean
+        GetPaymentUseCase getPaymentUseCase() {
+            return Mockito.mock(GetPaymentUseCase.class);
+        }
     }
 
     @Autowired MockMvc mvc;